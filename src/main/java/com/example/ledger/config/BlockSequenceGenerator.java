@@ -0,0 +1,68 @@
+package com.example.ledger.config;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Sequence-style ids without a database sequence (MySQL has none): each block of BLOCK_SIZE ids is one
+ * auto-increment row of id_blocks, inserted on the connection of the session that needs it.
+ *
+ * Hibernate's table generator reads and updates its counter row in a separate transaction, so every
+ * request that ran out of ids borrowed a second pooled connection and queued on that row's lock. An
+ * auto-increment insert takes no lock held until commit and its value is never handed out again, even
+ * if the inserting transaction rolls back, so the request's own connection can take the block.
+ *
+ * Ids are not IDENTITY, so Hibernate still batches the inserts. Blocks are per instance: ids of different
+ * instances interleave and are not in commit order; nothing may use them as a watermark of what is committed.
+ */
+public class BlockSequenceGenerator implements IdentifierGenerator {
+
+    public static final int BLOCK_SIZE = 50;
+
+    private static final String INSERT_BLOCK = "INSERT INTO id_blocks (sequence_name) VALUES (?)";
+
+    private final String sequenceName;
+    private long next;
+    private long limit;
+
+    public BlockSequenceGenerator(BlockSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (next == limit) {
+            Connection connection = session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+            try {
+                next = takeBlock(connection, sequenceName);
+            } catch (SQLException e) {
+                throw new IdentifierGenerationException("Cannot take an id block for " + sequenceName, e);
+            }
+            limit = next + BLOCK_SIZE;
+        }
+        return next++;
+    }
+
+    // Inserts one id_blocks row and returns the first id of its block
+    public static long takeBlock(Connection connection, String sequenceName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_BLOCK, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, sequenceName);
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No key returned for the id_blocks insert");
+                }
+                return (keys.getLong(1) - 1) * BLOCK_SIZE + 1;
+            }
+        }
+    }
+}
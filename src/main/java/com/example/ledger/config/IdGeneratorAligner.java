@@ -0,0 +1,54 @@
+package com.example.ledger.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the id_blocks counter (see BlockSequenceGenerator) past the ids already present in the tables that
+ * take their ids from it, and prunes the blocks taken before this start.
+ *
+ * Transaction, LedgerEntry and OutboxEvent used to take their ids from other generators; on a database that
+ * already holds rows, a block above MAX(id) is inserted before the first insert, otherwise the counter would
+ * hand out ids that are already taken. Only the highest row is kept: it carries the counter across restarts
+ * of servers that recompute it from the table.
+ *
+ * Runs during context refresh (after the schema update, before the web server starts).
+ */
+@Component
+public class IdGeneratorAligner implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorAligner.class);
+
+    // Every table whose entity is mapped with @BlockSequence
+    private static final List<String> TABLES = List.of("transactions", "ledger_entries", "ledger_outbox");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        // The EntityManagerFactory dependency guarantees Hibernate has created/updated the schema first
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long maxId = 0;
+        for (String table : TABLES) {
+            maxId = Math.max(maxId, jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class));
+        }
+        // The block holding MAX(id): the next block taken starts above it
+        long floor = (maxId + BlockSequenceGenerator.BLOCK_SIZE - 1) / BlockSequenceGenerator.BLOCK_SIZE;
+        long top = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM id_blocks", Long.class);
+        if (top < floor) {
+            jdbcTemplate.update("INSERT INTO id_blocks (id, sequence_name) VALUES (?, ?)", floor, "aligner");
+            logger.info("Raised the id block counter from {} to {}", top, floor);
+            top = floor;
+        }
+        jdbcTemplate.update("DELETE FROM id_blocks WHERE id < ?", top);
+    }
+}
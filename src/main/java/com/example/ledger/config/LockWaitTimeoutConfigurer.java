@@ -0,0 +1,32 @@
+package com.example.ledger.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * MySQL ignores JPA lock timeout hints, so row-lock waits are bounded at the session level instead:
+ * every MySQL connection pool (the replica's too, when there is one) runs
+ * SET SESSION innodb_lock_wait_timeout on new connections, derived from ledger.locking.timeout-ms and
+ * rounded up to whole seconds. ledger.locking.timeout-ms is the only lock wait setting.
+ */
+@Component
+public class LockWaitTimeoutConfigurer implements BeanPostProcessor {
+
+    private final long timeoutMillis;
+
+    public LockWaitTimeoutConfigurer(@Value("${ledger.locking.timeout-ms:3000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && dataSource.getJdbcUrl() != null
+                && dataSource.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            long seconds = Math.max(1, (timeoutMillis + 999) / 1000);
+            dataSource.setConnectionInitSql("SET SESSION innodb_lock_wait_timeout = " + seconds);
+        }
+        return bean;
+    }
+}
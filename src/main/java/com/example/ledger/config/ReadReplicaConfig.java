@@ -0,0 +1,105 @@
+package com.example.ledger.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to a read replica (see {@link ReadRouting}), enabled with
+ * ledger.replica.enabled. The primary pool keeps the spring.datasource settings.
+ *
+ * The routing data source sits behind a LazyConnectionDataSourceProxy: the JPA transaction manager
+ * asks for a connection before it marks the transaction read-only, the proxy defers the actual
+ * checkout (and so the routing decision) to the first statement.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${ledger.replica.url}") String url,
+                                              @Value("${ledger.replica.username:}") String username,
+                                              @Value("${ledger.replica.password:}") String password,
+                                              @Value("${ledger.replica.pool-size:20}") int poolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return ReadRouting.useReplica() ? REPLICA : PRIMARY;
+            }
+        };
+        routing.setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Honors the X-Read-Your-Writes request header
+    @Bean
+    public OncePerRequestFilter readYourWritesFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                if (!Boolean.parseBoolean(request.getHeader(ReadRouting.READ_YOUR_WRITES_HEADER))) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                Boolean previous = ReadRouting.require(true);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ReadRouting.restore(previous);
+                }
+            }
+        };
+    }
+
+    // Streamed responses are written on the MVC async executor; keep the request's routing there
+    @Bean
+    public TaskDecorator readRoutingTaskDecorator() {
+        return task -> {
+            boolean primaryRequired = ReadRouting.isPrimaryRequired();
+            return () -> ReadRouting.runWith(primaryRequired, task);
+        };
+    }
+}
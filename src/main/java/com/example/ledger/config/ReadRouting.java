@@ -0,0 +1,66 @@
+package com.example.ledger.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Decides which database a connection is taken from when the read replica is configured:
+ * read-only transactions go to the replica unless the caller asked for read-your-writes,
+ * everything else goes to the primary.
+ */
+public final class ReadRouting {
+
+    /** Request header that keeps a request's read-only transactions on the primary. */
+    public static final String READ_YOUR_WRITES_HEADER = "X-Read-Your-Writes";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean useReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPrimaryRequired();
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    // Read-your-writes for code paths that just wrote and must not read a lagging replica
+    public static <T> T callOnPrimary(Supplier<T> call) {
+        return callWith(true, call);
+    }
+
+    // Carries the requirement over to another thread (streamed responses)
+    static void runWith(boolean primaryRequired, Runnable task) {
+        callWith(primaryRequired, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private static <T> T callWith(boolean primaryRequired, Supplier<T> call) {
+        Boolean previous = require(primaryRequired);
+        try {
+            return call.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    // Returns the previous setting, to be handed back to restore()
+    static Boolean require(boolean primaryRequired) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(primaryRequired);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY_REQUIRED.remove();
+        } else {
+            PRIMARY_REQUIRED.set(previous);
+        }
+    }
+}
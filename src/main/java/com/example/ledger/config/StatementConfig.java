@@ -0,0 +1,28 @@
+package com.example.ledger.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads computing statement chunks (see StatementService), shared by every statement request: at most
+ * ledger.statements.parallelism chunks, each in its own read transaction, run at once however many
+ * statements are streamed. Each request queues only its bounded read-ahead.
+ */
+@Configuration
+public class StatementConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService statementExecutor(@Value("${ledger.statements.parallelism:4}") int parallelism) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "statement-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
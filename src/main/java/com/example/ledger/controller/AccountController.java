@@ -1,27 +1,56 @@
 package com.example.ledger.controller;
 
+import com.example.ledger.dto.BalanceCheckResponse;
 import com.example.ledger.dto.CreateAccountRequest;
+import com.example.ledger.dto.LedgerEntryPage;
+import com.example.ledger.dto.PointInTimeBalance;
+import com.example.ledger.dto.UpdateAccountStatusRequest;
 import com.example.ledger.model.Account;
 import com.example.ledger.model.LedgerEntry;
-import com.example.ledger.repository.LedgerEntryRepository;
 import com.example.ledger.service.AccountService;
+import com.example.ledger.service.AccountShardingService;
+import com.example.ledger.service.BalanceService;
+import com.example.ledger.service.StatementService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/accounts")
 public class AccountController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final AccountService accountService;
-    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceService balanceService;
+    private final AccountShardingService shardingService;
+    private final StatementService statementService;
+    // Flushing after every entry would turn a long stream into one socket write per row
+    private final ObjectWriter entryWriter;
 
-    public AccountController(AccountService accountService, LedgerEntryRepository ledgerEntryRepository) {
+    public AccountController(AccountService accountService, BalanceService balanceService,
+                             AccountShardingService shardingService, StatementService statementService,
+                             ObjectMapper objectMapper) {
         this.accountService = accountService;
-        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceService = balanceService;
+        this.shardingService = shardingService;
+        this.statementService = statementService;
+        this.entryWriter = objectMapper.writerFor(LedgerEntry.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     // POST /accounts : Create a new user account.
@@ -38,12 +67,89 @@ public class AccountController {
         return ResponseEntity.ok(account);
     }
 
+    // GET /accounts/{accountId}/ledger-entries?limit=N[&cursor=C] : One page of ledger entries, oldest first.
+    @GetMapping(value = "/{accountId}/ledger-entries", params = "limit")
+    public ResponseEntity<LedgerEntryPage> getLedgerEntryPage(@PathVariable Long accountId,
+                                                              @RequestParam int limit,
+                                                              @RequestParam(required = false) String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        accountService.assertAccountExists(accountId);
+        return ResponseEntity.ok(accountService.getLedgerEntryPage(accountId, cursor, limit));
+    }
+
+    // GET /accounts/{accountId}/ledger-entries (Accept: application/x-ndjson) : Full history, one JSON entry per line.
+    @GetMapping(value = "/{accountId}/ledger-entries", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamLedgerEntries(@PathVariable Long accountId) {
+        accountService.assertAccountExists(accountId);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = entryWriter.createGenerator(out)) {
+                accountService.streamLedgerEntries(accountId, entry -> {
+                    writeEntry(generator, entry);
+                    writeNewline(generator);
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     // GET /accounts/{accountId}/ledger-entries : Fetch a chronological list of all ledger entries for a specific account.
+    // The array is written while the rows are read, so the full history is never held in memory.
     @GetMapping("/{accountId}/ledger-entries")
-    public ResponseEntity<List<LedgerEntry>> getLedgerEntries(@PathVariable Long accountId) {
-        // Ensure account exists before fetching entries
-        accountService.getAccountWithBalance(accountId); 
-        List<LedgerEntry> entries = ledgerEntryRepository.findAllByAccountIdOrderByCreatedAtAsc(accountId);
-        return ResponseEntity.ok(entries);
+    public ResponseEntity<StreamingResponseBody> getLedgerEntries(@PathVariable Long accountId) {
+        accountService.assertAccountExists(accountId);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = entryWriter.createGenerator(out)) {
+                generator.writeStartArray();
+                accountService.streamLedgerEntries(accountId, entry -> writeEntry(generator, entry));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // PUT /accounts/{accountId}/status : Freeze (FROZEN) or reactivate (ACTIVE) an account.
+    @PutMapping("/{accountId}/status")
+    public ResponseEntity<Account> updateStatus(@PathVariable Long accountId,
+                                                @Valid @RequestBody UpdateAccountStatusRequest request) {
+        return ResponseEntity.ok(accountService.updateStatus(accountId, request.getStatus()));
+    }
+
+    // POST /accounts/{accountId}/shards?count=K : Back a hot account with K sub-accounts that share its credits.
+    @PostMapping("/{accountId}/shards")
+    public ResponseEntity<Account> enableSharding(@PathVariable Long accountId, @RequestParam int count) {
+        return ResponseEntity.ok(shardingService.enableSharding(accountId, count));
+    }
+
+    // GET /accounts/{accountId}/balance?asOf= : Balance at an instant, from the entries created before it.
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<PointInTimeBalance> getBalanceAt(
+            @PathVariable Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return ResponseEntity.ok(statementService.balanceAt(accountId, asOf));
+    }
+
+    // GET /accounts/{accountId}/balance-check : Compare the checkpoint-based balance with a full recompute.
+    @GetMapping("/{accountId}/balance-check")
+    public ResponseEntity<BalanceCheckResponse> checkBalance(@PathVariable Long accountId) {
+        accountService.assertAccountExists(accountId);
+        return ResponseEntity.ok(balanceService.verify(accountId));
+    }
+
+    private void writeEntry(JsonGenerator generator, LedgerEntry entry) {
+        try {
+            entryWriter.writeValue(generator, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeNewline(JsonGenerator generator) {
+        try {
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
\ No newline at end of file
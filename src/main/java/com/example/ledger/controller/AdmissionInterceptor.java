@@ -0,0 +1,161 @@
+package com.example.ledger.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission limiter in front of the JDBC pool, with separate budgets for writes (every non-GET controller
+ * endpoint) and reads (GET and HEAD), so writers queued on row locks cannot take every connection away
+ * from cheap reads. Tomcat runs far more request threads than the pool has connections, so without it
+ * they all queue on the pool together.
+ *
+ * A request that cannot get a permit within the acquire timeout is rejected with 503. Streamed responses
+ * keep their permit until the stream completes.
+ */
+@Component
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final boolean enabled;
+    private final long acquireTimeoutMillis;
+    private final Lane writes;
+    private final Lane reads;
+
+    public AdmissionInterceptor(@Value("${ledger.admission.enabled:false}") boolean enabled,
+                                @Value("${ledger.admission.max-concurrent-writes:16}") int maxWrites,
+                                @Value("${ledger.admission.max-concurrent-reads:16}") int maxReads,
+                                @Value("${ledger.admission.acquire-timeout-ms:1000}") long acquireTimeoutMillis,
+                                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                MeterRegistry meterRegistry) {
+        // Every admitted request holds at most one connection
+        if (enabled && maxWrites + maxReads > poolSize) {
+            throw new IllegalStateException("ledger.admission budgets need up to " + (maxWrites + maxReads)
+                    + " connections but the pool has " + poolSize);
+        }
+        this.enabled = enabled;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.writes = new Lane("write", maxWrites, meterRegistry);
+        this.reads = new Lane("read", maxReads, meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async re-dispatches of a streamed response already hold the permit from the first dispatch
+        if (!enabled || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        Lane lane = laneFor(request, handler);
+        if (lane == null) {
+            return true;
+        }
+        try {
+            if (!lane.semaphore.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                lane.rejected.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Too many concurrent " + lane.name + " requests, please retry the request.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for admission.");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(lane.semaphore));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Also released when the async request ends without a re-dispatch (timeout, client gone)
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            request.getAsyncContext().addListener(permit);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            permit.release();
+        }
+    }
+
+    // Controller endpoints only (not static resources); the lane follows the HTTP method
+    private Lane laneFor(HttpServletRequest request, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return null;
+        }
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ? reads : writes;
+    }
+
+    private static final class Lane {
+
+        private final String name;
+        private final Semaphore semaphore;
+        private final Counter rejected;
+
+        Lane(String name, int permits, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.semaphore = new Semaphore(permits);
+            Gauge.builder("ledger.admission.in-flight", semaphore, s -> permits - s.availablePermits())
+                    .description("Admitted requests currently running")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("ledger.admission.rejected")
+                    .description("Requests rejected with 503 after waiting for admission")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    // Released exactly once, by whichever of afterCompletion and the async listener comes first
+    private static final class Permit implements AsyncListener {
+
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
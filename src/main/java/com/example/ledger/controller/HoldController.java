@@ -0,0 +1,52 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.CaptureHoldRequest;
+import com.example.ledger.dto.HoldRequest;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.service.HoldService;
+import com.example.ledger.service.LedgerMetrics;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/holds")
+public class HoldController {
+
+    private final HoldService holdService;
+    private final LedgerMetrics metrics;
+
+    public HoldController(HoldService holdService, LedgerMetrics metrics) {
+        this.holdService = holdService;
+        this.metrics = metrics;
+    }
+
+    // POST /holds : Reserve funds on an account without moving them yet.
+    @PostMapping
+    public ResponseEntity<Hold> reserve(@Valid @RequestBody HoldRequest request) {
+        return new ResponseEntity<>(holdService.reserve(request), HttpStatus.CREATED);
+    }
+
+    // POST /holds/{holdId}/capture : Move (part of) the held funds to the hold's destination account.
+    @PostMapping("/{holdId}/capture")
+    public ResponseEntity<Transaction> capture(@PathVariable Long holdId,
+                                               @Valid @RequestBody(required = false) CaptureHoldRequest request) {
+        CaptureHoldRequest capture = request != null ? request : new CaptureHoldRequest();
+        Transaction transaction = metrics.recordOperation("hold_capture", () -> holdService.capture(holdId, capture));
+        return new ResponseEntity<>(transaction, HttpStatus.ACCEPTED);
+    }
+
+    // POST /holds/{holdId}/release : Give the remaining held funds back to the available balance.
+    @PostMapping("/{holdId}/release")
+    public ResponseEntity<Hold> release(@PathVariable Long holdId) {
+        return ResponseEntity.ok(holdService.release(holdId));
+    }
+
+    // GET /holds/{holdId} : Retrieve a hold, including how much of it was captured.
+    @GetMapping("/{holdId}")
+    public ResponseEntity<Hold> getHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(holdService.getHold(holdId));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.ImportReport;
+import com.example.ledger.model.ImportJob;
+import com.example.ledger.model.ImportJob.ImportFormat;
+import com.example.ledger.service.BulkImportService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/imports")
+public class ImportController {
+
+    private static final int MAX_REJECTS = 1000;
+
+    private final BulkImportService importService;
+
+    public ImportController(BulkImportService importService) {
+        this.importService = importService;
+    }
+
+    // POST /imports?source=history.csv&format=CSV|NDJSON : Import the request body (the file), or resume its
+    // unfinished import, and wait for the report. The body is streamed, not buffered.
+    @PostMapping
+    public ResponseEntity<ImportReport> importFile(@RequestParam String source,
+                                                   @RequestParam(defaultValue = "CSV") ImportFormat format,
+                                                   @RequestParam(defaultValue = "100") int rejectLimit,
+                                                   InputStream body) {
+        ImportJob job = importService.importFile(source, format, body);
+        return ResponseEntity.ok(report(job, rejectLimit));
+    }
+
+    // GET /imports/{jobId} : Retrieve an import's progress (also while it runs) and its first rejected rows.
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportReport> getReport(@PathVariable Long jobId,
+                                                  @RequestParam(defaultValue = "100") int rejectLimit) {
+        return ResponseEntity.ok(report(importService.getJob(jobId), rejectLimit));
+    }
+
+    private ImportReport report(ImportJob job, int rejectLimit) {
+        int limit = Math.max(1, Math.min(rejectLimit, MAX_REJECTS));
+        return new ImportReport(job, importService.getRejects(job.getId(), limit));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.LedgerEventPage;
+import com.example.ledger.service.LedgerEventFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/events")
+@ConditionalOnProperty(name = "ledger.events.publisher.enabled", havingValue = "true")
+public class LedgerEventController {
+
+    private static final long MAX_WAIT_MS = 60_000;
+
+    private final LedgerEventFeed feed;
+
+    public LedgerEventController(LedgerEventFeed feed) {
+        this.feed = feed;
+    }
+
+    // GET /events?from=0&max=100&waitMs=30000 : Events from the offset on. With waitMs, an empty page is
+    // returned only after waiting that long for the next event (long poll). Continue with ?from=nextOffset.
+    @GetMapping
+    public DeferredResult<LedgerEventPage> getEvents(@RequestParam(defaultValue = "0") long from,
+                                                     @RequestParam(defaultValue = "100") int max,
+                                                     @RequestParam(defaultValue = "0") long waitMs) {
+        return feed.poll(requireOffset(from), Math.max(1, max), Math.min(waitMs, MAX_WAIT_MS));
+    }
+
+    // GET /events/stream?from=0 : Server-sent events from the offset on, then live. A reconnecting client's
+    // Last-Event-ID header (the offset of the last event it received) takes precedence over from.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(defaultValue = "0") long from,
+                             @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return feed.subscribe(requireOffset(lastEventId != null ? lastEventId + 1 : from));
+    }
+
+    private static long requireOffset(long offset) {
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Offset must not be negative.");
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.ReconciliationReport;
+import com.example.ledger.model.ReconciliationRun;
+import com.example.ledger.model.ReconciliationRun.RunMode;
+import com.example.ledger.service.ReconciliationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/reconciliations")
+public class ReconciliationController {
+
+    private static final int MAX_MISMATCHES = 1000;
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    // POST /reconciliations?mode=FULL|INCREMENTAL : Run (or resume) a reconciliation and wait for its report.
+    @PostMapping
+    public ResponseEntity<ReconciliationReport> reconcile(@RequestParam(defaultValue = "INCREMENTAL") RunMode mode,
+                                                          @RequestParam(defaultValue = "100") int mismatchLimit) {
+        ReconciliationRun run = reconciliationService.reconcile(mode);
+        return ResponseEntity.ok(report(run, mismatchLimit));
+    }
+
+    // GET /reconciliations/{runId} : Retrieve a run's totals and its first mismatches.
+    @GetMapping("/{runId}")
+    public ResponseEntity<ReconciliationReport> getReport(@PathVariable Long runId,
+                                                          @RequestParam(defaultValue = "100") int mismatchLimit) {
+        return ResponseEntity.ok(report(reconciliationService.getRun(runId), mismatchLimit));
+    }
+
+    private ReconciliationReport report(ReconciliationRun run, int mismatchLimit) {
+        int limit = Math.max(1, Math.min(mismatchLimit, MAX_MISMATCHES));
+        return new ReconciliationReport(run, reconciliationService.getMismatches(run.getId(), limit));
+    }
+}
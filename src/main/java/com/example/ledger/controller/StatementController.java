@@ -0,0 +1,58 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.AccountStatement;
+import com.example.ledger.service.StatementService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/statements")
+public class StatementController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final StatementService statementService;
+    private final ObjectWriter statementWriter;
+
+    public StatementController(StatementService statementService, ObjectMapper objectMapper) {
+        this.statementService = statementService;
+        this.statementWriter = objectMapper.writerFor(AccountStatement.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // GET /statements?from=&to= : Statements of all accounts over [from, to), one JSON statement per line.
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamStatements(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to.");
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = statementWriter.createGenerator(out)) {
+                statementService.streamStatements(from, to, statement -> {
+                    try {
+                        statementWriter.writeValue(generator, statement);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.ledger.controller;
 
 import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.dto.BatchTransferRequest;
+import com.example.ledger.dto.BatchTransferResponse;
+import com.example.ledger.dto.JournalRequest;
 import com.example.ledger.dto.TransferRequest;
 import com.example.ledger.model.Transaction;
+import com.example.ledger.service.BatchTransferService;
+import com.example.ledger.service.GroupCommitExecutor;
+import com.example.ledger.service.IdempotencyService;
+import com.example.ledger.service.JournalService;
+import com.example.ledger.service.LedgerEngine;
+import com.example.ledger.service.LedgerMetrics;
 import com.example.ledger.service.TransactionService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -17,29 +27,79 @@ import org.springframework.web.bind.annotation.RestController;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final BatchTransferService batchTransferService;
+    private final JournalService journalService;
+    private final GroupCommitExecutor groupCommitExecutor;
+    private final IdempotencyService idempotencyService;
+    private final LedgerEngine engine;
+    private final LedgerMetrics metrics;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, BatchTransferService batchTransferService,
+                                 JournalService journalService, GroupCommitExecutor groupCommitExecutor, IdempotencyService idempotencyService,
+                                 LedgerEngine engine, LedgerMetrics metrics) {
         this.transactionService = transactionService;
+        this.batchTransferService = batchTransferService;
+        this.journalService = journalService;
+        this.groupCommitExecutor = groupCommitExecutor;
+        this.idempotencyService = idempotencyService;
+        this.engine = engine;
+        this.metrics = metrics;
     }
 
     // POST /transfers : Execute a financial transfer between two internal accounts.
+    // With ledger.engine.enabled, transfers, deposits and withdrawals run on the in-memory LedgerEngine.
+    // With an Idempotency-Key header, a retry returns the transaction of the first request (also on /deposits, /withdrawals).
     @PostMapping("/transfers")
-    public ResponseEntity<Transaction> executeTransfer(@Valid @RequestBody TransferRequest request) {
-        Transaction transaction = transactionService.executeTransfer(request);
+    public ResponseEntity<Transaction> executeTransfer(@Valid @RequestBody TransferRequest request,
+                                                       @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Transaction transaction = metrics.recordOperation("transfer", () -> idempotencyService.execute(
+                idempotencyKey, "transfer", request, () -> engine.isEnabled()
+                        ? engine.transfer(request)
+                        : groupCommitExecutor.execute(
+                                () -> transactionService.applyTransfer(request),
+                                () -> transactionService.executeTransfer(request))));
+        return new ResponseEntity<>(transaction, HttpStatus.ACCEPTED);
+    }
+
+    // POST /transfers/batch : Execute many transfers in one (ATOMIC) or a few (PER_ITEM) database transactions.
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<BatchTransferResponse> executeTransferBatch(@Valid @RequestBody BatchTransferRequest request) {
+        BatchTransferResponse response = batchTransferService.executeBatch(request);
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    }
+
+    // POST /journals : Post balanced debit/credit legs across accounts as one transaction (e.g. a payment and its fee).
+    @PostMapping("/journals")
+    public ResponseEntity<Transaction> postJournal(@Valid @RequestBody JournalRequest request,
+                                                   @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Transaction transaction = metrics.recordOperation("journal", () -> idempotencyService.execute(
+                idempotencyKey, "journal", request, () -> journalService.post(request)));
         return new ResponseEntity<>(transaction, HttpStatus.ACCEPTED);
     }
 
     // POST /deposits : Simulate a deposit into an account.
     @PostMapping("/deposits")
-    public ResponseEntity<Transaction> executeDeposit(@Valid @RequestBody AmountRequest request) {
-        Transaction transaction = transactionService.executeDeposit(request);
+    public ResponseEntity<Transaction> executeDeposit(@Valid @RequestBody AmountRequest request,
+                                                      @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Transaction transaction = metrics.recordOperation("deposit", () -> idempotencyService.execute(
+                idempotencyKey, "deposit", request, () -> engine.isEnabled()
+                        ? engine.deposit(request)
+                        : groupCommitExecutor.execute(
+                                () -> transactionService.applyDeposit(request),
+                                () -> transactionService.executeDeposit(request))));
         return new ResponseEntity<>(transaction, HttpStatus.ACCEPTED);
     }
 
     // POST /withdrawals : Simulate a withdrawal from an account.
     @PostMapping("/withdrawals")
-    public ResponseEntity<Transaction> executeWithdrawal(@Valid @RequestBody AmountRequest request) {
-        Transaction transaction = transactionService.executeWithdrawal(request);
+    public ResponseEntity<Transaction> executeWithdrawal(@Valid @RequestBody AmountRequest request,
+                                                         @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Transaction transaction = metrics.recordOperation("withdrawal", () -> idempotencyService.execute(
+                idempotencyKey, "withdrawal", request, () -> engine.isEnabled()
+                        ? engine.withdraw(request)
+                        : groupCommitExecutor.execute(
+                                () -> transactionService.applyWithdrawal(request),
+                                () -> transactionService.executeWithdrawal(request))));
         return new ResponseEntity<>(transaction, HttpStatus.ACCEPTED);
     }
 }
\ No newline at end of file
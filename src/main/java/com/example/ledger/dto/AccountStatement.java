@@ -0,0 +1,23 @@
+package com.example.ledger.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// An account's movements over [from, to): closingBalance = openingBalance + credits - debits.
+@Data
+@AllArgsConstructor
+public class AccountStatement {
+
+    private Long accountId;
+    private String currency;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private BigDecimal credits;
+    private BigDecimal debits;
+    private long entries;
+}
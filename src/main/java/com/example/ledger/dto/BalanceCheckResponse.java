@@ -0,0 +1,17 @@
+package com.example.ledger.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// Result of comparing the checkpoint-based balance with a full recompute over all ledger entries.
+@Data
+@AllArgsConstructor
+public class BalanceCheckResponse {
+
+    private Long accountId;
+    private BigDecimal checkpointBalance;
+    private BigDecimal recomputedBalance;
+    private boolean consistent;
+}
@@ -0,0 +1,26 @@
+package com.example.ledger.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransferRequest {
+
+    // ATOMIC: every transfer succeeds or none is applied.
+    // PER_ITEM: failing transfers are reported individually, the rest are applied.
+    @NotNull(message = "Mode is mandatory")
+    private BatchMode mode = BatchMode.ATOMIC;
+
+    @NotEmpty(message = "Transfers are mandatory")
+    @Size(max = 10000, message = "A batch may contain at most 10000 transfers")
+    private List<@Valid TransferRequest> transfers;
+
+    public enum BatchMode {
+        ATOMIC, PER_ITEM
+    }
+}
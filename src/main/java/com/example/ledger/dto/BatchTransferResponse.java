@@ -0,0 +1,28 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.dto.BatchTransferRequest.BatchMode;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchTransferResponse {
+
+    private BatchMode mode;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private List<ItemResult> results;
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private TransactionStatus status;
+        private Long transactionId;
+        private String error;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ledger.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class CaptureHoldRequest {
+
+    // Defaults to the whole remaining amount
+    @Positive(message = "Amount must be greater than zero")
+    @Digits(integer = 14, fraction = 4, message = "Amount must have at most 14 integer and 4 fraction digits")
+    private BigDecimal amount;
+
+    // Releases whatever remains after this capture
+    private boolean finalCapture;
+}
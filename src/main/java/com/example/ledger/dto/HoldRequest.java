@@ -0,0 +1,30 @@
+package com.example.ledger.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class HoldRequest {
+
+    @NotNull(message = "Account ID is mandatory")
+    private Long accountId;
+
+    @NotNull(message = "Destination account ID is mandatory")
+    private Long destinationAccountId;
+
+    @NotNull(message = "Amount is mandatory")
+    @Positive(message = "Amount must be greater than zero")
+    @Digits(integer = 14, fraction = 4, message = "Amount must have at most 14 integer and 4 fraction digits")
+    private BigDecimal amount;
+
+    // Defaults to ledger.holds.default-ttl-seconds
+    @Positive(message = "Expiry must be greater than zero")
+    private Long expiresInSeconds;
+
+    @Size(max = 255, message = "Description must be less than 255 characters")
+    private String description;
+}
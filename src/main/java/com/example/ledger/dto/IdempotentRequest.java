@@ -0,0 +1,11 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.IdempotencyKey;
+
+// A write request that can be sent with an Idempotency-Key header; the key is recorded with the posting
+public interface IdempotentRequest {
+
+    IdempotencyKey getIdempotencyKey();
+
+    void setIdempotencyKey(IdempotencyKey idempotencyKey);
+}
@@ -0,0 +1,21 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.Transaction.TransactionType;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One historical transaction of a bulk import file (a CSV row or an NDJSON line; CSV headers use snake_case).
+// Deposits name only the destination account, withdrawals only the source account.
+@Data
+public class ImportRecord {
+
+    private TransactionType type;
+    private Long sourceAccountId;
+    private Long destinationAccountId;
+    private BigDecimal amount;
+    private String currency;
+    private LocalDateTime createdAt;
+    private String description;
+}
@@ -0,0 +1,18 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.ImportJob;
+import com.example.ledger.model.ImportReject;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ImportReport {
+
+    private ImportJob job;
+
+    // The first recorded rejects of the job (job.rowsRejected has the total)
+    private List<ImportReject> rejects;
+}
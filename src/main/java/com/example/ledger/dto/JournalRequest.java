@@ -0,0 +1,45 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.IdempotencyKey;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class JournalRequest implements IdempotentRequest {
+
+    // Debits and credits must be equal in each currency (the currency of a leg is that of its account)
+    @NotNull(message = "Legs are mandatory")
+    @Size(min = 2, max = 1000, message = "A journal must have between 2 and 1000 legs")
+    private List<@Valid @NotNull Leg> legs;
+
+    @Size(max = 255, message = "Description must be less than 255 characters")
+    private String description;
+
+    // From the Idempotency-Key header, not the body
+    @JsonIgnore
+    private IdempotencyKey idempotencyKey;
+
+    @Data
+    public static class Leg {
+
+        @NotNull(message = "Account ID is mandatory")
+        private Long accountId;
+
+        @NotNull(message = "Type is mandatory")
+        private EntryType type;
+
+        @NotNull(message = "Amount is mandatory")
+        @Positive(message = "Amount must be greater than zero")
+        @Digits(integer = 14, fraction = 4, message = "Amount must have at most 14 integer and 4 fraction digits")
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.LedgerEntry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Opaque keyset cursor: position (created_at, id) of the last entry of a page.
+public record LedgerEntryCursor(LocalDateTime createdAt, Long id) {
+
+    public static LedgerEntryCursor after(LedgerEntry entry) {
+        return new LedgerEntryCursor(entry.getCreatedAt(), entry.getId());
+    }
+
+    public static LedgerEntryCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            return new LedgerEntryCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.");
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.LedgerEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class LedgerEntryPage {
+
+    private List<LedgerEntry> entries;
+
+    // Pass as ?cursor= to fetch the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,7 @@
+package com.example.ledger.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+// An event of the ledger event log: its offset, and the transaction with its legs as published (JSON)
+public record LedgerEvent(long offset, @JsonRawValue String event) {
+}
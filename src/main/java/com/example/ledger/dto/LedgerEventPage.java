@@ -0,0 +1,16 @@
+package com.example.ledger.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class LedgerEventPage {
+
+    private List<LedgerEvent> events;
+
+    // Pass as ?from= to fetch the events after this page
+    private long nextOffset;
+}
@@ -0,0 +1,18 @@
+package com.example.ledger.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Balance of an account at an instant: the sum of its ledger entries created before asOf.
+@Data
+@AllArgsConstructor
+public class PointInTimeBalance {
+
+    private Long accountId;
+    private String currency;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+}
@@ -0,0 +1,18 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.ReconciliationMismatch;
+import com.example.ledger.model.ReconciliationRun;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ReconciliationReport {
+
+    private ReconciliationRun run;
+
+    // The first recorded mismatches of the run (run.mismatches has the total)
+    private List<ReconciliationMismatch> mismatches;
+}
@@ -1,5 +1,8 @@
 package com.example.ledger.dto;
 
+import com.example.ledger.model.IdempotencyKey;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
@@ -7,7 +10,7 @@ import lombok.Data;
 import java.math.BigDecimal;
 
 @Data
-public class TransferRequest {
+public class TransferRequest implements IdempotentRequest {
 
     @NotNull(message = "Source account ID is mandatory")
     private Long sourceAccountId;
@@ -17,8 +20,13 @@ public class TransferRequest {
 
     @NotNull(message = "Amount is mandatory")
     @Positive(message = "Amount must be greater than zero")
+    @Digits(integer = 14, fraction = 4, message = "Amount must have at most 14 integer and 4 fraction digits")
     private BigDecimal amount;
 
     @Size(max = 255, message = "Description must be less than 255 characters")
     private String description;
-}
\ No newline at end of file
+
+    // From the Idempotency-Key header, not the body
+    @JsonIgnore
+    private IdempotencyKey idempotencyKey;
+}
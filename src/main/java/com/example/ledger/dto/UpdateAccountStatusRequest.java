@@ -0,0 +1,12 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.Account.AccountStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class UpdateAccountStatusRequest {
+
+    @NotNull(message = "Status is mandatory")
+    private AccountStatus status;
+}
@@ -0,0 +1,8 @@
+package com.example.ledger.exception;
+
+// Business rule violation: money cannot move into or out of a FROZEN account
+public class AccountNotActiveException extends RuntimeException {
+    public AccountNotActiveException(String message) {
+        super(message);
+    }
+}
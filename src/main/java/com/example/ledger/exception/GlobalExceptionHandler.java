@@ -1,5 +1,7 @@
 package com.example.ledger.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -7,6 +9,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -30,12 +33,55 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    // Handles AccountNotActiveException (frozen account) -> 422 Unprocessable Entity
+    @ExceptionHandler(AccountNotActiveException.class)
+    public ResponseEntity<String> handleAccountNotActiveException(AccountNotActiveException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    // Handles HoldStateException (hold already captured, released or expired) -> 409 Conflict
+    @ExceptionHandler(HoldStateException.class)
+    public ResponseEntity<String> handleHoldStateException(HoldStateException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // Handles ReconciliationInProgressException -> 409 Conflict
+    @ExceptionHandler(ReconciliationInProgressException.class)
+    public ResponseEntity<String> handleReconciliationInProgressException(ReconciliationInProgressException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // Handles ImportInProgressException -> 409 Conflict
+    @ExceptionHandler(ImportInProgressException.class)
+    public ResponseEntity<String> handleImportInProgressException(ImportInProgressException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // Handles IdempotencyKeyReusedException -> 422 Unprocessable Entity
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
     // Handles Not Found (e.g., Account not found) -> 404 Not Found
     @ExceptionHandler(NoSuchElementException.class)
     public ResponseEntity<String> handleNoSuchElementException(NoSuchElementException ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
     
+    // Lock conflicts still failing after the lock retries (see RetryOnLockFailure) -> 409 Conflict
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<String> handleLockingFailure(PessimisticLockingFailureException ex) {
+        String reason = isDeadlock(ex) ? "Deadlock detected" : "Lock wait timed out";
+        return new ResponseEntity<>(reason + ", please retry the request.", HttpStatus.CONFLICT);
+    }
+
+    // Version conflicts still failing after the retries (optimistic locking strategy) -> 409 Conflict
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return new ResponseEntity<>("Concurrent update of the account, please retry the request.", HttpStatus.CONFLICT);
+    }
+
     // Handles general Spring exceptions (like ResponseStatusException for generic 404/400)
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<String> handleResponseStatusException(ResponseStatusException ex) {
@@ -47,4 +93,14 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleGeneralException(Exception ex) {
         return new ResponseEntity<>("An unexpected error occurred: " + ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    // SQLSTATE 40001 is reported for deadlock victims by both MySQL (error 1213) and H2
+    private static boolean isDeadlock(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && "40001".equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
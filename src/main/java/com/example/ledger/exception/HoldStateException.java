@@ -0,0 +1,8 @@
+package com.example.ledger.exception;
+
+// The hold can no longer be captured or released (already captured, released or expired), or the capture exceeds it
+public class HoldStateException extends RuntimeException {
+    public HoldStateException(String message) {
+        super(message);
+    }
+}
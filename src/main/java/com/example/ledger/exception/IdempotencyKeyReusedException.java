@@ -0,0 +1,8 @@
+package com.example.ledger.exception;
+
+// An Idempotency-Key was sent again with a different request
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
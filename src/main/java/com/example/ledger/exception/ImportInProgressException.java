@@ -0,0 +1,8 @@
+package com.example.ledger.exception;
+
+// The same file is already being imported on this instance
+public class ImportInProgressException extends RuntimeException {
+    public ImportInProgressException(String message) {
+        super(message);
+    }
+}
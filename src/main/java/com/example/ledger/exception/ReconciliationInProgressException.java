@@ -0,0 +1,8 @@
+package com.example.ledger.exception;
+
+// A reconciliation run is already in progress on this instance
+public class ReconciliationInProgressException extends RuntimeException {
+    public ReconciliationInProgressException(String message) {
+        super(message);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.ledger.model;
 import jakarta.persistence.Transient; 
 import java.math.BigDecimal; // Important for high precision
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -10,12 +11,16 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_parent_account_id", columnList = "parent_account_id")
+})
 @Data
 @NoArgsConstructor
 public class Account {
@@ -38,6 +43,28 @@ public class Account {
     @Column(name = "status", nullable = false)
     private AccountStatus status = AccountStatus.ACTIVE;
 
+    // Hot-account sharding (internal, not part of the API): a sharded account has shardCount > 0 and
+    // K sub-accounts pointing back to it through parentAccountId. Credits are spread across the
+    // sub-accounts; debits and balances aggregate the whole group. See AccountShardingService.
+    @JsonIgnore
+    @Column(name = "parent_account_id")
+    private Long parentAccountId;
+
+    @JsonIgnore
+    @Column(name = "shard_count", nullable = false)
+    private int shardCount;
+
+    // Optimistic locking strategy only (see AccountLocking): the balance kept up to date by every posting,
+    // null until first needed, and the version that every write of the account checks and increments.
+    @JsonIgnore
+    @Column(name = "running_balance", precision = 19, scale = 4)
+    private BigDecimal runningBalance;
+
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Balance is calculated, not stored. The 'balance' field is for service/DTO use.
     @Transient 
     private BigDecimal balance = BigDecimal.ZERO;
@@ -0,0 +1,31 @@
+package com.example.ledger.model;
+
+import com.example.ledger.model.Account.AccountStatus;
+import com.example.ledger.model.Account.AccountType;
+
+/**
+ * The account fields that (almost) never change, as served by AccountMetadataCache.
+ * Loaded through a JPQL projection, so reading it does not put an Account into the persistence context.
+ */
+public record AccountMetadata(Long id, Long userId, AccountType type, String currency, AccountStatus status) {
+
+    public static AccountMetadata of(Account account) {
+        return new AccountMetadata(account.getId(), account.getUserId(), account.getType(),
+                account.getCurrency(), account.getStatus());
+    }
+
+    public boolean isActive() {
+        return status == AccountStatus.ACTIVE;
+    }
+
+    // Detached Account carrying these fields, e.g. for API responses
+    public Account toAccount() {
+        Account account = new Account();
+        account.setId(id);
+        account.setUserId(userId);
+        account.setType(type);
+        account.setCurrency(currency);
+        account.setStatus(status);
+        return account;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Snapshot of an account balance: the sum of all ledger entries with posted_at <= coveredThrough.
+// Current balance = checkpoint balance + entries posted after the checkpoint.
+@Entity
+@Table(name = "balance_checkpoints")
+@Data
+@NoArgsConstructor
+public class BalanceCheckpoint {
+
+    // Lower bound of a checkpoint that covers no entry yet
+    public static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "covered_through", nullable = false)
+    private LocalDateTime coveredThrough;
+
+    // DECIMAL(19, 4) to match ledger_entries.amount
+    @Column(name = "balance", precision = 19, scale = 4, nullable = false)
+    private BigDecimal balance;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public BalanceCheckpoint(Long accountId, LocalDateTime coveredThrough, BigDecimal balance) {
+        this.accountId = accountId;
+        this.coveredThrough = coveredThrough;
+        this.balance = balance;
+    }
+}
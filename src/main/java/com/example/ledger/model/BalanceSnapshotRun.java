@@ -0,0 +1,36 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Days through closingDate are snapshotted (see BalanceSnapshotService): the latest run is the watermark,
+// the earliest one holds the opening balances the snapshots start from.
+@Entity
+@Table(name = "balance_snapshot_runs")
+@Data
+@NoArgsConstructor
+public class BalanceSnapshotRun {
+
+    @Id
+    @Column(name = "closing_date")
+    private LocalDate closingDate;
+
+    // Snapshots written for the day
+    @Column(name = "accounts", nullable = false)
+    private int accounts;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public BalanceSnapshotRun(LocalDate closingDate, int accounts) {
+        this.closingDate = closingDate;
+        this.accounts = accounts;
+    }
+}
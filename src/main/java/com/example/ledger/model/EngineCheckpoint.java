@@ -0,0 +1,28 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last journal record of a ledger engine partition whose rows are in the database (see LedgerEngine)
+@Entity
+@Table(name = "engine_checkpoints")
+@Data
+@NoArgsConstructor
+public class EngineCheckpoint {
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(name = "persisted_seq", nullable = false)
+    private long persistedSeq;
+
+    public EngineCheckpoint(Integer partitionId, long persistedSeq) {
+        this.partitionId = partitionId;
+        this.persistedSeq = persistedSeq;
+    }
+}
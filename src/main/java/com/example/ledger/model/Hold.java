@@ -0,0 +1,75 @@
+package com.example.ledger.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Authorization hold: funds reserved on an account until captured (moved to the destination), released or expired.
+// Captures may be partial; an ACTIVE hold keeps amount - capturedAmount reserved.
+@Entity
+@Table(name = "holds", indexes = {
+        @Index(name = "idx_holds_account_id_status", columnList = "account_id, status"),
+        @Index(name = "idx_holds_status_expires_at", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    // Account credited by captures (e.g. the merchant's settlement account)
+    @Column(name = "destination_account_id", nullable = false)
+    private Long destinationAccountId;
+
+    @Column(name = "amount", precision = 19, scale = 4, nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "captured_amount", precision = 19, scale = 4, nullable = false)
+    private BigDecimal capturedAmount = BigDecimal.ZERO;
+
+    @Column(name = "currency", length = 3, nullable = false)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private HoldStatus status = HoldStatus.ACTIVE;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Amount still reserved (zero once the hold is no longer ACTIVE)
+    @JsonIgnore
+    public Money getRemaining() {
+        return status == HoldStatus.ACTIVE ? Money.of(amount).minus(Money.of(capturedAmount)) : Money.ZERO;
+    }
+
+    public enum HoldStatus {
+        ACTIVE, CAPTURED, RELEASED, EXPIRED
+    }
+}
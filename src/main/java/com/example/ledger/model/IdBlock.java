@@ -0,0 +1,27 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A block of ids taken by BlockSequenceGenerator: block n holds ids ((n - 1) * 50, n * 50]. Only the
+// auto-increment counter matters; IdGeneratorAligner prunes the old rows on startup.
+@Entity
+@Table(name = "id_blocks")
+@Data
+@NoArgsConstructor
+public class IdBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Entity table the block was taken for (informational, all tables share one counter)
+    @Column(name = "sequence_name", nullable = false)
+    private String sequenceName;
+}
@@ -0,0 +1,8 @@
+package com.example.ledger.model;
+
+/**
+ * An Idempotency-Key header value with the fingerprint (SHA-256) of the request it was sent with, as
+ * carried by a request into the transaction that posts it (see IdempotencyService).
+ */
+public record IdempotencyKey(String value, String fingerprint) {
+}
@@ -0,0 +1,75 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One bulk import of a file of historical transactions (see BulkImportService).
+// linesProcessed is the resume checkpoint: it advances in the same database transaction as each chunk's rows,
+// and a RUNNING job is resumed by the next import of the same source.
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Name of the imported file; an unfinished job is resumed by importing the same source again
+    @Column(name = "source", nullable = false)
+    private String source;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false)
+    private ImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ImportStatus status = ImportStatus.RUNNING;
+
+    // Lines of the file (header included) whose rows are committed
+    @Column(name = "lines_processed", nullable = false)
+    private long linesProcessed;
+
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+
+    @Column(name = "rows_rejected", nullable = false)
+    private long rowsRejected;
+
+    // Time spent importing, summed over resumes
+    @Column(name = "elapsed_ms", nullable = false)
+    private long elapsedMillis;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : (rowsImported + rowsRejected) * 1000 / elapsedMillis;
+    }
+
+    public enum ImportFormat {
+        CSV, NDJSON
+    }
+
+    public enum ImportStatus {
+        RUNNING, COMPLETED
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A line of an imported file that was not posted, with the reason
+@Entity
+@Table(name = "import_rejects", indexes =
+        @Index(name = "idx_import_rejects_job_id", columnList = "job_id, id"))
+@Data
+@NoArgsConstructor
+public class ImportReject {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "line_number", nullable = false)
+    private long lineNumber;
+
+    @Column(name = "reason", nullable = false)
+    private String reason;
+
+    public ImportReject(Long jobId, long lineNumber, String reason) {
+        this.jobId = jobId;
+        this.lineNumber = lineNumber;
+        // Parser messages can be long; the column is VARCHAR(255)
+        this.reason = reason.length() > 255 ? reason.substring(0, 255) : reason;
+    }
+}
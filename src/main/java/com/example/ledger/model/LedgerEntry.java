@@ -1,5 +1,7 @@
 package com.example.ledger.model;
 
+import com.example.ledger.config.BlockSequence;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,13 +9,25 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ledger_entries")
+@Table(name = "ledger_entries", indexes = {
+        // Supports per-account balance sums and checkpoint deltas (posted_at > coveredThrough)
+        @Index(name = "idx_ledger_entries_account_posted", columnList = "account_id, posted_at"),
+        // Accounts with entries posted in a time range, advanced by the checkpoint compactor
+        @Index(name = "idx_ledger_entries_posted_at", columnList = "posted_at"),
+        // Keyset pagination / streaming of an account's history in (created_at, id) order
+        @Index(name = "idx_ledger_entries_account_created", columnList = "account_id, created_at, id"),
+        // Entries of a transaction; reconciliation joins each transaction to its legs
+        @Index(name = "idx_ledger_entries_transaction_id", columnList = "transaction_id"),
+        // Entries of a day across accounts, summed into the daily balance snapshots (BalanceSnapshotService)
+        @Index(name = "idx_ledger_entries_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 public class LedgerEntry {
 
+    // Block-sequence ids (not IDENTITY) so Hibernate can batch inserts; see BlockSequenceGenerator
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockSequence("ledger_entries")
     private Long id;
 
     // Foreign key to Account
@@ -36,6 +50,12 @@ public class LedgerEntry {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // When the row was built for writing; unlike created_at, never backdated (imports) or taken at journaling
+    // (engine). Writers call BalanceService.beginPosting first, so the posting deadline covers it.
+    @JsonIgnore
+    @Column(name = "posted_at", nullable = false, updatable = false)
+    private LocalDateTime postedAt = LocalDateTime.now();
+
     // Immutability enforced by making the setters non-existent (Lombok's @Data is sufficient)
     // and by setting 'updatable = false' on the 'createdAt' column.
     
@@ -44,6 +64,13 @@ public class LedgerEntry {
         return type == EntryType.CREDIT ? amount : amount.negate();
     }
 
+    // Same as getSignedAmount, as fixed-point units for in-memory balance arithmetic
+    @JsonIgnore
+    public Money getSignedMoney() {
+        Money money = Money.of(amount);
+        return type == EntryType.CREDIT ? money : money.negate();
+    }
+
     public enum EntryType {
         DEBIT, CREDIT
     }
@@ -0,0 +1,60 @@
+package com.example.ledger.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point amount: a long count of 10^-4 units, the scale of the DECIMAL(19, 4) money columns.
+ *
+ * Used for balance arithmetic inside the services and the in-memory balance structures; BigDecimal
+ * stays at the JSON and JPA boundary. Arithmetic is overflow-checked and throws ArithmeticException
+ * rather than wrapping. Every column value with magnitude up to 922,337,203,685,477.5807 converts
+ * losslessly; DECIMAL(19, 4) can hold larger values (up to 10^15), and converting those throws.
+ */
+public record Money(long units) implements Comparable<Money> {
+
+    public static final int SCALE = 4;
+    public static final Money ZERO = new Money(0);
+
+    // Throws ArithmeticException if the value has more than 4 fraction digits or is out of range
+    public static Money of(BigDecimal value) {
+        return new Money(toUnits(value));
+    }
+
+    public static long toUnits(BigDecimal value) {
+        return value.scaleByPowerOfTen(SCALE).longValueExact();
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(units, other.units));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(units, other.units));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(units));
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public boolean isNegative() {
+        return units < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Sum of an account's archived ledger entries: balance = opening balance + entries still in ledger_entries.
+@Entity
+@Table(name = "opening_balances")
+@Data
+@NoArgsConstructor
+public class OpeningBalance {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    // DECIMAL(19, 4) to match ledger_entries.amount
+    @Column(name = "balance", precision = 19, scale = 4, nullable = false)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    // End of the last archived period included
+    @Column(name = "archived_through", nullable = false)
+    private LocalDateTime archivedThrough;
+
+    public OpeningBalance(Long accountId) {
+        this.accountId = accountId;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ledger.model;
+
+import com.example.ledger.config.BlockSequence;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A committed transaction with its legs, waiting to be published to the ledger event log (see LedgerEventPublisher)
+@Entity
+@Table(name = "ledger_outbox")
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+
+    // Block-sequence ids (not IDENTITY) so Hibernate can batch inserts; see BlockSequenceGenerator
+    @Id
+    @BlockSequence("ledger_outbox")
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    // The event as published: {"transaction": {...}, "entries": [...]}
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public OutboxEvent(Long transactionId, String payload) {
+        this.transactionId = transactionId;
+        this.payload = payload;
+    }
+}
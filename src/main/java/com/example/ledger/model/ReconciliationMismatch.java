@@ -0,0 +1,63 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A transaction (and, for entry-level problems, the account) that failed reconciliation
+@Entity
+@Table(name = "reconciliation_mismatches", indexes =
+        @Index(name = "idx_reconciliation_mismatches_run_id", columnList = "run_id, id"))
+@Data
+@NoArgsConstructor
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false)
+    private MismatchKind kind;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "detail")
+    private String detail;
+
+    public ReconciliationMismatch(Long runId, MismatchKind kind, Long transactionId, Long accountId, String detail) {
+        this.runId = runId;
+        this.kind = kind;
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.detail = detail;
+    }
+
+    public enum MismatchKind {
+        // Debit/credit legs do not match the transaction amount for its type (transfers must net to zero)
+        UNBALANCED_TRANSACTION,
+        // COMPLETED transaction without ledger entries
+        MISSING_ENTRIES,
+        // PENDING or FAILED transaction with ledger entries
+        ENTRIES_ON_INCOMPLETE_TRANSACTION,
+        // Entry on an account that does not exist
+        UNKNOWN_ACCOUNT,
+        // Entry on an account whose currency differs from the transaction's
+        CURRENCY_MISMATCH
+    }
+}
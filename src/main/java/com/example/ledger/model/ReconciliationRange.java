@@ -0,0 +1,67 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A completed slice (fromId, toId] of a reconciliation run's transaction ids, with its totals.
+// Only completed ranges are stored, so a resumed run skips exactly these.
+@Entity
+@Table(name = "reconciliation_ranges", uniqueConstraints =
+        @UniqueConstraint(name = "uk_reconciliation_ranges_run_from", columnNames = {"run_id", "from_id"}))
+@Data
+@NoArgsConstructor
+public class ReconciliationRange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "from_id", nullable = false)
+    private Long fromId;
+
+    @Column(name = "to_id", nullable = false)
+    private Long toId;
+
+    @Column(name = "transactions", nullable = false)
+    private long transactions;
+
+    @Column(name = "entries", nullable = false)
+    private long entries;
+
+    @Column(name = "debits", precision = 19, scale = 4, nullable = false)
+    private BigDecimal debits;
+
+    @Column(name = "credits", precision = 19, scale = 4, nullable = false)
+    private BigDecimal credits;
+
+    @Column(name = "deposits", precision = 19, scale = 4, nullable = false)
+    private BigDecimal deposits;
+
+    @Column(name = "withdrawals", precision = 19, scale = 4, nullable = false)
+    private BigDecimal withdrawals;
+
+    @Column(name = "mismatches", nullable = false)
+    private long mismatches;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt = LocalDateTime.now();
+
+    public ReconciliationRange(Long runId, Long fromId, Long toId) {
+        this.runId = runId;
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+}
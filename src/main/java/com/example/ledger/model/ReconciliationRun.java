@@ -0,0 +1,91 @@
+package com.example.ledger.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One reconciliation pass over the transactions posted in [postedFrom, postedUntil), whose ids lie in
+// (fromTransactionId, toTransactionId]. The totals are summed from the run's ranges when it completes; a RUNNING run is resumed by the next one.
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@NoArgsConstructor
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "mode", nullable = false)
+    private RunMode mode;
+
+    // Null for a FULL run: from the first transaction
+    @Column(name = "posted_from")
+    private LocalDateTime postedFrom;
+
+    @Column(name = "posted_until", nullable = false)
+    private LocalDateTime postedUntil;
+
+    @Column(name = "from_transaction_id", nullable = false)
+    private Long fromTransactionId;
+
+    @Column(name = "to_transaction_id", nullable = false)
+    private Long toTransactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private RunStatus status = RunStatus.RUNNING;
+
+    @Column(name = "transactions", nullable = false)
+    private long transactions;
+
+    @Column(name = "entries", nullable = false)
+    private long entries;
+
+    @Column(name = "debits", precision = 19, scale = 4, nullable = false)
+    private BigDecimal debits = BigDecimal.ZERO;
+
+    @Column(name = "credits", precision = 19, scale = 4, nullable = false)
+    private BigDecimal credits = BigDecimal.ZERO;
+
+    // Credits of DEPOSIT and debits of WITHDRAWAL transactions: the only entries without a counter-entry
+    @Column(name = "deposits", precision = 19, scale = 4, nullable = false)
+    private BigDecimal deposits = BigDecimal.ZERO;
+
+    @Column(name = "withdrawals", precision = 19, scale = 4, nullable = false)
+    private BigDecimal withdrawals = BigDecimal.ZERO;
+
+    @Column(name = "mismatches", nullable = false)
+    private long mismatches;
+
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Trial balance: every transaction checked out, and credits - debits equals the external net flow
+    public boolean isBalanced() {
+        return status == RunStatus.COMPLETED && mismatches == 0
+                && credits.subtract(debits).compareTo(deposits.subtract(withdrawals)) == 0;
+    }
+
+    public enum RunMode {
+        FULL, INCREMENTAL
+    }
+
+    public enum RunStatus {
+        RUNNING, COMPLETED
+    }
+}
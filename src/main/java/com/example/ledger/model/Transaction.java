@@ -1,5 +1,7 @@
 package com.example.ledger.model;
 
+import com.example.ledger.config.BlockSequence;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,13 +9,19 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Archiving selects transactions by period (see LedgerArchiveService)
+        @Index(name = "idx_transactions_created_at", columnList = "created_at"),
+        // Incremental reconciliation selects transactions by write time (see ReconciliationService)
+        @Index(name = "idx_transactions_posted_at", columnList = "posted_at")
+})
 @Data
 @NoArgsConstructor
 public class Transaction {
 
+    // Block-sequence ids (not IDENTITY) so Hibernate can batch inserts; see BlockSequenceGenerator
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockSequence("transactions")
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -45,8 +53,16 @@ public class Transaction {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // When the row was built for writing; unlike created_at, never backdated (imports) or taken at journaling
+    // (engine). Writers call BalanceService.beginPosting first, so the posting deadline covers it.
+    @JsonIgnore
+    @Column(name = "posted_at", nullable = false, updatable = false)
+    private LocalDateTime postedAt = LocalDateTime.now();
+
     public enum TransactionType {
-        TRANSFER, DEPOSIT, WITHDRAWAL
+        TRANSFER, DEPOSIT, WITHDRAWAL, HOLD_CAPTURE,
+        // Any number of debit and credit legs, balanced per currency (see JournalService)
+        JOURNAL
     }
 
     public enum TransactionStatus {
@@ -1,6 +1,7 @@
 package com.example.ledger.repository;
 
 import com.example.ledger.model.Account;
+import com.example.ledger.model.AccountMetadata;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
@@ -8,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +20,18 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT a FROM Account a WHERE a.id = :id")
     Optional<Account> findByIdWithLock(@Param("id") Long id);
+
+    // Locks several accounts in one statement; rows are locked in id order so concurrent callers cannot deadlock each other.
+    // Lock wait is bounded by jakarta.persistence.lock.timeout (ledger.locking.timeout-ms).
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids ORDER BY a.id")
+    List<Account> findAllByIdInWithLock(@Param("ids") Collection<Long> ids);
+
+    // Metadata projection for AccountMetadataCache; returns no managed entity
+    @Query("SELECT new com.example.ledger.model.AccountMetadata(a.id, a.userId, a.type, a.currency, a.status) "
+            + "FROM Account a WHERE a.id = :id")
+    Optional<AccountMetadata> findMetadataById(@Param("id") Long id);
+
+    // Sub-accounts backing sharded hot accounts
+    List<Account> findAllByParentAccountIdIsNotNull();
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.ArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchiveSegmentRepository extends JpaRepository<ArchiveSegment, Long> {
+
+    List<ArchiveSegment> findAllByOrderByPeriodStart();
+
+    // Transactions created before this are archived (null: nothing archived yet)
+    @Query("SELECT MAX(s.periodEnd) FROM ArchiveSegment s")
+    LocalDateTime findMaxPeriodEnd();
+}
@@ -0,0 +1,25 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.BalanceCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    // Latest point in time covered by any checkpoint (null if none); the compactor resumes from here after a restart.
+    @Query("SELECT MAX(c.coveredThrough) FROM BalanceCheckpoint c")
+    LocalDateTime findMaxCoveredThrough();
+
+    // Serializes checkpoint advances (compactor, archiver) so none of them works from a stale base
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM BalanceCheckpoint c WHERE c.accountId = :accountId")
+    Optional<BalanceCheckpoint> findByIdWithLock(@Param("accountId") Long accountId);
+}
@@ -0,0 +1,31 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, BalanceSnapshot.Key> {
+
+    // Latest snapshot of each account closing before the date; accounts without one are left out.
+    // Primary key lookups on (account_id, closing_date).
+    @Query("""
+        SELECT s FROM BalanceSnapshot s
+        WHERE s.accountId IN :accountIds
+          AND s.closingDate = (SELECT MAX(p.closingDate) FROM BalanceSnapshot p
+                               WHERE p.accountId = s.accountId AND p.closingDate < :before)
+        """)
+    List<BalanceSnapshot> findLatestBefore(@Param("accountIds") Collection<Long> accountIds,
+                                           @Param("before") LocalDate before);
+
+    @Modifying
+    @Query("DELETE FROM BalanceSnapshot s WHERE s.closingDate >= :from")
+    int deleteClosingFrom(@Param("from") LocalDate from);
+}
@@ -0,0 +1,26 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.BalanceSnapshotRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface BalanceSnapshotRunRepository extends JpaRepository<BalanceSnapshotRun, LocalDate> {
+
+    // Day of the opening balances the snapshots start from (null: nothing snapshotted yet)
+    @Query("SELECT MIN(r.closingDate) FROM BalanceSnapshotRun r")
+    LocalDate findFirstClosingDate();
+
+    // Every day through this one is snapshotted (null: nothing snapshotted yet)
+    @Query("SELECT MAX(r.closingDate) FROM BalanceSnapshotRun r")
+    LocalDate findLastClosingDate();
+
+    @Modifying
+    @Query("DELETE FROM BalanceSnapshotRun r WHERE r.closingDate >= :from")
+    int deleteClosingFrom(@Param("from") LocalDate from);
+}
@@ -0,0 +1,47 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Hold.HoldStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Hold h WHERE h.id = :id")
+    Optional<Hold> findByIdWithLock(@Param("id") Long id);
+
+    // Account of a hold without loading it, so the account can be locked before the hold
+    @Query("SELECT h.accountId FROM Hold h WHERE h.id = :id")
+    Optional<Long> findAccountIdById(@Param("id") Long id);
+
+    // Amount still reserved on the account by holds in the given (ACTIVE) status
+    @Query("SELECT COALESCE(SUM(h.amount - h.capturedAmount), 0) FROM Hold h WHERE h.accountId = :accountId AND h.status = :status")
+    BigDecimal sumRemainingByAccountId(@Param("accountId") Long accountId, @Param("status") HoldStatus status);
+
+    // [accountId, remaining] for every account with holds in the given status; loads AvailableBalanceIndex
+    @Query("SELECT h.accountId, SUM(h.amount - h.capturedAmount) FROM Hold h WHERE h.status = :status GROUP BY h.accountId")
+    List<Object[]> sumRemainingGroupByAccountId(@Param("status") HoldStatus status);
+
+    // Due holds, locked so a concurrent capture or release waits for the expiry (or the expiry for it)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Hold h WHERE h.status = :status AND h.expiresAt <= :now ORDER BY h.id")
+    List<Hold> findDueWithLock(@Param("status") HoldStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = :status, h.updatedAt = :now WHERE h.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") HoldStatus status, @Param("now") LocalDateTime now);
+}
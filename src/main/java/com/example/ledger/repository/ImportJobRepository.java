@@ -0,0 +1,15 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.ImportJob;
+import com.example.ledger.model.ImportJob.ImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    // The unfinished import of a file, to be resumed
+    Optional<ImportJob> findFirstBySourceAndStatusOrderByIdDesc(String source, ImportStatus status);
+}
@@ -0,0 +1,14 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.ImportReject;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImportRejectRepository extends JpaRepository<ImportReject, Long> {
+
+    List<ImportReject> findByJobIdOrderById(Long jobId, Limit limit);
+}
@@ -1,33 +1,172 @@
 package com.example.ledger.repository;
 
+import com.example.ledger.model.BalanceCheckpoint;
 import com.example.ledger.model.LedgerEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
 
     /**
      * Requirement: [MET] Balance calculation correctness (on-demand).
-     * Calculates the balance by summing all Credits and subtracting all Debits.
+     * Calculates the balance by summing all Credits and subtracting all Debits
+     * (on top of the opening balance of archived entries, see LedgerArchiveService).
      * Use COALESCE to return 0.00 instead of NULL for new accounts.
      */
+    @Query("""
+        SELECT COALESCE((SELECT o.balance FROM OpeningBalance o WHERE o.accountId = :accountId), 0)
+             + COALESCE(SUM(CASE 
+                WHEN le.type = 'CREDIT' THEN le.amount 
+                ELSE le.amount * -1 
+            END), 0) 
+        FROM LedgerEntry le 
+        WHERE le.accountId = :accountId
+        """)
+    BigDecimal calculateBalance(@Param("accountId") Long accountId);
+
+    /**
+     * Balance from the account's latest checkpoint plus only the entries posted after it.
+     * Falls back to the opening balance plus a full sum when the account has no checkpoint yet
+     * (a checkpoint always covers the account's archived entries).
+     * Single round trip: both checkpoint lookups are scalar subqueries.
+     */
+    default BigDecimal calculateBalanceFromCheckpoint(Long accountId) {
+        return calculateBalanceFromCheckpoint(accountId, BalanceCheckpoint.BEGINNING);
+    }
+
+    @Query("""
+        SELECT COALESCE((SELECT c.balance FROM BalanceCheckpoint c WHERE c.accountId = :accountId),
+                        (SELECT o.balance FROM OpeningBalance o WHERE o.accountId = :accountId), 0)
+             + COALESCE(SUM(CASE 
+                WHEN le.type = 'CREDIT' THEN le.amount 
+                ELSE le.amount * -1 
+            END), 0) 
+        FROM LedgerEntry le 
+        WHERE le.accountId = :accountId
+          AND le.postedAt > COALESCE((SELECT c.coveredThrough FROM BalanceCheckpoint c WHERE c.accountId = :accountId),
+                                     :beginning)
+        """)
+    BigDecimal calculateBalanceFromCheckpoint(@Param("accountId") Long accountId,
+                                              @Param("beginning") LocalDateTime beginning);
+
+    // Signed sum of the account's entries posted in (from, to], used to advance a checkpoint.
     @Query("""
         SELECT COALESCE(SUM(CASE 
             WHEN le.type = 'CREDIT' THEN le.amount 
             ELSE le.amount * -1 
         END), 0) 
         FROM LedgerEntry le 
-        WHERE le.accountId = :accountId
+        WHERE le.accountId = :accountId AND le.postedAt > :from AND le.postedAt <= :to
         """)
-    BigDecimal calculateBalance(@Param("accountId") Long accountId);
+    BigDecimal sumSignedAmountPostedBetween(@Param("accountId") Long accountId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // Signed sum of the account's entries of transactions created in [from, to) and posted after postedAfter
+    @Query("""
+        SELECT COALESCE(SUM(CASE
+            WHEN le.type = 'CREDIT' THEN le.amount
+            ELSE le.amount * -1
+        END), 0)
+        FROM LedgerEntry le, Transaction t
+        WHERE t.id = le.transactionId AND le.accountId = :accountId
+          AND t.createdAt >= :from AND t.createdAt < :to AND le.postedAt > :postedAfter
+        """)
+    BigDecimal sumSignedAmountOfPeriodPostedAfter(@Param("accountId") Long accountId,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to,
+                                                  @Param("postedAfter") LocalDateTime postedAfter);
+
+    // Accounts that received entries posted in (from, to]; range scan on idx_ledger_entries_posted_at.
+    @Query("SELECT DISTINCT le.accountId FROM LedgerEntry le WHERE le.postedAt > :from AND le.postedAt <= :to")
+    List<Long> findAccountIdsPostedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Removes the entries of the transactions created in [from, to) once they are archived (see LedgerArchiveService)
+    @Modifying
+    @Query("DELETE FROM LedgerEntry le WHERE le.transactionId IN (SELECT t.id FROM Transaction t WHERE t.createdAt >= :from AND t.createdAt < :to)")
+    int deleteByTransactionCreatedAtBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     // Requirement: [MET] Immutable Audit Trail.
     // Fetches history in exact order of occurrence for audit transparency.
     List<LedgerEntry> findAllByAccountIdOrderByCreatedAtAsc(Long accountId);
-}
\ No newline at end of file
+
+    // Keyset pagination over (created_at, id): first page
+    @Query("SELECT le FROM LedgerEntry le WHERE le.accountId IN :accountIds ORDER BY le.createdAt, le.id")
+    List<LedgerEntry> findFirstPage(@Param("accountIds") Collection<Long> accountIds, Limit limit);
+
+    // Keyset pagination over (created_at, id): entries strictly after the cursor
+    @Query("""
+        SELECT le FROM LedgerEntry le
+        WHERE le.accountId IN :accountIds
+          AND (le.createdAt > :createdAt OR (le.createdAt = :createdAt AND le.id > :id))
+        ORDER BY le.createdAt, le.id
+        """)
+    List<LedgerEntry> findPageAfter(@Param("accountIds") Collection<Long> accountIds,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
+    // Forward-only cursor over the full history; the caller must consume it inside a transaction and close it.
+    // On MySQL the fetch size is honoured with useCursorFetch=true on the JDBC URL.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT le FROM LedgerEntry le WHERE le.accountId IN :accountIds ORDER BY le.createdAt, le.id")
+    Stream<LedgerEntry> streamByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    // Creation time of the first entry created at or after the instant (null: none)
+    @Query("SELECT MIN(le.createdAt) FROM LedgerEntry le WHERE le.createdAt >= :from")
+    LocalDateTime findFirstCreatedAtFrom(@Param("from") LocalDateTime from);
+
+    // Signed sum of each account's entries created in [from, to), accounts without entries left out (see BalanceSnapshotService)
+    @Query("""
+        SELECT le.accountId, SUM(CASE WHEN le.type = 'CREDIT' THEN le.amount ELSE le.amount * -1 END)
+        FROM LedgerEntry le
+        WHERE le.createdAt >= :from AND le.createdAt < :to
+        GROUP BY le.accountId
+        """)
+    List<Object[]> sumSignedAmountByAccountCreatedBetween(@Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to);
+
+    // Signed sum of the accounts' entries created in [from, to); range scan on (account_id, created_at, id)
+    @Query("""
+        SELECT COALESCE(SUM(CASE WHEN le.type = 'CREDIT' THEN le.amount ELSE le.amount * -1 END), 0)
+        FROM LedgerEntry le
+        WHERE le.accountId IN :accountIds AND le.createdAt >= :from AND le.createdAt < :to
+        """)
+    BigDecimal sumSignedAmountCreatedBetween(@Param("accountIds") Collection<Long> accountIds,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
+    /**
+     * Per account, over its entries created in [since, to): the signed sum of those created before :from,
+     * then the credits, the debits and the number of entries from :from on (see StatementService).
+     */
+    @Query("""
+        SELECT le.accountId,
+               SUM(CASE WHEN le.createdAt >= :from THEN 0
+                        WHEN le.type = 'CREDIT' THEN le.amount ELSE le.amount * -1 END),
+               SUM(CASE WHEN le.createdAt >= :from AND le.type = 'CREDIT' THEN le.amount ELSE 0 END),
+               SUM(CASE WHEN le.createdAt >= :from AND le.type = 'DEBIT' THEN le.amount ELSE 0 END),
+               SUM(CASE WHEN le.createdAt >= :from THEN 1 ELSE 0 END)
+        FROM LedgerEntry le
+        WHERE le.accountId IN :accountIds AND le.createdAt >= :since AND le.createdAt < :to
+        GROUP BY le.accountId
+        """)
+    List<Object[]> summarizeCreatedBetween(@Param("accountIds") Collection<Long> accountIds,
+                                           @Param("since") LocalDateTime since,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,19 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.OpeningBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OpeningBalanceRepository extends JpaRepository<OpeningBalance, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OpeningBalance o WHERE o.accountId = :accountId")
+    Optional<OpeningBalance> findByIdWithLock(@Param("accountId") Long accountId);
+}
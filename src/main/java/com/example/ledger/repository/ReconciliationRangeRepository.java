@@ -0,0 +1,13 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.ReconciliationRange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationRangeRepository extends JpaRepository<ReconciliationRange, Long> {
+
+    List<ReconciliationRange> findByRunId(Long runId);
+}
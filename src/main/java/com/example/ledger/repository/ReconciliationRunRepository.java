@@ -0,0 +1,21 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.model.ReconciliationRun;
+import com.example.ledger.model.ReconciliationRun.RunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    Optional<ReconciliationRun> findFirstByStatusOrderByIdDesc(RunStatus status);
+
+    // Where the next incremental run starts (null before the first run)
+    @Query("SELECT MAX(r.postedUntil) FROM ReconciliationRun r WHERE r.status = :status")
+    LocalDateTime findMaxPostedUntil(@Param("status") RunStatus status);
+}
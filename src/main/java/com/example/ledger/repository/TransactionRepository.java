@@ -2,11 +2,21 @@ package com.example.ledger.repository;
 
 import com.example.ledger.model.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     // Professional addition: allows auditors to see all transactions for one account
     List<Transaction> findBySourceAccountIdOrDestinationAccountId(Long sourceId, Long destId);
+
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Transaction t")
+    Long findMaxId();
+
+    // Oldest transaction at or after the given time; the archiver's next period starts in its month
+    @Query("SELECT MIN(t.createdAt) FROM Transaction t WHERE t.createdAt >= :from")
+    LocalDateTime findMinCreatedAtFrom(@Param("from") LocalDateTime from);
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Money;
+import com.example.ledger.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * How transfers and withdrawals protect the balance of the account they debit (ledger.locking.strategy).
+ *
+ * PESSIMISTIC: the account row is locked (SELECT ... FOR UPDATE) and the balance is read from the ledger.
+ *
+ * OPTIMISTIC: the account is read without a lock and the funds check uses its stored running balance.
+ * Every posting updates the running balance of its account in the same database transaction, and every
+ * write of an account checks and increments its version, so a concurrent posting makes the later commit
+ * fail with an optimistic locking failure, which is retried (see RetryOnLockFailure). A running balance
+ * is unknown (null) until the first funds check needs it, and is then initialized from the ledger.
+ * Accounts with a high conflict rate fall back to row locks for a while (see ContentionTracker), and
+ * sharded accounts, whose balance spans several rows, are always locked.
+ *
+ * The strategy is chosen per deployment: every instance must run the same one. Running balances are
+ * cleared when an instance starts with the pessimistic strategy, as nothing maintains them then.
+ */
+@Component
+public class AccountLocking implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountLocking.class);
+
+    public enum Strategy {
+        PESSIMISTIC, OPTIMISTIC
+    }
+
+    private final AccountRepository accountRepository;
+    private final AccountShardingService shardingService;
+    private final ContentionTracker contention;
+    private final LedgerMetrics metrics;
+    private final JdbcTemplate jdbcTemplate;
+    private final Strategy strategy;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AccountLocking(AccountRepository accountRepository, AccountShardingService shardingService,
+                          ContentionTracker contention, LedgerMetrics metrics, JdbcTemplate jdbcTemplate,
+                          EntityManagerFactory entityManagerFactory,
+                          @Value("${ledger.locking.strategy:PESSIMISTIC}") Strategy strategy) {
+        // The EntityManagerFactory dependency guarantees Hibernate has created/updated the schema first
+        this.accountRepository = accountRepository;
+        this.shardingService = shardingService;
+        this.contention = contention;
+        this.metrics = metrics;
+        this.jdbcTemplate = jdbcTemplate;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (strategy == Strategy.PESSIMISTIC) {
+            int cleared = jdbcTemplate.update("UPDATE accounts SET running_balance = NULL WHERE running_balance IS NOT NULL");
+            if (cleared > 0) {
+                logger.info("Cleared the running balances of {} accounts", cleared);
+            }
+        }
+    }
+
+    public boolean isOptimistic() {
+        return strategy == Strategy.OPTIMISTIC;
+    }
+
+    // Whether debits of the account are checked against its running balance rather than under a row lock
+    public boolean usesRunningBalance(Long accountId) {
+        return isOptimistic() && !contention.isHot(accountId) && !shardingService.isSharded(accountId);
+    }
+
+    // Loads an account about to be debited: locked, unless it uses its running balance
+    public Optional<Account> findForDebit(Long accountId) {
+        if (usesRunningBalance(accountId)) {
+            contention.attempt(accountId);
+            return accountRepository.findById(accountId);
+        }
+        return metrics.lockAcquire().record(() -> accountRepository.findByIdWithLock(accountId));
+    }
+
+    /**
+     * Loads the source and destination of a transfer. When the source is locked, the destination is locked
+     * with it, in one statement in id order, so opposite-direction transfers cannot deadlock and a status
+     * change of either account waits for the transfer. A sharded destination is not locked: its credit goes
+     * to one of its sub-accounts. With the running balance neither row is locked: recordPosting increments the
+     * version of both accounts (of the sub-account when sharded), so a concurrent status change fails the
+     * later commit instead.
+     */
+    public Map<Long, Account> findForTransfer(Long sourceId, Long destId) {
+        List<Long> ids = Stream.of(sourceId, destId).distinct().toList();
+        if (usesRunningBalance(sourceId)) {
+            contention.attempt(sourceId);
+            return toMap(accountRepository.findAllById(ids));
+        }
+        List<Long> lockIds = shardingService.isSharded(destId) ? List.of(sourceId) : ids;
+        Map<Long, Account> accounts = toMap(metrics.lockAcquire().record(() -> accountRepository.findAllByIdInWithLock(lockIds)));
+        if (!accounts.containsKey(destId)) {
+            accountRepository.findById(destId).ifPresent(account -> accounts.put(destId, account));
+        }
+        return accounts;
+    }
+
+    // Running balance of an account loaded in the current transaction, initialized from the ledger if unknown
+    public Money runningBalance(Account account, Supplier<Money> ledgerBalance) {
+        if (account.getRunningBalance() == null) {
+            account.setRunningBalance(ledgerBalance.get().toBigDecimal());
+        }
+        return Money.of(account.getRunningBalance());
+    }
+
+    /**
+     * Optimistic strategy: must be called for every ledger entry written in the current transaction
+     * (BalanceService.recordPosting does). Applies the entry to the account's running balance, or only
+     * increments its version while the running balance is unknown.
+     */
+    public void recordPosting(Long accountId, Money signedAmount) {
+        Account account = load(accountId);
+        if (account.getRunningBalance() != null) {
+            account.setRunningBalance(Money.of(account.getRunningBalance()).plus(signedAmount).toBigDecimal());
+        } else {
+            entityManager.lock(account, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        }
+    }
+
+    // Optimistic strategy: funds were reserved on the account (a hold), which reduces what debits may take
+    public void recordReservation(Long accountId) {
+        entityManager.lock(load(accountId), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    private static Map<Long, Account> toMap(Iterable<Account> accounts) {
+        Map<Long, Account> byId = new HashMap<>();
+        accounts.forEach(account -> byId.put(account.getId(), account));
+        return byId;
+    }
+
+    private Account load(Long accountId) {
+        Account account;
+        if (contention.isHot(accountId)) {
+            account = metrics.lockAcquire().record(() ->
+                    entityManager.find(Account.class, accountId, LockModeType.PESSIMISTIC_WRITE));
+        } else {
+            contention.attempt(accountId);
+            account = entityManager.find(Account.class, accountId);
+        }
+        if (account == null) {
+            throw new IllegalStateException("Account " + accountId + " not found.");
+        }
+        return account;
+    }
+}
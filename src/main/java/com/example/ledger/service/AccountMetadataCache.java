@@ -0,0 +1,158 @@
+package com.example.ledger.service;
+
+import com.example.ledger.config.ReadRouting;
+import com.example.ledger.model.AccountMetadata;
+import com.example.ledger.repository.AccountRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU near-cache of account metadata (id, user, type, currency, status), so validating the
+ * side of a transaction that is not locked costs no database round trip.
+ *
+ * Changes made by this instance are applied after commit: created accounts are added, status changes
+ * invalidate. Changes made by other instances are only picked up once an entry is older than max-age,
+ * which therefore bounds the staleness (ledger.account.cache.hit.age shows the age of served entries).
+ */
+@Component
+public class AccountMetadataCache {
+
+    private static final class Entry {
+        private final AccountMetadata metadata;
+        private final long loadedAt;
+
+        private Entry(AccountMetadata metadata, long loadedAt) {
+            this.metadata = metadata;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final int maxSize;
+    private final long maxAgeNanos;
+    private final boolean replicaReads;
+    private final Map<Long, Entry> entries;
+    // Bumped by every invalidation; a load that overlapped one is not cached
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Timer hitAge;
+
+    public AccountMetadataCache(AccountRepository accountRepository,
+                                @Value("${ledger.account-cache.max-size:100000}") int maxSize,
+                                @Value("${ledger.account-cache.max-age-ms:60000}") long maxAgeMillis,
+                                @Value("${ledger.replica.enabled:false}") boolean replicaReads,
+                                MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.maxSize = maxSize;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.replicaReads = replicaReads;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > AccountMetadataCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("ledger.account.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ledger.account.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ledger.account.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ledger.account.cache.expirations", expirations, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ledger.account.cache.invalidations", invalidations, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("ledger.account.cache.size", this, AccountMetadataCache::size).register(meterRegistry);
+        this.hitAge = Timer.builder("ledger.account.cache.hit.age")
+                .description("Age of the cached metadata served on hits, bounded by ledger.account-cache.max-age-ms")
+                .register(meterRegistry);
+    }
+
+    // Cached metadata, loaded from the database on a miss; empty if the account does not exist.
+    public Optional<AccountMetadata> find(Long accountId) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(accountId);
+            if (entry != null) {
+                long age = System.nanoTime() - entry.loadedAt;
+                if (age <= maxAgeNanos) {
+                    hits.incrementAndGet();
+                    hitAge.record(age, TimeUnit.NANOSECONDS);
+                    return Optional.of(entry.metadata);
+                }
+                entries.remove(accountId);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            loadGeneration = generation;
+        }
+
+        Optional<AccountMetadata> loaded = accountRepository.findMetadataById(accountId);
+        // A lagging replica must not populate the cache, only primary reads may
+        if (loaded.isPresent() && !(replicaReads && ReadRouting.useReplica())) {
+            putIfUnchanged(loaded.get(), loadGeneration);
+        }
+        return loaded;
+    }
+
+    // Adds a just-created account once the creating transaction commits
+    public void putAfterCommit(AccountMetadata metadata) {
+        afterCommit(() -> put(metadata));
+    }
+
+    // Drops the account's entry once the current transaction commits (immediately without one)
+    public void invalidateAfterCommit(Long accountId) {
+        afterCommit(() -> invalidate(accountId));
+    }
+
+    public synchronized void invalidate(Long accountId) {
+        generation++;
+        if (entries.remove(accountId) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void put(AccountMetadata metadata) {
+        entries.put(metadata.id(), new Entry(metadata, System.nanoTime()));
+    }
+
+    private synchronized void putIfUnchanged(AccountMetadata metadata, long loadGeneration) {
+        if (generation == loadGeneration) {
+            put(metadata);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
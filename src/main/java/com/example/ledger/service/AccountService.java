@@ -1,24 +1,49 @@
 package com.example.ledger.service;
 
 import com.example.ledger.dto.CreateAccountRequest;
+import com.example.ledger.dto.LedgerEntryCursor;
+import com.example.ledger.dto.LedgerEntryPage;
 import com.example.ledger.model.Account;
+import com.example.ledger.model.Account.AccountStatus;
+import com.example.ledger.model.AccountMetadata;
+import com.example.ledger.model.LedgerEntry;
 import com.example.ledger.repository.AccountRepository;
 import com.example.ledger.repository.LedgerEntryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AccountService {
 
     private final AccountRepository accountRepository;
+    private final BalanceService balanceService;
+    private final AccountShardingService shardingService;
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountMetadataCache metadataCache;
+    private final LedgerArchive ledgerArchive;
 
-    public AccountService(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository) {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AccountService(AccountRepository accountRepository, BalanceService balanceService,
+                          AccountShardingService shardingService, LedgerEntryRepository ledgerEntryRepository,
+                          AccountMetadataCache metadataCache, LedgerArchive ledgerArchive) {
         this.accountRepository = accountRepository;
+        this.balanceService = balanceService;
+        this.shardingService = shardingService;
         this.ledgerEntryRepository = ledgerEntryRepository;
+        this.metadataCache = metadataCache;
+        this.ledgerArchive = ledgerArchive;
     }
 
     @Transactional
@@ -28,16 +53,86 @@ public class AccountService {
         account.setType(request.getType());
         account.setCurrency(request.getCurrency());
         // Status defaults to ACTIVE
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        metadataCache.putAfterCommit(AccountMetadata.of(saved));
+        return saved;
     }
 
-    public Account getAccountWithBalance(Long accountId) {
-        Account account = accountRepository.findById(accountId)
+    // Freezes or reactivates an account. The row lock waits for in-flight debits of the account to finish.
+    @Transactional
+    public Account updateStatus(Long accountId, AccountStatus status) {
+        if (shardingService.isShard(accountId)) {
+            throw new IllegalArgumentException("Account " + accountId + " is an internal shard account.");
+        }
+        Account account = accountRepository.findByIdWithLock(accountId)
                 .orElseThrow(() -> new NoSuchElementException("Account not found with ID: " + accountId));
+        account.setStatus(status);
+        metadataCache.invalidateAfterCommit(accountId);
+        account.setBalance(balanceService.getBalance(shardingService.balanceGroup(accountId)).toBigDecimal());
+        return account;
+    }
+
+    @Transactional(readOnly = true)
+    public Account getAccountWithBalance(Long accountId) {
+        Account account = metadataCache.find(accountId)
+                .orElseThrow(() -> new NoSuchElementException("Account not found with ID: " + accountId))
+                .toAccount();
         
-        // Balance calculation logic
-        BigDecimal balance = ledgerEntryRepository.calculateBalance(accountId);
-        account.setBalance(balance != null ? balance : BigDecimal.ZERO);
+        // Balance calculation logic (checkpoint + entries since the checkpoint, summed over shards)
+        account.setBalance(balanceService.getBalance(shardingService.balanceGroup(accountId)).toBigDecimal());
         return account;
     }
-}
\ No newline at end of file
+
+    // Existence check without loading the entity or computing a balance
+    @Transactional(readOnly = true)
+    public void assertAccountExists(Long accountId) {
+        if (metadataCache.find(accountId).isEmpty()) {
+            throw new NoSuchElementException("Account not found with ID: " + accountId);
+        }
+    }
+
+    // One page of the account's history in (created_at, id) order, starting after the cursor
+    @Transactional(readOnly = true)
+    public LedgerEntryPage getLedgerEntryPage(Long accountId, String cursor, int limit) {
+        List<Long> accountIds = shardingService.balanceGroup(accountId);
+        LedgerEntryCursor after = cursor == null ? null : LedgerEntryCursor.decode(cursor);
+        List<LedgerEntry> entries = after == null
+                ? ledgerEntryRepository.findFirstPage(accountIds, Limit.of(limit))
+                : ledgerEntryRepository.findPageAfter(accountIds, after.createdAt(), after.id(), Limit.of(limit));
+        if (!ledgerArchive.isEmpty()) {
+            // Archived history comes first in practice, but merge exactly in case periods overlap
+            Iterator<LedgerEntry> merged = LedgerArchive.merge(List.of(
+                    ledgerArchive.entries(accountIds, after == null ? null : after.createdAt(), after == null ? null : after.id()),
+                    entries.iterator()));
+            List<LedgerEntry> page = new ArrayList<>(limit);
+            while (page.size() < limit && merged.hasNext()) {
+                page.add(merged.next());
+            }
+            entries = page;
+        }
+        String nextCursor = entries.size() < limit ? null : LedgerEntryCursor.after(entries.get(entries.size() - 1)).encode();
+        return new LedgerEntryPage(entries, nextCursor);
+    }
+
+    /**
+     * Streams the account's full history through a forward-only cursor, archived entries included. Each
+     * entry is detached once handed to the consumer, so memory stays constant regardless of history length.
+     */
+    @Transactional(readOnly = true)
+    public void streamLedgerEntries(Long accountId, Consumer<LedgerEntry> consumer) {
+        List<Long> accountIds = shardingService.balanceGroup(accountId);
+        try (Stream<LedgerEntry> entries = ledgerEntryRepository.streamByAccountIds(accountIds)) {
+            Iterator<LedgerEntry> hot = entries.iterator();
+            Iterator<LedgerEntry> all = ledgerArchive.isEmpty() ? hot
+                    : LedgerArchive.merge(List.of(ledgerArchive.entries(accountIds, null, null), hot));
+            while (all.hasNext()) {
+                LedgerEntry entry = all.next();
+                consumer.accept(entry);
+                // Archived entries are not managed
+                if (entityManager.contains(entry)) {
+                    entityManager.detach(entry);
+                }
+            }
+        }
+    }
+}
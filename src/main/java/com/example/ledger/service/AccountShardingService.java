@@ -0,0 +1,128 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Account;
+import com.example.ledger.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hot-account sharding.
+ *
+ * A sharded account is backed by K sub-accounts (Account.parentAccountId = logical account id).
+ * Credits are written to a random sub-account, so concurrent credits no longer queue behind
+ * the same accounts row or the same ledger_entries index range. Debits stay on the logical
+ * account and are checked against the balance of the whole group; ShardSweeper periodically
+ * moves sub-account balances back to the logical account.
+ *
+ * The shard layout is held in memory and reloaded by the sweeper, so an instance that has not
+ * seen a new layout yet simply keeps crediting the logical account directly.
+ */
+@Service
+public class AccountShardingService {
+
+    private final AccountRepository accountRepository;
+    private final int maxShards;
+
+    private volatile Map<Long, List<Long>> shardsByParent = Map.of();
+    private volatile Map<Long, Long> parentByShard = Map.of();
+
+    public AccountShardingService(AccountRepository accountRepository,
+                                  @Value("${ledger.sharding.max-shards:64}") int maxShards) {
+        this.accountRepository = accountRepository;
+        this.maxShards = maxShards;
+    }
+
+    @PostConstruct
+    public void refresh() {
+        Map<Long, List<Long>> shards = new HashMap<>();
+        Map<Long, Long> parents = new HashMap<>();
+        for (Account shard : accountRepository.findAllByParentAccountIdIsNotNull()) {
+            shards.computeIfAbsent(shard.getParentAccountId(), id -> new ArrayList<>()).add(shard.getId());
+            parents.put(shard.getId(), shard.getParentAccountId());
+        }
+        shardsByParent = shards;
+        parentByShard = parents;
+    }
+
+    // Creates sub-accounts until the account is backed by shardCount shards. Shard counts only grow.
+    @Transactional
+    public Account enableSharding(Long accountId, int shardCount) {
+        // Every shard is an account row that balance reads of the group sum up
+        if (shardCount > maxShards) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be at most " + maxShards + ".");
+        }
+        Account account = accountRepository.findByIdWithLock(accountId)
+                .orElseThrow(() -> new NoSuchElementException("Account not found with ID: " + accountId));
+        if (account.getParentAccountId() != null) {
+            throw new IllegalArgumentException("Account " + accountId + " is itself a shard.");
+        }
+        if (shardCount < account.getShardCount()) {
+            throw new IllegalArgumentException("Shard count can only grow (currently " + account.getShardCount() + ").");
+        }
+
+        for (int i = account.getShardCount(); i < shardCount; i++) {
+            Account shard = new Account();
+            shard.setUserId(account.getUserId());
+            shard.setType(account.getType());
+            shard.setCurrency(account.getCurrency());
+            shard.setStatus(account.getStatus());
+            shard.setParentAccountId(account.getId());
+            accountRepository.save(shard);
+        }
+        account.setShardCount(shardCount);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+        return accountRepository.save(account);
+    }
+
+    public boolean isSharded(Long accountId) {
+        return shardsByParent.containsKey(accountId);
+    }
+
+    public boolean isShard(Long accountId) {
+        return parentByShard.containsKey(accountId);
+    }
+
+    public Map<Long, List<Long>> getShardLayout() {
+        return shardsByParent;
+    }
+
+    // Account that should receive a credit to the given logical account
+    public Long creditTarget(Long accountId) {
+        List<Long> shards = shardsByParent.get(accountId);
+        if (shards == null) {
+            return accountId;
+        }
+        return shards.get(ThreadLocalRandom.current().nextInt(shards.size()));
+    }
+
+    // Accounts whose balances add up to the logical account's balance
+    public List<Long> balanceGroup(Long accountId) {
+        List<Long> shards = shardsByParent.get(accountId);
+        if (shards == null) {
+            return List.of(accountId);
+        }
+        List<Long> group = new ArrayList<>(shards.size() + 1);
+        group.add(accountId);
+        group.addAll(shards);
+        return group;
+    }
+}
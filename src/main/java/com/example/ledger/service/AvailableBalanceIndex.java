@@ -0,0 +1,128 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Hold.HoldStatus;
+import com.example.ledger.model.Money;
+import com.example.ledger.repository.HoldRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Available balance (ledger balance minus the amounts reserved by active holds), used by every funds check.
+ *
+ * With ledger.holds.index-enabled the reserved amount per account is kept in memory: loaded for every
+ * account with active holds at startup, then updated on commit by this instance's hold operations. As in
+ * BalanceCache, an account is pinned while a transaction has uncommitted hold changes for it, and reads
+ * of a pinned account go to the database, which sees exactly the committed state.
+ *
+ * The index only sees this instance's writes; without it, reserved amounts are summed in the database.
+ */
+@Component
+public class AvailableBalanceIndex {
+
+    private static final class Entry {
+        private Money held = Money.ZERO;
+        private int inFlight;
+    }
+
+    private final HoldRepository holdRepository;
+    private final BalanceService balanceService;
+    private final AccountShardingService shardingService;
+    private final AccountLocking accountLocking;
+    private final boolean enabled;
+    // Complete for accounts with active holds: an absent account has nothing reserved
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    public AvailableBalanceIndex(HoldRepository holdRepository, BalanceService balanceService,
+                                 AccountShardingService shardingService, AccountLocking accountLocking,
+                                 @Value("${ledger.holds.index-enabled:false}") boolean enabled,
+                                 MeterRegistry meterRegistry) {
+        this.holdRepository = holdRepository;
+        this.balanceService = balanceService;
+        this.shardingService = shardingService;
+        this.accountLocking = accountLocking;
+        this.enabled = enabled;
+        Gauge.builder("ledger.holds.index.accounts", this, AvailableBalanceIndex::size)
+                .description("Accounts with active holds in the available-balance index")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (!enabled) {
+            return;
+        }
+        entries.clear();
+        for (Object[] row : holdRepository.sumRemainingGroupByAccountId(HoldStatus.ACTIVE)) {
+            Entry entry = new Entry();
+            entry.held = Money.of((BigDecimal) row[1]);
+            entries.put((Long) row[0], entry);
+        }
+    }
+
+    // Balance of the account's whole balance group minus what its active holds reserve
+    public Money available(Long accountId) {
+        return balanceService.getBalance(shardingService.balanceGroup(accountId)).minus(held(accountId));
+    }
+
+    public Money held(Long accountId) {
+        if (enabled) {
+            synchronized (this) {
+                Entry entry = entries.get(accountId);
+                if (entry == null) {
+                    return Money.ZERO;
+                }
+                if (entry.inFlight == 0) {
+                    return entry.held;
+                }
+            }
+        }
+        return Money.of(holdRepository.sumRemainingByAccountId(accountId, HoldStatus.ACTIVE));
+    }
+
+    /**
+     * Must be called for every change of a reserved amount in the current transaction. The account is
+     * pinned until the transaction completes; the delta is applied on commit only.
+     */
+    public void record(Long accountId, Money delta) {
+        if (accountLocking.isOptimistic() && delta.signum() > 0) {
+            // An optimistic debit that read the account before this reservation must fail its version check
+            accountLocking.recordReservation(accountId);
+        }
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            entries.computeIfAbsent(accountId, id -> new Entry()).inFlight++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(accountId, delta, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void complete(Long accountId, Money delta, boolean committed) {
+        Entry entry = entries.get(accountId);
+        entry.inFlight--;
+        if (committed) {
+            entry.held = entry.held.plus(delta);
+        }
+        if (entry.inFlight == 0 && entry.held.signum() == 0) {
+            entries.remove(accountId);
+        }
+    }
+}
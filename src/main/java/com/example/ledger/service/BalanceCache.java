@@ -0,0 +1,128 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Money;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of committed account balances.
+ *
+ * Writers pin an account with {@link #begin} while their transaction has uncommitted postings
+ * for it, and release it with {@link #complete} once the transaction finishes. A pinned entry
+ * is never served and never evicted, so readers fall back to the database (which sees exactly
+ * the committed state) until the delta has been applied. Loaders only populate an entry if its
+ * version did not move while they were reading.
+ *
+ * The cache only sees writes made by this instance; enable it only for single-instance deployments.
+ */
+@Component
+public class BalanceCache implements MeterBinder {
+
+    private static final class Entry {
+        private Money balance;
+        private int inFlight;
+        private long version;
+    }
+
+    private final int maxSize;
+    private final Map<Long, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BalanceCache(@Value("${ledger.balance-cache.max-size:100000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                // Evict the least recently used entries that are not pinned by an in-flight transaction
+                Iterator<Entry> iterator = values().iterator();
+                while (size() > BalanceCache.this.maxSize && iterator.hasNext()) {
+                    if (iterator.next().inFlight == 0) {
+                        iterator.remove();
+                        evictions.incrementAndGet();
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the committed balance, or null when absent or pinned by an in-flight transaction.
+    public synchronized Money get(Long accountId) {
+        Entry entry = entries.get(accountId);
+        if (entry != null && entry.inFlight == 0 && entry.balance != null) {
+            hits.incrementAndGet();
+            return entry.balance;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    // Version to pass to putIfUnchanged after loading the balance from the database.
+    public synchronized long version(Long accountId) {
+        return entries.computeIfAbsent(accountId, id -> new Entry()).version;
+    }
+
+    public synchronized void putIfUnchanged(Long accountId, long version, Money balance) {
+        Entry entry = entries.get(accountId);
+        if (entry != null && entry.version == version && entry.inFlight == 0) {
+            entry.balance = balance;
+        }
+    }
+
+    // Pins the account while a transaction holds uncommitted postings for it.
+    public synchronized void begin(Long accountId) {
+        Entry entry = entries.computeIfAbsent(accountId, id -> new Entry());
+        entry.inFlight++;
+        entry.version++;
+    }
+
+    // Releases the pin; the delta is applied only if the transaction committed.
+    public synchronized void complete(Long accountId, Money delta, boolean committed) {
+        Entry entry = entries.get(accountId);
+        if (entry == null) {
+            return;
+        }
+        entry.inFlight--;
+        entry.version++;
+        if (committed && entry.balance != null) {
+            entry.balance = entry.balance.plus(delta);
+        }
+    }
+
+    public synchronized void invalidate(Long accountId) {
+        Entry entry = entries.get(accountId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.inFlight == 0) {
+            entries.remove(accountId);
+        } else {
+            entry.balance = null;
+            entry.version++;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ledger.balance.cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("ledger.balance.cache.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("ledger.balance.cache.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("ledger.balance.cache.size", this, BalanceCache::size).register(registry);
+    }
+}
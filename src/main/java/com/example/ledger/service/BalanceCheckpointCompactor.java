@@ -0,0 +1,64 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.BalanceCheckpoint;
+import com.example.ledger.repository.BalanceCheckpointRepository;
+import com.example.ledger.repository.LedgerEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background job that advances balance checkpoints for accounts with new ledger entries.
+ *
+ * Entry ids are taken in per-instance blocks, so neither their order nor their maximum says what is
+ * committed. Each run instead advances checkpoints to BalanceService.settledThrough(): a point in time up
+ * to which every posted entry is committed or rolled back, however ids and commits interleave.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.checkpoint.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceCheckpointCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointCompactor.class);
+
+    private final BalanceService balanceService;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+
+    private LocalDateTime compactedThrough;
+
+    public BalanceCheckpointCompactor(BalanceService balanceService,
+                                      LedgerEntryRepository ledgerEntryRepository,
+                                      BalanceCheckpointRepository checkpointRepository) {
+        this.balanceService = balanceService;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.checkpointRepository = checkpointRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.checkpoint.compaction-interval-ms:60000}")
+    public void compact() {
+        compactThrough(balanceService.settledThrough());
+    }
+
+    // Advances the checkpoints of accounts with entries posted since the last run; through must be settled
+    public synchronized void compactThrough(LocalDateTime through) {
+        if (compactedThrough == null) {
+            LocalDateTime covered = checkpointRepository.findMaxCoveredThrough();
+            compactedThrough = covered != null ? covered : BalanceCheckpoint.BEGINNING;
+        }
+        if (!through.isAfter(compactedThrough)) {
+            return;
+        }
+
+        List<Long> accountIds = ledgerEntryRepository.findAccountIdsPostedBetween(compactedThrough, through);
+        for (Long accountId : accountIds) {
+            balanceService.advanceCheckpoint(accountId, through);
+        }
+        compactedThrough = through;
+        logger.debug("Advanced {} balance checkpoints to {}", accountIds.size(), through);
+    }
+}
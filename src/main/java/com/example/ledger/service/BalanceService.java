@@ -0,0 +1,207 @@
+package com.example.ledger.service;
+
+import com.example.ledger.config.ReadRouting;
+import com.example.ledger.dto.BalanceCheckResponse;
+import com.example.ledger.model.BalanceCheckpoint;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.OpeningBalance;
+import com.example.ledger.repository.BalanceCheckpointRepository;
+import com.example.ledger.repository.LedgerEntryRepository;
+import com.example.ledger.repository.OpeningBalanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+@Service
+public class BalanceService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final OpeningBalanceRepository openingBalanceRepository;
+    private final BalanceCache balanceCache;
+    private final AccountLocking accountLocking;
+    private final LedgerMetrics metrics;
+    private final boolean checkpointsEnabled;
+    private final boolean cacheEnabled;
+    private final boolean replicaReads;
+    private final Duration settle;
+
+    public BalanceService(LedgerEntryRepository ledgerEntryRepository,
+                          BalanceCheckpointRepository checkpointRepository,
+                          OpeningBalanceRepository openingBalanceRepository,
+                          BalanceCache balanceCache,
+                          AccountLocking accountLocking,
+                          LedgerMetrics metrics,
+                          @Value("${ledger.checkpoint.enabled:true}") boolean checkpointsEnabled,
+                          @Value("${ledger.balance-cache.enabled:false}") boolean cacheEnabled,
+                          @Value("${ledger.replica.enabled:false}") boolean replicaReads,
+                          @Value("${ledger.checkpoint.settle-ms:60000}") long settleMillis) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.openingBalanceRepository = openingBalanceRepository;
+        this.balanceCache = balanceCache;
+        this.accountLocking = accountLocking;
+        this.metrics = metrics;
+        this.checkpointsEnabled = checkpointsEnabled;
+        this.cacheEnabled = cacheEnabled;
+        this.replicaReads = replicaReads;
+        this.settle = Duration.ofMillis(settleMillis);
+    }
+
+    // Current balance: served from the cache when possible, otherwise loaded and cached.
+    public Money getBalance(Long accountId) {
+        if (!cacheEnabled) {
+            return loadBalance(accountId);
+        }
+        Money cached = balanceCache.get(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        // A lagging replica must not populate the cache, only primary reads may
+        if (replicaReads && ReadRouting.useReplica()) {
+            return loadBalance(accountId);
+        }
+        long version = balanceCache.version(accountId);
+        Money balance = loadBalance(accountId);
+        balanceCache.putIfUnchanged(accountId, version, balance);
+        return balance;
+    }
+
+    // Sum of several balances, e.g. a sharded account and its sub-accounts
+    public Money getBalance(Collection<Long> accountIds) {
+        Money total = Money.ZERO;
+        for (Long accountId : accountIds) {
+            total = total.plus(getBalance(accountId));
+        }
+        return total;
+    }
+
+    /**
+     * Write-through hook: must be called for every ledger entry written in the current transaction.
+     * The cached balance is pinned until the transaction completes, then updated on commit
+     * or left untouched on rollback. Under the optimistic locking strategy, the account's running balance
+     * is updated too (see AccountLocking). Starts the posting deadline if beginPosting did not.
+     */
+    public void recordPosting(Long accountId, Money signedAmount) {
+        if (accountLocking.isOptimistic()) {
+            accountLocking.recordPosting(accountId, signedAmount);
+        }
+        beginPosting();
+        if (!cacheEnabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            balanceCache.invalidate(accountId);
+            return;
+        }
+        PendingPostings pending = (PendingPostings) TransactionSynchronizationManager.getResource(PendingPostings.class);
+        if (pending == null) {
+            pending = new PendingPostings(balanceCache);
+            TransactionSynchronizationManager.bindResource(PendingPostings.class, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(accountId, signedAmount);
+    }
+
+    /**
+     * Must be called before the current transaction builds the rows it posts (the transactions and ledger
+     * entries, whose posted_at is the time they are built). Starts the posting deadline: the transaction must
+     * commit within half of settle-ms or it is rolled back (see settledThrough). Later calls do nothing.
+     */
+    public void beginPosting() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getResource(PostingDeadline.class) == null) {
+            PostingDeadline deadline = new PostingDeadline(settle.dividedBy(2).toNanos());
+            TransactionSynchronizationManager.bindResource(PostingDeadline.class, deadline);
+            TransactionSynchronizationManager.registerSynchronization(deadline);
+        }
+    }
+
+    // Savepoint support: marks the postings recorded so far in the current transaction
+    public int postingsMark() {
+        PendingPostings pending = (PendingPostings) TransactionSynchronizationManager.getResource(PendingPostings.class);
+        return pending != null ? pending.mark() : 0;
+    }
+
+    // Savepoint support: forgets postings recorded after the mark (their savepoint was rolled back)
+    public void discardPostingsSince(int mark) {
+        PendingPostings pending = (PendingPostings) TransactionSynchronizationManager.getResource(PendingPostings.class);
+        if (pending != null) {
+            pending.rollbackTo(mark);
+        }
+    }
+
+    // Latest checkpoint + entries written after it (a full sum when checkpoints are disabled).
+    private Money loadBalance(Long accountId) {
+        BigDecimal balance = metrics.balanceCompute(checkpointsEnabled).record(() -> checkpointsEnabled
+                ? ledgerEntryRepository.calculateBalanceFromCheckpoint(accountId)
+                : ledgerEntryRepository.calculateBalance(accountId));
+        return balance != null ? Money.of(balance) : Money.ZERO;
+    }
+
+    /**
+     * Latest point in time a checkpoint or a reconciliation run may cover: settle-ms ago. Ids are not in
+     * commit order (see BlockSequenceGenerator), but the posting deadline starts before any row of a
+     * transaction gets its posted_at, and rolls back a transaction that does not commit within half of
+     * settle-ms (see beginPosting). Every entry posted up to this point is therefore committed or will never
+     * be, as long as the instances' clocks agree to well within the other half.
+     */
+    public LocalDateTime settledThrough() {
+        return LocalDateTime.now().minus(settle).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Moves the account's checkpoint forward to cover every entry posted up to the given time, which must
+     * not be later than settledThrough(). The new balance is derived incrementally from the previous
+     * checkpoint, so each advance only reads the entries posted since then. A first checkpoint starts from
+     * the account's opening balance (its archived entries).
+     */
+    @Transactional
+    public void advanceCheckpoint(Long accountId, LocalDateTime through) {
+        BalanceCheckpoint checkpoint = checkpointRepository.findByIdWithLock(accountId)
+                .orElseGet(() -> new BalanceCheckpoint(accountId, BalanceCheckpoint.BEGINNING,
+                        openingBalanceRepository.findById(accountId).map(OpeningBalance::getBalance).orElse(BigDecimal.ZERO)));
+        if (!checkpoint.getCoveredThrough().isBefore(through)) {
+            return;
+        }
+
+        BigDecimal delta = ledgerEntryRepository.sumSignedAmountPostedBetween(accountId, checkpoint.getCoveredThrough(), through);
+        checkpoint.setBalance(checkpoint.getBalance().add(delta));
+        checkpoint.setCoveredThrough(through);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    /**
+     * Archiving support, called in the transaction that deletes the entries of the transactions created in
+     * [from, to): adds those of the account's entries posted after its checkpoint to the checkpoint, since they
+     * no longer count as its delta once deleted. Entries the checkpoint covers are already in its balance.
+     */
+    @Transactional
+    public void foldIntoCheckpoint(Long accountId, LocalDateTime from, LocalDateTime to) {
+        checkpointRepository.findByIdWithLock(accountId).ifPresent(checkpoint -> {
+            BigDecimal uncovered = ledgerEntryRepository.sumSignedAmountOfPeriodPostedAfter(accountId, from, to,
+                    checkpoint.getCoveredThrough());
+            checkpoint.setBalance(checkpoint.getBalance().add(uncovered));
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    // Consistency check: checkpoint + delta must equal a full recompute. REPEATABLE_READ so both reads see one snapshot.
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BalanceCheckResponse verify(Long accountId) {
+        BigDecimal checkpointBalance = ledgerEntryRepository.calculateBalanceFromCheckpoint(accountId);
+        BigDecimal recomputedBalance = ledgerEntryRepository.calculateBalance(accountId);
+        return new BalanceCheckResponse(accountId, checkpointBalance, recomputedBalance,
+                checkpointBalance.compareTo(recomputedBalance) == 0);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.ledger.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Scheduled daily balance snapshots (ledger.snapshots.enabled); enable it on one instance only.
+@Component
+@ConditionalOnProperty(name = "ledger.snapshots.enabled", havingValue = "true")
+public class BalanceSnapshotJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotJob.class);
+
+    private final BalanceSnapshotService snapshotService;
+
+    public BalanceSnapshotJob(BalanceSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @Scheduled(cron = "${ledger.snapshots.cron:0 15 0 * * *}")
+    public void run() {
+        try {
+            snapshotService.snapshotDue();
+        } catch (RuntimeException e) {
+            // Days already committed stay snapshotted; the failed one is retried next time
+            logger.warn("Balance snapshots failed: {}", e.getMessage());
+        }
+    }
+}
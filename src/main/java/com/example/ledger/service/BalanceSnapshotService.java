@@ -0,0 +1,191 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.BalanceSnapshot;
+import com.example.ledger.model.BalanceSnapshotRun;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.OpeningBalance;
+import com.example.ledger.repository.ArchiveSegmentRepository;
+import com.example.ledger.repository.BalanceSnapshotRepository;
+import com.example.ledger.repository.BalanceSnapshotRunRepository;
+import com.example.ledger.repository.LedgerEntryRepository;
+import com.example.ledger.repository.OpeningBalanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily closing-balance snapshots (balance_snapshots), so that a point-in-time balance is one snapshot read
+ * plus a range scan of at most a day or so of entries (see StatementService).
+ *
+ * Days are snapshotted in order, each in one transaction, once they ended more than
+ * ledger.snapshots.grace-minutes ago. The first run writes the opening balances of the archive as the
+ * snapshots of the eve of the first day with live entries; every later day adds its per-account sums (one
+ * grouped query over idx_ledger_entries_created_at) to the accounts' previous snapshots. Only accounts with
+ * entries on a day get a snapshot for it, and days without entries are skipped.
+ *
+ * Entries written later with a past created_at (bulk imports, engine recovery) invalidate the snapshots from
+ * their day on, in the same transaction; the job snapshots those days again. A snapshot run and a history
+ * import are not meant to overlap.
+ */
+@Service
+public class BalanceSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotService.class);
+
+    private static final String INSERT_SNAPSHOT =
+            "INSERT INTO balance_snapshots (account_id, closing_date, balance) VALUES (?, ?, ?)";
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Accounts per previous-snapshot lookup
+    private static final int LOOKUP_BATCH = 1000;
+
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final BalanceSnapshotRunRepository runRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final OpeningBalanceRepository openingBalanceRepository;
+    private final ArchiveSegmentRepository segmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate dayTemplate;
+    private final long graceMinutes;
+
+    public BalanceSnapshotService(BalanceSnapshotRepository snapshotRepository,
+                                  BalanceSnapshotRunRepository runRepository,
+                                  LedgerEntryRepository ledgerEntryRepository,
+                                  OpeningBalanceRepository openingBalanceRepository,
+                                  ArchiveSegmentRepository segmentRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${ledger.snapshots.grace-minutes:10}") long graceMinutes) {
+        this.snapshotRepository = snapshotRepository;
+        this.runRepository = runRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.openingBalanceRepository = openingBalanceRepository;
+        this.segmentRepository = segmentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dayTemplate = new TransactionTemplate(transactionManager);
+        this.graceMinutes = graceMinutes;
+    }
+
+    // Snapshots every closed day after the watermark; returns the last day snapshotted, or null if none was due
+    public LocalDate snapshotDue() {
+        LocalDate through = LocalDateTime.now().minusMinutes(graceMinutes).toLocalDate().minusDays(1);
+        LocalDate last = null;
+        while (true) {
+            LocalDate day = dayTemplate.execute(status -> snapshotNext(through));
+            if (day == null) {
+                return last;
+            }
+            last = day;
+        }
+    }
+
+    /**
+     * Drops the snapshots from the day of createdAt on, for entries written with a past created_at. Runs in the
+     * caller's transaction, so the snapshots go with the entries' commit.
+     */
+    public void invalidateFrom(LocalDateTime createdAt) {
+        LocalDate day = createdAt.toLocalDate();
+        // The current day is never snapshotted, so live postings cost no query
+        if (!day.isBefore(LocalDate.now())) {
+            return;
+        }
+        LocalDate last = runRepository.findLastClosingDate();
+        if (last == null || day.isAfter(last)) {
+            return;
+        }
+        runRepository.deleteClosingFrom(day);
+        int deleted = snapshotRepository.deleteClosingFrom(day);
+        logger.info("Entries created on {} invalidated {} balance snapshots through {}", day, deleted, last);
+    }
+
+    // Snapshots the next day with entries, or records that there is none through the given day
+    private LocalDate snapshotNext(LocalDate through) {
+        LocalDate last = runRepository.findLastClosingDate();
+        LocalDateTime archivedThrough = segmentRepository.findMaxPeriodEnd();
+        if (last != null && archivedThrough != null && last.plusDays(1).atStartOfDay().isBefore(archivedThrough)) {
+            // Days archived before they were snapshotted have no live entries left: start over from the opening balances
+            logger.warn("Balance snapshots through {} are behind the archive ({}); rebuilding them", last, archivedThrough);
+            runRepository.deleteClosingFrom(LocalDate.EPOCH);
+            snapshotRepository.deleteClosingFrom(LocalDate.EPOCH);
+            last = null;
+        }
+        if (last == null) {
+            return snapshotOpening(through, archivedThrough);
+        }
+        if (!last.isBefore(through)) {
+            return null;
+        }
+        LocalDateTime next = ledgerEntryRepository.findFirstCreatedAtFrom(last.plusDays(1).atStartOfDay());
+        if (next == null || next.toLocalDate().isAfter(through)) {
+            runRepository.save(new BalanceSnapshotRun(through, 0));
+            return through;
+        }
+        return snapshotDay(next.toLocalDate());
+    }
+
+    // First run: opening balances plus any live entries before the first day not archived, as that day's eve
+    private LocalDate snapshotOpening(LocalDate through, LocalDateTime archivedThrough) {
+        LocalDateTime first = ledgerEntryRepository.findFirstCreatedAtFrom(EPOCH);
+        if (first == null) {
+            return null;
+        }
+        LocalDate start = first.toLocalDate();
+        if (archivedThrough != null && archivedThrough.toLocalDate().isAfter(start)) {
+            start = archivedThrough.toLocalDate();
+        }
+        LocalDate day = start.minusDays(1);
+        if (day.isAfter(through)) {
+            return null;
+        }
+        Map<Long, Money> closing = new HashMap<>();
+        for (OpeningBalance opening : openingBalanceRepository.findAll()) {
+            closing.put(opening.getAccountId(), Money.of(opening.getBalance()));
+        }
+        for (Object[] row : ledgerEntryRepository.sumSignedAmountByAccountCreatedBetween(EPOCH, start.atStartOfDay())) {
+            closing.merge((Long) row[0], Money.of((BigDecimal) row[1]), Money::plus);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        closing.forEach((accountId, balance) -> {
+            if (balance.signum() != 0) {
+                rows.add(new Object[] {accountId, day, balance.toBigDecimal()});
+            }
+        });
+        jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, rows);
+        runRepository.save(new BalanceSnapshotRun(day, rows.size()));
+        return day;
+    }
+
+    private LocalDate snapshotDay(LocalDate day) {
+        Map<Long, Money> deltas = new HashMap<>();
+        for (Object[] row : ledgerEntryRepository.sumSignedAmountByAccountCreatedBetween(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+            deltas.put((Long) row[0], Money.of((BigDecimal) row[1]));
+        }
+        Map<Long, Money> closing = new HashMap<>(deltas);
+        List<Long> accountIds = new ArrayList<>(deltas.keySet());
+        for (int i = 0; i < accountIds.size(); i += LOOKUP_BATCH) {
+            List<Long> batch = accountIds.subList(i, Math.min(i + LOOKUP_BATCH, accountIds.size()));
+            for (BalanceSnapshot previous : snapshotRepository.findLatestBefore(batch, day)) {
+                closing.merge(previous.getAccountId(), Money.of(previous.getBalance()), Money::plus);
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(closing.size());
+        closing.forEach((accountId, balance) -> rows.add(new Object[] {accountId, day, balance.toBigDecimal()}));
+        jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, rows);
+        runRepository.save(new BalanceSnapshotRun(day, rows.size()));
+        return day;
+    }
+}
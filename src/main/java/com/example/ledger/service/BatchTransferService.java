@@ -0,0 +1,246 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.BatchTransferRequest;
+import com.example.ledger.dto.BatchTransferRequest.BatchMode;
+import com.example.ledger.dto.BatchTransferResponse;
+import com.example.ledger.dto.BatchTransferResponse.ItemResult;
+import com.example.ledger.dto.TransferRequest;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.AccountMetadata;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.example.ledger.repository.AccountRepository;
+import com.example.ledger.repository.LedgerEntryRepository;
+import com.example.ledger.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.example.ledger.model.LedgerEntry.EntryType.CREDIT;
+import static com.example.ledger.model.LedgerEntry.EntryType.DEBIT;
+
+/**
+ * Applies many transfers per database transaction.
+ *
+ * All source accounts of a chunk are locked with one ordered query, funds are checked in memory
+ * against a running balance per source, and the resulting Transaction and LedgerEntry rows are
+ * written with saveAll so Hibernate sends them as JDBC batches (hibernate.jdbc.batch_size).
+ * Transactions are inserted directly as COMPLETED, which saves the PENDING insert + status update
+ * of the single-transfer path.
+ */
+@Service
+public class BatchTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransferService.class);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceService balanceService;
+    private final AccountShardingService shardingService;
+    private final AvailableBalanceIndex holdIndex;
+    private final LedgerEventOutbox eventOutbox;
+    private final LedgerEngine engine;
+    private final LedgerMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryTemplate lockRetryTemplate;
+    private final int chunkSize;
+
+    public BatchTransferService(AccountRepository accountRepository,
+                                TransactionRepository transactionRepository,
+                                LedgerEntryRepository ledgerEntryRepository,
+                                BalanceService balanceService,
+                                AccountShardingService shardingService,
+                                AvailableBalanceIndex holdIndex,
+                                LedgerEventOutbox eventOutbox,
+                                LedgerEngine engine,
+                                PlatformTransactionManager transactionManager,
+                                LedgerMetrics metrics,
+                                ContentionTracker contentionTracker,
+                                @Value("${ledger.batch.chunk-size:500}") int chunkSize,
+                                @Value("${ledger.locking.max-attempts:4}") int maxAttempts,
+                                @Value("${ledger.locking.backoff-ms:20}") long backoffMillis,
+                                @Value("${ledger.locking.max-backoff-ms:500}") long maxBackoffMillis) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceService = balanceService;
+        this.shardingService = shardingService;
+        this.holdIndex = holdIndex;
+        this.eventOutbox = eventOutbox;
+        this.engine = engine;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.chunkSize = chunkSize;
+        // Same policy as @RetryOnLockFailure, applied per chunk transaction
+        this.lockRetryTemplate = RetryTemplate.builder()
+                .maxAttempts(maxAttempts)
+                .exponentialBackoff(backoffMillis, 2, maxBackoffMillis, true)
+                .retryOn(List.of(PessimisticLockingFailureException.class, OptimisticLockingFailureException.class))
+                .withListener(metrics)
+                .withListener(contentionTracker)
+                .build();
+    }
+
+    public BatchTransferResponse executeBatch(BatchTransferRequest request) {
+        engine.rejectWhileEnabled("Batch transfers");
+        long start = System.nanoTime();
+        List<TransferRequest> transfers = request.getTransfers();
+        List<ItemResult> results = new ArrayList<>(transfers.size());
+
+        if (request.getMode() == BatchMode.ATOMIC) {
+            // One database transaction: the first failing transfer rolls back the whole batch
+            results.addAll(lockRetryTemplate.execute(retry ->
+                    transactionTemplate.execute(status -> applyChunk(transfers, 0, true))));
+        } else {
+            // One database transaction per chunk; failing transfers are skipped and reported
+            for (int offset = 0; offset < transfers.size(); offset += chunkSize) {
+                int chunkStart = offset;
+                List<TransferRequest> chunk = transfers.subList(offset, Math.min(offset + chunkSize, transfers.size()));
+                results.addAll(lockRetryTemplate.execute(retry ->
+                        transactionTemplate.execute(status -> applyChunk(chunk, chunkStart, false))));
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        int succeeded = (int) results.stream().filter(r -> r.getStatus() == TransactionStatus.COMPLETED).count();
+        logger.info("Batch of {} transfers applied in {} ms ({} succeeded)", transfers.size(), elapsedMillis, succeeded);
+        return new BatchTransferResponse(request.getMode(), succeeded, results.size() - succeeded, elapsedMillis, results);
+    }
+
+    private List<ItemResult> applyChunk(List<TransferRequest> transfers, int offset, boolean atomic) {
+        Set<Long> sourceIds = new TreeSet<>();
+        Set<Long> accountIds = new TreeSet<>();
+        for (TransferRequest transfer : transfers) {
+            sourceIds.add(transfer.getSourceAccountId());
+            accountIds.add(transfer.getSourceAccountId());
+            accountIds.add(transfer.getDestinationAccountId());
+        }
+        // Lock every debited account up front, in id order, with a single statement
+        Map<Long, AccountMetadata> accounts = new HashMap<>();
+        metrics.lockAcquire().record(() -> accountRepository.findAllByIdInWithLock(sourceIds))
+                .forEach(account -> accounts.put(account.getId(), AccountMetadata.of(account)));
+        // Accounts that are only credited are read without a lock, but from the database: cached status may be stale
+        accountIds.removeAll(accounts.keySet());
+        for (Long accountId : accountIds) {
+            accountRepository.findMetadataById(accountId).ifPresent(metadata -> accounts.put(accountId, metadata));
+        }
+
+        Map<Long, Money> balances = new HashMap<>();
+        Map<Long, Money> pendingCredits = new HashMap<>();
+        List<ItemResult> results = new ArrayList<>(transfers.size());
+        List<Transaction> transactions = new ArrayList<>(transfers.size());
+        List<Integer> transactionIndexes = new ArrayList<>(transfers.size());
+
+        balanceService.beginPosting();
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequest transfer = transfers.get(i);
+            int index = offset + i;
+            try {
+                Transaction transaction = validate(transfer, index, accounts, balances, pendingCredits);
+                transactions.add(transaction);
+                transactionIndexes.add(results.size());
+                results.add(new ItemResult(index, TransactionStatus.COMPLETED, null, null));
+            } catch (RuntimeException e) {
+                if (atomic) {
+                    throw e;
+                }
+                results.add(new ItemResult(index, TransactionStatus.FAILED, null, e.getMessage()));
+            }
+        }
+
+        // Ids come from the pooled table generator, so persist() does not force an insert per row
+        transactionRepository.saveAll(transactions);
+        List<LedgerEntry> entries = new ArrayList<>(transactions.size() * 2);
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            results.get(transactionIndexes.get(i)).setTransactionId(transaction.getId());
+            entries.add(newLedgerEntry(transaction.getSourceAccountId(), transaction.getId(), DEBIT, transaction.getAmount()));
+            entries.add(newLedgerEntry(shardingService.creditTarget(transaction.getDestinationAccountId()),
+                    transaction.getId(), CREDIT, transaction.getAmount()));
+        }
+        metrics.entriesPersist().record(() -> ledgerEntryRepository.saveAll(entries));
+        for (LedgerEntry entry : entries) {
+            balanceService.recordPosting(entry.getAccountId(), entry.getSignedMoney());
+        }
+        // Entries were added two per transaction, in transaction order
+        for (int i = 0; i < transactions.size(); i++) {
+            eventOutbox.record(transactions.get(i), entries.subList(2 * i, 2 * i + 2));
+        }
+        return results;
+    }
+
+    // Checks one transfer against the locked accounts and running balances; on success debits/credits the running balances.
+    private Transaction validate(TransferRequest transfer, int index, Map<Long, AccountMetadata> accounts,
+                                 Map<Long, Money> balances, Map<Long, Money> pendingCredits) {
+        AccountMetadata source = accounts.get(transfer.getSourceAccountId());
+        if (source == null) {
+            throw new NoSuchElementException("Source Account not found (transfer " + index + ").");
+        }
+        AccountMetadata dest = accounts.get(transfer.getDestinationAccountId());
+        if (dest == null) {
+            throw new NoSuchElementException("Destination Account not found (transfer " + index + ").");
+        }
+        if (!source.currency().equals(dest.currency())) {
+            throw new IllegalArgumentException("Currency mismatch (transfer " + index + ").");
+        }
+        if (shardingService.isShard(source.id()) || shardingService.isShard(dest.id())) {
+            throw new IllegalArgumentException("Shard accounts cannot be used directly (transfer " + index + ").");
+        }
+        TransactionService.requireActive(source);
+        TransactionService.requireActive(dest);
+
+        Money amount = Money.of(transfer.getAmount());
+        Money sourceBalance = balances.computeIfAbsent(source.id(), id ->
+                holdIndex.available(id).plus(pendingCredits.getOrDefault(id, Money.ZERO)));
+        Money newBalance = sourceBalance.minus(amount);
+        if (newBalance.isNegative()) {
+            throw new InsufficientBalanceException("Insufficient funds for Account " + source.id() + " (transfer " + index + ").");
+        }
+        balances.put(source.id(), newBalance);
+        if (balances.containsKey(dest.id())) {
+            balances.merge(dest.id(), amount, Money::plus);
+        } else {
+            pendingCredits.merge(dest.id(), amount, Money::plus);
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setAmount(transfer.getAmount());
+        transaction.setCurrency(source.currency());
+        transaction.setDescription(transfer.getDescription());
+        transaction.setSourceAccountId(source.id());
+        transaction.setDestinationAccountId(dest.id());
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        return transaction;
+    }
+
+    private LedgerEntry newLedgerEntry(Long accountId, Long transactionId, LedgerEntry.EntryType type, BigDecimal amount) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setAccountId(accountId);
+        entry.setTransactionId(transactionId);
+        entry.setType(type);
+        entry.setAmount(amount);
+        return entry;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.ImportJob;
+import com.example.ledger.model.ImportJob.ImportFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Command-line import: started with --ledger.import.file=<path>, the application imports (or resumes) the file
+ * and exits with status 0 on success, 1 on failure. Run it with --spring.main.web-application-type=none.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.import.file")
+public class BulkImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportRunner.class);
+
+    private final BulkImportService importService;
+    private final ApplicationContext context;
+    private final Path file;
+    private final String format;
+
+    public BulkImportRunner(BulkImportService importService, ApplicationContext context,
+                            @Value("${ledger.import.file}") String file,
+                            @Value("${ledger.import.format:}") String format) {
+        this.importService = importService;
+        this.context = context;
+        this.file = Path.of(file);
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int status = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            ImportJob job = importService.importFile(file.toAbsolutePath().normalize().toString(), format(), in);
+            logger.info("Imported {}: {} rows imported, {} rejected (import job {})",
+                    file, job.getRowsImported(), job.getRowsRejected(), job.getId());
+        } catch (Exception e) {
+            logger.error("Import of {} failed; run the same command again to resume it", file, e);
+            status = 1;
+        }
+        int exitCode = status;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    // ledger.import.format, or the file extension (.csv, .ndjson/.jsonl)
+    private ImportFormat format() {
+        if (!format.isBlank()) {
+            return ImportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        }
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl") ? ImportFormat.NDJSON : ImportFormat.CSV;
+    }
+}
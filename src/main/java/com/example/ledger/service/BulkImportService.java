@@ -0,0 +1,386 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.ImportRecord;
+import com.example.ledger.exception.ImportInProgressException;
+import com.example.ledger.model.ImportJob;
+import com.example.ledger.model.ImportJob.ImportFormat;
+import com.example.ledger.model.ImportJob.ImportStatus;
+import com.example.ledger.model.ImportReject;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.example.ledger.repository.ImportJobRepository;
+import com.example.ledger.repository.ImportRejectRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads files of historical deposits, withdrawals and transfers straight into transactions and ledger_entries.
+ *
+ * The file is read a line at a time (ImportRecordReader) and posted in chunks of ledger.import.chunk-size rows,
+ * one database transaction per chunk. Rows are validated against an index of all accounts (id -> currency)
+ * loaded when the import starts, so validation costs no queries. Ids are reserved from the pooled id generators
+ * a chunk at a time, and both tables are written with one JDBC batch per chunk.
+ *
+ * Each chunk commits together with the job's checkpoint (ImportJob.linesProcessed). If an import is
+ * interrupted, importing the same source again resumes after the last committed line. When ledger events are
+ * enabled, the chunk's events are queued in the same transaction (LedgerEventOutbox).
+ *
+ * Imported transactions are history: they are posted COMPLETED with their own created_at, and neither funds
+ * nor account status are checked. Rows that are malformed, name unknown or shard accounts, or do not match
+ * the accounts' currency are rejected and reported, and the import goes on.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    // Rejects stored per job; further ones are only counted
+    private static final int MAX_RECORDED_REJECTS = 1000;
+
+    static final String INSERT_TRANSACTION = """
+        INSERT INTO transactions (id, type, source_account_id, destination_account_id, amount, currency, status,
+            description, created_at, posted_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    static final String INSERT_ENTRY = """
+        INSERT INTO ledger_entries (id, account_id, transaction_id, type, amount, created_at, posted_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final ImportJobRepository jobRepository;
+    private final ImportRejectRepository rejectRepository;
+    private final AccountShardingService shardingService;
+    private final BalanceService balanceService;
+    private final BalanceSnapshotService snapshotService;
+    private final LedgerEventOutbox eventOutbox;
+    private final IdReservations idReservations;
+    private final LedgerEngine engine;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate chunkTemplate;
+    private final int chunkSize;
+    private final long progressIntervalNanos;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public BulkImportService(ImportJobRepository jobRepository,
+                             ImportRejectRepository rejectRepository,
+                             AccountShardingService shardingService,
+                             BalanceService balanceService,
+                             BalanceSnapshotService snapshotService,
+                             LedgerEventOutbox eventOutbox,
+                             IdReservations idReservations,
+                             LedgerEngine engine,
+                             JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${ledger.import.chunk-size:5000}") int chunkSize,
+                             @Value("${ledger.import.progress-interval-ms:5000}") long progressIntervalMillis) {
+        this.jobRepository = jobRepository;
+        this.rejectRepository = rejectRepository;
+        this.shardingService = shardingService;
+        this.balanceService = balanceService;
+        this.snapshotService = snapshotService;
+        this.eventOutbox = eventOutbox;
+        this.idReservations = idReservations;
+        this.engine = engine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.progressIntervalNanos = progressIntervalMillis * 1_000_000;
+        this.importedRows = Counter.builder("ledger.import.rows").tag("outcome", "imported")
+                .description("Rows read by bulk imports, by outcome").register(meterRegistry);
+        this.rejectedRows = Counter.builder("ledger.import.rows").tag("outcome", "rejected")
+                .description("Rows read by bulk imports, by outcome").register(meterRegistry);
+    }
+
+    /**
+     * Imports the file, or resumes its unfinished import, and returns the job once the whole file is read.
+     * If it fails, the job stays RUNNING with its error, and the committed chunks stay posted.
+     */
+    public ImportJob importFile(String source, ImportFormat format, InputStream in) {
+        engine.rejectWhileEnabled("Imports");
+        if (!inFlight.add(source)) {
+            throw new ImportInProgressException("An import of " + source + " is already in progress.");
+        }
+        try {
+            ImportJob job = jobRepository.findFirstBySourceAndStatusOrderByIdDesc(source, ImportStatus.RUNNING)
+                    .orElseGet(() -> newJob(source, format));
+            if (job.getFormat() != format) {
+                throw new IllegalArgumentException("The unfinished import of " + source + " is " + job.getFormat() + ".");
+            }
+            try {
+                return run(job, in);
+            } catch (RuntimeException e) {
+                ImportJob failed = jobRepository.findById(job.getId()).orElseThrow();
+                String error = String.valueOf(e.getMessage());
+                failed.setLastError(error.length() > 255 ? error.substring(0, 255) : error);
+                jobRepository.save(failed);
+                throw e;
+            }
+        } finally {
+            inFlight.remove(source);
+        }
+    }
+
+    public ImportJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new NoSuchElementException("Import job not found with ID: " + jobId));
+    }
+
+    public List<ImportReject> getRejects(Long jobId, int limit) {
+        return rejectRepository.findByJobIdOrderById(jobId, Limit.of(limit));
+    }
+
+    private ImportJob newJob(String source, ImportFormat format) {
+        ImportJob job = new ImportJob();
+        job.setSource(source);
+        job.setFormat(format);
+        return jobRepository.save(job);
+    }
+
+    private ImportJob run(ImportJob job, InputStream in) {
+        Map<Long, String> accounts = loadAccountIndex();
+        if (job.getLinesProcessed() > 0) {
+            logger.info("Resuming import {} of {} after line {}", job.getId(), job.getSource(), job.getLinesProcessed());
+        }
+        long lastReport = System.nanoTime();
+        long rowsAtLastReport = job.getRowsImported() + job.getRowsRejected();
+        try (ImportRecordReader reader = new ImportRecordReader(in, job.getFormat(), objectMapper)) {
+            reader.skipTo(job.getLinesProcessed());
+            List<ImportRecordReader.Line> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                long chunkStart = System.nanoTime();
+                chunk.clear();
+                ImportRecordReader.Line line;
+                while (chunk.size() < chunkSize && (line = reader.next()) != null) {
+                    chunk.add(line);
+                }
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                ImportJob current = job;
+                long linesThrough = reader.lineNumber();
+                job = chunkTemplate.execute(status -> postChunk(current, chunk, accounts, linesThrough, chunkStart));
+
+                long now = System.nanoTime();
+                if (now - lastReport >= progressIntervalNanos) {
+                    long rows = job.getRowsImported() + job.getRowsRejected();
+                    logger.info("Import {} of {}: line {}, {} imported, {} rejected, {} rows/s",
+                            job.getId(), job.getSource(), job.getLinesProcessed(), job.getRowsImported(),
+                            job.getRowsRejected(), (rows - rowsAtLastReport) * 1_000_000_000L / (now - lastReport));
+                    lastReport = now;
+                    rowsAtLastReport = rows;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read import file " + job.getSource(), e);
+        }
+
+        job.setStatus(ImportStatus.COMPLETED);
+        job.setLastError(null);
+        job.setFinishedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        logger.info("Import {} of {} completed: {} imported, {} rejected, {} rows/s",
+                job.getId(), job.getSource(), job.getRowsImported(), job.getRowsRejected(), job.getRowsPerSecond());
+        return job;
+    }
+
+    // id -> currency of every account, read once per import
+    private Map<Long, String> loadAccountIndex() {
+        Map<Long, String> accounts = new HashMap<>();
+        jdbcTemplate.query("SELECT id, currency FROM accounts", rs -> {
+            accounts.put(rs.getLong(1), rs.getString(2));
+        });
+        return accounts;
+    }
+
+    private ImportJob postChunk(ImportJob job, List<ImportRecordReader.Line> lines, Map<Long, String> accounts,
+                                long linesThrough, long chunkStart) {
+        List<ImportRecord> records = new ArrayList<>(lines.size());
+        List<ImportReject> rejects = new ArrayList<>();
+        int legs = 0;
+        for (ImportRecordReader.Line line : lines) {
+            String error = line.error() != null ? line.error() : validate(line.record(), accounts);
+            if (error != null) {
+                rejects.add(new ImportReject(job.getId(), line.number(), error));
+                continue;
+            }
+            records.add(line.record());
+            legs += line.record().getType() == TransactionType.TRANSFER ? 2 : 1;
+        }
+
+        if (!records.isEmpty()) {
+            long[] transactionIds = idReservations.reserve("transactions", records.size());
+            long[] entryIds = idReservations.reserve("ledger_entries", legs);
+            int nextTransaction = 0;
+            int nextEntry = 0;
+            balanceService.beginPosting();
+            LocalDateTime postedAt = LocalDateTime.now();
+            List<Object[]> transactions = new ArrayList<>(records.size());
+            List<Object[]> entries = new ArrayList<>(legs);
+            Map<Long, Money> postings = new HashMap<>();
+            LocalDateTime oldest = null;
+            for (ImportRecord record : records) {
+                if (oldest == null || record.getCreatedAt().isBefore(oldest)) {
+                    oldest = record.getCreatedAt();
+                }
+                Long sourceId = record.getType() == TransactionType.DEPOSIT ? null : record.getSourceAccountId();
+                Long destId = record.getType() == TransactionType.WITHDRAWAL ? null : record.getDestinationAccountId();
+                long transactionId = transactionIds[nextTransaction++];
+                transactions.add(new Object[] {transactionId, record.getType().name(), sourceId, destId, record.getAmount(),
+                        record.getCurrency(), TransactionStatus.COMPLETED.name(), record.getDescription(), record.getCreatedAt(),
+                        postedAt});
+                Money amount = Money.of(record.getAmount());
+                Long debitId = sourceId != null ? entryIds[nextEntry++] : null;
+                Long creditId = destId != null ? entryIds[nextEntry++] : null;
+                if (sourceId != null) {
+                    entries.add(new Object[] {debitId, sourceId, transactionId, EntryType.DEBIT.name(),
+                            record.getAmount(), record.getCreatedAt(), postedAt});
+                    postings.merge(sourceId, amount.negate(), Money::plus);
+                }
+                if (destId != null) {
+                    entries.add(new Object[] {creditId, destId, transactionId, EntryType.CREDIT.name(),
+                            record.getAmount(), record.getCreatedAt(), postedAt});
+                    postings.merge(destId, amount, Money::plus);
+                }
+                if (eventOutbox.isEnabled()) {
+                    recordEvent(record, transactionId, sourceId, destId, debitId, creditId);
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions);
+            jdbcTemplate.batchUpdate(INSERT_ENTRY, entries);
+            postings.forEach(balanceService::recordPosting);
+            snapshotService.invalidateFrom(oldest);
+        }
+
+        long recordable = Math.max(0, MAX_RECORDED_REJECTS - job.getRowsRejected());
+        rejectRepository.saveAll(rejects.subList(0, (int) Math.min(recordable, rejects.size())));
+        importedRows.increment(records.size());
+        rejectedRows.increment(rejects.size());
+
+        job.setLinesProcessed(linesThrough);
+        job.setRowsImported(job.getRowsImported() + records.size());
+        job.setRowsRejected(job.getRowsRejected() + rejects.size());
+        job.setElapsedMillis(job.getElapsedMillis() + (System.nanoTime() - chunkStart) / 1_000_000);
+        return jobRepository.save(job);
+    }
+
+    // Queues the ledger event of an imported row; the ids are the ones just reserved for its rows
+    private void recordEvent(ImportRecord record, long transactionId, Long sourceId, Long destId, Long debitId, Long creditId) {
+        Transaction transaction = new Transaction();
+        transaction.setId(transactionId);
+        transaction.setType(record.getType());
+        transaction.setSourceAccountId(sourceId);
+        transaction.setDestinationAccountId(destId);
+        transaction.setAmount(record.getAmount());
+        transaction.setCurrency(record.getCurrency());
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setDescription(record.getDescription());
+        transaction.setCreatedAt(record.getCreatedAt());
+        List<LedgerEntry> legs = new ArrayList<>(2);
+        if (sourceId != null) {
+            legs.add(importedEntry(debitId, sourceId, transactionId, EntryType.DEBIT, record));
+        }
+        if (destId != null) {
+            legs.add(importedEntry(creditId, destId, transactionId, EntryType.CREDIT, record));
+        }
+        eventOutbox.record(transaction, legs);
+    }
+
+    private static LedgerEntry importedEntry(long id, Long accountId, long transactionId, EntryType type,
+                                             ImportRecord record) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setId(id);
+        entry.setAccountId(accountId);
+        entry.setTransactionId(transactionId);
+        entry.setType(type);
+        entry.setAmount(record.getAmount());
+        entry.setCreatedAt(record.getCreatedAt());
+        return entry;
+    }
+
+    // Why the row cannot be imported, or null
+    private String validate(ImportRecord record, Map<Long, String> accounts) {
+        TransactionType type = record.getType();
+        if (type == null) {
+            return "type is required";
+        }
+        if (type == TransactionType.HOLD_CAPTURE || type == TransactionType.JOURNAL) {
+            return type + " transactions cannot be imported";
+        }
+        BigDecimal amount = record.getAmount();
+        if (amount == null || amount.signum() <= 0) {
+            return "amount must be greater than zero";
+        }
+        if (amount.scale() > 4 || amount.precision() - amount.scale() > 14) {
+            return "amount must have at most 14 integer and 4 fraction digits";
+        }
+        if (record.getCurrency() == null) {
+            return "currency is required";
+        }
+        if (record.getCreatedAt() == null) {
+            return "created_at is required";
+        }
+        if (record.getDescription() != null && record.getDescription().length() > 255) {
+            return "description must be less than 255 characters";
+        }
+        if (type != TransactionType.DEPOSIT) {
+            String error = validateAccount("source", record.getSourceAccountId(), record.getCurrency(), accounts);
+            if (error != null) {
+                return error;
+            }
+        }
+        if (type != TransactionType.WITHDRAWAL) {
+            return validateAccount("destination", record.getDestinationAccountId(), record.getCurrency(), accounts);
+        }
+        return null;
+    }
+
+    private String validateAccount(String side, Long accountId, String currency, Map<Long, String> accounts) {
+        if (accountId == null) {
+            return side + "_account_id is required";
+        }
+        String accountCurrency = accounts.get(accountId);
+        if (accountCurrency == null) {
+            return "Account " + accountId + " not found";
+        }
+        if (!accountCurrency.equals(currency)) {
+            return "Currency mismatch: account " + accountId + " is " + accountCurrency;
+        }
+        if (shardingService.isShard(accountId)) {
+            return "Account " + accountId + " is an internal shard account";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.ledger.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conflict rate of optimistic writes per account, for the optimistic locking strategy (see AccountLocking).
+ *
+ * Every optimistic read of an account counts as an attempt; every retried version conflict on it (reported
+ * by the retries of {@link RetryOnLockFailure} and BatchTransferService) as a conflict. Versioned updates
+ * are batched, so a conflict does not always name its account: it is then counted for every account the
+ * failed attempt read optimistically.
+ *
+ * An account whose conflicts reach ledger.locking.fallback.conflict-rate of at least min-attempts attempts
+ * within one window is hot for hold-ms: its writers take the row lock instead, so they queue on the lock
+ * rather than retry.
+ */
+@Component("contentionTracker")
+public class ContentionTracker implements RetryListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentionTracker.class);
+
+    // Retry context attribute: the accounts read optimistically by the current attempt
+    private static final String ACCOUNTS = "ledger.locking.accounts";
+
+    private static final class Window {
+        private long startedAt;
+        private int attempts;
+        private int conflicts;
+        private long hotUntil;
+    }
+
+    private final double conflictRate;
+    private final int minAttempts;
+    private final long windowMillis;
+    private final long holdMillis;
+    private final Map<Long, Window> windows = new ConcurrentHashMap<>();
+
+    public ContentionTracker(@Value("${ledger.locking.fallback.conflict-rate:0.2}") double conflictRate,
+                             @Value("${ledger.locking.fallback.min-attempts:20}") int minAttempts,
+                             @Value("${ledger.locking.fallback.window-ms:10000}") long windowMillis,
+                             @Value("${ledger.locking.fallback.hold-ms:60000}") long holdMillis,
+                             MeterRegistry meterRegistry) {
+        this.conflictRate = conflictRate;
+        this.minAttempts = minAttempts;
+        this.windowMillis = windowMillis;
+        this.holdMillis = holdMillis;
+        Gauge.builder("ledger.locking.hot.accounts", this, ContentionTracker::hotAccounts)
+                .description("Accounts written under row locks because of their optimistic conflict rate")
+                .register(meterRegistry);
+    }
+
+    public boolean isHot(Long accountId) {
+        Window window = windows.get(accountId);
+        if (window == null) {
+            return false;
+        }
+        synchronized (window) {
+            return window.hotUntil > System.currentTimeMillis();
+        }
+    }
+
+    public void attempt(Long accountId) {
+        RetryContext context = RetrySynchronizationManager.getContext();
+        if (context != null) {
+            @SuppressWarnings("unchecked")
+            Set<Long> accounts = (Set<Long>) context.getAttribute(ACCOUNTS);
+            if (accounts == null) {
+                accounts = new HashSet<>();
+                context.setAttribute(ACCOUNTS, accounts);
+            }
+            accounts.add(accountId);
+        }
+        Window window = windows.computeIfAbsent(accountId, id -> new Window());
+        synchronized (window) {
+            roll(window, System.currentTimeMillis());
+            window.attempts++;
+        }
+    }
+
+    void conflict(Long accountId) {
+        Window window = windows.computeIfAbsent(accountId, id -> new Window());
+        synchronized (window) {
+            long now = System.currentTimeMillis();
+            roll(window, now);
+            window.conflicts++;
+            if (window.hotUntil <= now && window.attempts >= minAttempts
+                    && window.conflicts >= conflictRate * window.attempts) {
+                window.hotUntil = now + holdMillis;
+                logger.info("Account {} falls back to row locks for {} ms ({} conflicts in {} attempts)",
+                        accountId, holdMillis, window.conflicts, window.attempts);
+            }
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        @SuppressWarnings("unchecked")
+        Set<Long> accounts = (Set<Long>) context.removeAttribute(ACCOUNTS);
+        if (throwable instanceof ObjectOptimisticLockingFailureException conflict
+                && conflict.getIdentifier() instanceof Long accountId) {
+            conflict(accountId);
+        } else if (throwable instanceof OptimisticLockingFailureException && accounts != null) {
+            accounts.forEach(this::conflict);
+        }
+    }
+
+    // Forgets accounts that are neither hot nor written recently
+    @Scheduled(fixedDelayString = "${ledger.locking.fallback.window-ms:10000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        windows.values().removeIf(window -> {
+            synchronized (window) {
+                return window.hotUntil <= now && now - window.startedAt >= 2 * windowMillis;
+            }
+        });
+    }
+
+    public int hotAccounts() {
+        long now = System.currentTimeMillis();
+        int hot = 0;
+        for (Window window : windows.values()) {
+            synchronized (window) {
+                if (window.hotUntil > now) {
+                    hot++;
+                }
+            }
+        }
+        return hot;
+    }
+
+    private void roll(Window window, long now) {
+        if (now - window.startedAt >= windowMillis) {
+            window.startedAt = now;
+            window.attempts = 0;
+            window.conflicts = 0;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.IdempotencyKey;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One single-threaded writer of the ledger engine. It owns the balances of its accounts, held in a long array
+ * of Money units indexed by a slot per account (next to the amounts their holds reserve), and its journal;
+ * nothing here is locked, because only the partition's thread touches them.
+ *
+ * The thread drains its queue in batches of up to max-batch commands. Postings are checked against the
+ * in-memory balance and appended to the journal; once the batch is applied, one force() makes all of it
+ * durable, and only then are callers answered, the records handed to the persister, and credits to accounts
+ * of other partitions sent on. A partition therefore never spends a credit that could still be lost.
+ */
+final class EnginePartition {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnginePartition.class);
+
+    private sealed interface Command permits Load, Credit, Post {
+    }
+
+    // Loads the account's balance from the database, unless the partition already holds it
+    private record Load(Long accountId, CompletableFuture<Void> done) implements Command {
+    }
+
+    // The credit leg of a transfer posted by another partition
+    private record Credit(Long accountId, long units) implements Command {
+    }
+
+    record Post(TransactionType type, Long sourceAccountId, Long destinationAccountId, long amountUnits,
+                String currency, String description, IdempotencyKey idempotencyKey,
+                CompletableFuture<Transaction> result) implements Command {
+    }
+
+    private final int id;
+    private final LedgerEngine engine;
+    private final LedgerJournal journal;
+    private final int maxBatch;
+    private final int queueCapacity;
+    private final int idBlockSize;
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+    private final Set<Long> loaded = ConcurrentHashMap.newKeySet();
+
+    // Partition thread only
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] transactionIds = new long[0];
+    private int nextTransactionId;
+    private long[] balances = new long[1024];
+    // Amounts reserved by active holds, as last read; holds can only be released while the engine runs
+    // (HoldService refuses new ones), so a stale amount errs on the safe side and is re-read before a refusal
+    private long[] held = new long[1024];
+
+    private volatile boolean running;
+    private Thread thread;
+
+    EnginePartition(int id, LedgerEngine engine, LedgerJournal journal, int maxBatch, int queueCapacity, int idBlockSize) {
+        this.id = id;
+        this.engine = engine;
+        this.journal = journal;
+        this.maxBatch = maxBatch;
+        this.queueCapacity = queueCapacity;
+        this.idBlockSize = idBlockSize;
+    }
+
+    int id() {
+        return id;
+    }
+
+    LedgerJournal journal() {
+        return journal;
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    boolean isLoaded(Long accountId) {
+        return loaded.contains(accountId);
+    }
+
+    CompletableFuture<Void> load(Long accountId) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(new Load(accountId, done));
+        return done;
+    }
+
+    void credit(Long accountId, long units) {
+        queue.add(new Credit(accountId, units));
+    }
+
+    void submit(Post post) {
+        if (!running) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Ledger engine is not running.");
+        }
+        // Credits from other partitions are never refused, so the bound only applies to new postings
+        if (queue.size() >= queueCapacity) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Ledger engine queue is full.");
+        }
+        queue.add(post);
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "ledger-engine-" + id);
+        thread.start();
+    }
+
+    // Stops after the queued commands are applied
+    void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(maxBatch);
+        List<JournalRecord> journaled = new ArrayList<>(maxBatch);
+        List<Runnable> answers = new ArrayList<>(maxBatch);
+        List<Credit> remoteCredits = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                for (Command command : batch) {
+                    apply(command, journaled, answers, remoteCredits);
+                }
+                if (!journaled.isEmpty()) {
+                    engine.force(journal, journaled.size());
+                    engine.persist(this, List.copyOf(journaled));
+                }
+                for (Credit credit : remoteCredits) {
+                    engine.partitionFor(credit.accountId()).credit(credit.accountId(), credit.units());
+                }
+                answers.forEach(Runnable::run);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The journal could not be forced: the batch's postings are applied in memory but may not be
+                // durable, so the partition stops; after a restart its state is rebuilt from what is
+                logger.error("Ledger engine partition {} stopped: {}", id, e.getMessage(), e);
+                running = false;
+                for (Command command : batch) {
+                    if (command instanceof Post post) {
+                        post.result().completeExceptionally(e);
+                    }
+                }
+                failQueued(e);
+                return;
+            } finally {
+                batch.clear();
+                journaled.clear();
+                answers.clear();
+                remoteCredits.clear();
+            }
+        }
+    }
+
+    private void apply(Command command, List<JournalRecord> journaled, List<Runnable> answers, List<Credit> remoteCredits) {
+        if (command instanceof Load load) {
+            try {
+                slot(load.accountId());
+                load.done().complete(null);
+            } catch (RuntimeException e) {
+                load.done().completeExceptionally(e);
+            }
+        } else if (command instanceof Credit credit) {
+            int slot = slot(credit.accountId());
+            balances[slot] = Math.addExact(balances[slot], credit.units());
+        } else if (command instanceof Post post) {
+            try {
+                post(post, journaled, answers, remoteCredits);
+            } catch (IOException | RuntimeException e) {
+                // Nothing was journaled or applied for this posting
+                RuntimeException failure = e instanceof RuntimeException runtime
+                        ? runtime : new IllegalStateException("Cannot write the ledger journal", e);
+                answers.add(() -> post.result().completeExceptionally(failure));
+            }
+        }
+    }
+
+    private void post(Post post, List<JournalRecord> journaled, List<Runnable> answers, List<Credit> remoteCredits)
+            throws IOException {
+        int sourceSlot = post.sourceAccountId() != null ? slot(post.sourceAccountId()) : -1;
+        long newSourceBalance = sourceSlot >= 0 ? Math.subtractExact(balances[sourceSlot], post.amountUnits()) : 0;
+        boolean localCredit = post.destinationAccountId() != null && engine.partitionFor(post.destinationAccountId()) == this;
+        int destSlot = localCredit ? slot(post.destinationAccountId()) : -1;
+        if (sourceSlot >= 0 && newSourceBalance < held[sourceSlot]) {
+            held[sourceSlot] = engine.loadHeld(post.sourceAccountId());
+        }
+        if (sourceSlot >= 0 && newSourceBalance < held[sourceSlot]) {
+            // Nothing is journaled: on the JPA path the FAILED row is rolled back with the posting
+            String message = post.type() == TransactionType.TRANSFER
+                    ? "Insufficient funds for Account " + post.sourceAccountId()
+                    : "Insufficient funds.";
+            answers.add(() -> post.result().completeExceptionally(new InsufficientBalanceException(message)));
+            return;
+        }
+
+        long transactionId = takeTransactionId();
+        JournalRecord record = new JournalRecord(journal.nextSeq(), transactionId, post.type(),
+                TransactionStatus.COMPLETED, post.sourceAccountId(), post.destinationAccountId(),
+                post.amountUnits(), post.currency(), post.description(), LocalDateTime.now(),
+                post.idempotencyKey() != null ? post.idempotencyKey().value() : null,
+                post.idempotencyKey() != null ? post.idempotencyKey().fingerprint() : null);
+        journal.append(record);
+        journaled.add(record);
+        Transaction transaction = LedgerEngine.toTransaction(record);
+
+        if (sourceSlot >= 0) {
+            balances[sourceSlot] = newSourceBalance;
+        }
+        if (destSlot >= 0) {
+            balances[destSlot] = Math.addExact(balances[destSlot], post.amountUnits());
+        } else if (post.destinationAccountId() != null) {
+            remoteCredits.add(new Credit(post.destinationAccountId(), post.amountUnits()));
+        }
+        answers.add(() -> post.result().complete(transaction));
+    }
+
+    // The account's slot, loading its balance on first use
+    private int slot(Long accountId) {
+        Integer slot = slots.get(accountId);
+        if (slot != null) {
+            return slot;
+        }
+        long balance = engine.loadBalance(accountId);
+        long heldAmount = engine.loadHeld(accountId);
+        int next = slots.size();
+        if (next == balances.length) {
+            balances = Arrays.copyOf(balances, next * 2);
+            held = Arrays.copyOf(held, next * 2);
+        }
+        balances[next] = balance;
+        held[next] = heldAmount;
+        slots.put(accountId, next);
+        loaded.add(accountId);
+        return next;
+    }
+
+    // An id taken for a posting that is then not journaled is skipped
+    private long takeTransactionId() {
+        if (nextTransactionId == transactionIds.length) {
+            transactionIds = engine.reserveTransactionIds(idBlockSize);
+            nextTransactionId = 0;
+        }
+        return transactionIds[nextTransactionId++];
+    }
+
+    private void failQueued(RuntimeException cause) {
+        Command command;
+        while ((command = queue.poll()) != null) {
+            if (command instanceof Post post) {
+                post.result().completeExceptionally(cause);
+            } else if (command instanceof Load load) {
+                load.done().completeExceptionally(cause);
+            }
+        }
+    }
+}
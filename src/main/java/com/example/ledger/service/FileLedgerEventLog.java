@@ -0,0 +1,179 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.LedgerEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only ledger event log in ledger.events.directory.
+ *
+ * events.log holds the events as JSON, one per line. events.idx holds, per offset, the 8-byte end position of
+ * that event in events.log, so reading from any offset is one index lookup and one sequential read. An append
+ * forces events.log before events.idx: on startup, an index entry always points to a complete event, and a
+ * torn append past the last index entry is truncated.
+ */
+@Component
+@ConditionalOnExpression("${ledger.events.publisher.enabled:false} and '${ledger.events.sink:file}' == 'file'")
+public class FileLedgerEventLog implements LedgerEventSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileLedgerEventLog.class);
+
+    private static final byte NEWLINE = '\n';
+
+    private final FileChannel log;
+    private final FileChannel index;
+    // Published after both files are written, so readers only see complete events
+    private volatile long count;
+    private long logEnd;
+
+    public FileLedgerEventLog(@Value("${ledger.events.directory:./ledger-events}") String directory) {
+        try {
+            Path dir = Files.createDirectories(Path.of(directory));
+            log = FileChannel.open(dir.resolve("events.log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index = FileChannel.open(dir.resolve("events.idx"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger event log in " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized long append(List<String> events) {
+        if (events.isEmpty()) {
+            return count;
+        }
+        List<byte[]> encoded = new ArrayList<>(events.size());
+        int size = 0;
+        for (String event : events) {
+            byte[] bytes = event.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += bytes.length + 1;
+        }
+        ByteBuffer data = ByteBuffer.allocate(size);
+        ByteBuffer ends = ByteBuffer.allocate(Long.BYTES * events.size());
+        long end = logEnd;
+        for (byte[] bytes : encoded) {
+            data.put(bytes).put(NEWLINE);
+            end += bytes.length + 1;
+            ends.putLong(end);
+        }
+        long first = count;
+        try {
+            writeFully(log, data.flip(), logEnd);
+            log.force(false);
+            writeFully(index, ends.flip(), first * Long.BYTES);
+            index.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to the ledger event log", e);
+        }
+        logEnd = end;
+        count = first + events.size();
+        return first;
+    }
+
+    @Override
+    public List<LedgerEvent> read(long from, int max) {
+        if (from < 0) {
+            throw new IllegalArgumentException("Offset must not be negative.");
+        }
+        long available = count;
+        if (from >= available || max <= 0) {
+            return List.of();
+        }
+        int n = (int) Math.min(max, available - from);
+        try {
+            // End positions of events from - 1 .. from + n - 1; the event before the first gives its start
+            long indexStart = Math.max(0, from - 1) * Long.BYTES;
+            ByteBuffer ends = ByteBuffer.allocate((int) ((from + n) * Long.BYTES - indexStart));
+            readFully(index, ends, indexStart);
+            ends.flip();
+            long start = from == 0 ? 0 : ends.getLong();
+            long[] eventEnds = new long[n];
+            for (int i = 0; i < n; i++) {
+                eventEnds[i] = ends.getLong();
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) (eventEnds[n - 1] - start));
+            readFully(log, data, start);
+            byte[] bytes = data.array();
+
+            List<LedgerEvent> events = new ArrayList<>(n);
+            long position = start;
+            for (int i = 0; i < n; i++) {
+                int offsetInData = (int) (position - start);
+                int length = (int) (eventEnds[i] - position) - 1;
+                events.add(new LedgerEvent(from + i, new String(bytes, offsetInData, length, StandardCharsets.UTF_8)));
+                position = eventEnds[i];
+            }
+            return events;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the ledger event log", e);
+        }
+    }
+
+    @Override
+    public long endOffset() {
+        return count;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        log.close();
+        index.close();
+    }
+
+    // Drops a partial index entry and any event bytes past the last indexed event
+    private void recover() throws IOException {
+        long indexSize = index.size() / Long.BYTES * Long.BYTES;
+        index.truncate(indexSize);
+        long events = indexSize / Long.BYTES;
+        long end = 0;
+        if (events > 0) {
+            ByteBuffer last = ByteBuffer.allocate(Long.BYTES);
+            readFully(index, last, indexSize - Long.BYTES);
+            end = last.flip().getLong();
+        }
+        if (log.size() < end) {
+            throw new IllegalStateException("Ledger event log is shorter than its index (" + log.size() + " < " + end + ").");
+        }
+        if (log.size() > end) {
+            logger.warn("Truncating {} bytes of an incomplete append from the ledger event log", log.size() - end);
+            log.truncate(end);
+        }
+        count = events;
+        logEnd = end;
+        logger.info("Opened ledger event log with {} events", events);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+            position += read;
+        }
+    }
+}
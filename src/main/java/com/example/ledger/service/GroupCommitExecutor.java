@@ -0,0 +1,288 @@
+package com.example.ledger.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Optional group-commit mode for single-item write requests.
+ *
+ * Requests are queued and a single committer thread drains them in micro-batches (bounded by
+ * max-batch-size and max-wait-ms). Each micro-batch runs in one database transaction, so the
+ * commit/fsync cost is shared; every operation runs under its own savepoint, so a failing one
+ * (e.g. InsufficientBalanceException) is rolled back alone and reported to its own caller.
+ * Callers are answered only after the shared commit. If the commit itself fails, the batch is
+ * replayed one operation per transaction.
+ *
+ * A caller waits at most timeout-ms; operations still queued at shutdown are failed with a 503.
+ * When disabled, operations run directly in their own transaction and no queue is allocated.
+ */
+@Component
+public class GroupCommitExecutor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitExecutor.class);
+
+    private static final class PendingOperation<T> {
+        private final Supplier<T> batched;
+        private final Supplier<T> standalone;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+        private T result;
+        private RuntimeException error;
+
+        private PendingOperation(Supplier<T> batched, Supplier<T> standalone) {
+            this.batched = batched;
+            this.standalone = standalone;
+        }
+
+        private void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long timeoutMillis;
+    // Null when disabled
+    private final BlockingQueue<PendingOperation<?>> queue;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceService balanceService;
+
+    private final DistributionSummary batchSizes;
+    private final Timer waitTimer;
+    private final Counter fallbacks;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile boolean running;
+    private Thread committer;
+
+    public GroupCommitExecutor(@Value("${ledger.group-commit.enabled:false}") boolean enabled,
+                               @Value("${ledger.group-commit.max-batch-size:64}") int maxBatchSize,
+                               @Value("${ledger.group-commit.max-wait-ms:2}") long maxWaitMillis,
+                               @Value("${ledger.group-commit.queue-capacity:10000}") int queueCapacity,
+                               @Value("${ledger.group-commit.timeout-ms:10000}") long timeoutMillis,
+                               PlatformTransactionManager transactionManager,
+                               BalanceService balanceService,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.timeoutMillis = timeoutMillis;
+        this.queue = enabled ? new ArrayBlockingQueue<>(queueCapacity) : null;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.balanceService = balanceService;
+
+        if (enabled) {
+            Gauge.builder("ledger.group_commit.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        }
+        Gauge.builder("ledger.group_commit.queue.capacity", () -> queueCapacity).register(meterRegistry);
+        Gauge.builder("ledger.group_commit.max_batch_size", () -> maxBatchSize).register(meterRegistry);
+        Gauge.builder("ledger.group_commit.max_wait", () -> maxWaitMillis).baseUnit("milliseconds").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("ledger.group_commit.batch.size").register(meterRegistry);
+        this.waitTimer = Timer.builder("ledger.group_commit.latency")
+                .description("Time from enqueue until the shared commit completed")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("ledger.group_commit.fallbacks")
+                .description("Batches whose shared commit failed and were replayed one by one")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs an operation through group commit.
+     *
+     * @param batched    the operation without transaction demarcation, run inside the shared transaction
+     * @param standalone the same operation in its own transaction, used when disabled or on fallback
+     */
+    public <T> T execute(Supplier<T> batched, Supplier<T> standalone) {
+        if (!enabled || !running) {
+            return standalone.get();
+        }
+        PendingOperation<T> operation = new PendingOperation<>(batched, standalone);
+        if (!queue.offer(operation)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Group commit queue is full.");
+        }
+        // Stopped between the check above and the offer: stop() may already have drained the queue
+        if (!running && queue.remove(operation)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Group commit is shutting down.");
+        }
+        try {
+            return operation.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Still queued: it never runs. Otherwise it is in the current batch and may still commit.
+            String outcome = queue.remove(operation) ? "it was not applied" : "it may still be applied";
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Group commit timed out; " + outcome + ".");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for group commit.");
+        }
+    }
+
+    private void runCommitter() {
+        List<PendingOperation<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOperation<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOperation<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commitBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commitBatch(List<PendingOperation<?>> batch) {
+        batchSizes.record(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingOperation<?> operation : batch) {
+                    applyWithSavepoint(operation);
+                }
+            });
+            for (PendingOperation<?> operation : batch) {
+                if (isVersionConflict(operation.error)) {
+                    // Optimistic locking strategy: replayed in its own transaction, which retries conflicts
+                    applyStandalone(operation);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Group commit of {} operations failed, replaying individually: {}", batch.size(), e.getMessage());
+            fallbacks.increment();
+            for (PendingOperation<?> operation : batch) {
+                if (operation.error == null) {
+                    applyStandalone(operation);
+                }
+            }
+        }
+        for (PendingOperation<?> operation : batch) {
+            waitTimer.record(System.nanoTime() - operation.enqueuedAt, TimeUnit.NANOSECONDS);
+            operation.complete();
+        }
+    }
+
+    // Spring's JPA transaction manager does not expose savepoints for Hibernate, so they are set on the JDBC connection directly
+    private <T> void applyWithSavepoint(PendingOperation<T> operation) {
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        int postingsMark = balanceService.postingsMark();
+        try {
+            operation.result = operation.batched.get();
+            // Surface constraint violations now, while this operation's savepoint can still undo them
+            entityManager.flush();
+            session.doWork(connection -> connection.releaseSavepoint(savepoint));
+        } catch (RuntimeException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            // Drop the failed operation's entities; earlier operations are already flushed
+            entityManager.clear();
+            balanceService.discardPostingsSince(postingsMark);
+            operation.result = null;
+            operation.error = e;
+        }
+    }
+
+    private static boolean isVersionConflict(RuntimeException e) {
+        return e instanceof OptimisticLockingFailureException || e instanceof OptimisticLockException;
+    }
+
+    private <T> void applyStandalone(PendingOperation<T> operation) {
+        try {
+            operation.result = operation.standalone.get();
+            operation.error = null;
+        } catch (RuntimeException e) {
+            operation.result = null;
+            operation.error = e;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        committer = new Thread(this::runCommitter, "group-commit");
+        committer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (committer != null) {
+            try {
+                committer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            committer = null;
+        }
+        // Operations queued after the committer's last poll (or left by a committer that did not finish in time)
+        if (queue != null) {
+            PendingOperation<?> operation;
+            while ((operation = queue.poll()) != null) {
+                operation.future.completeExceptionally(
+                        new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Group commit is shutting down."));
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return committer != null;
+    }
+}
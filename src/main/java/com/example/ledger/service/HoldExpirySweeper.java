@@ -0,0 +1,35 @@
+package com.example.ledger.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Periodically expires holds past their expiry, returning the reserved funds to the available balance.
+@Component
+public class HoldExpirySweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldExpirySweeper.class);
+
+    private final HoldService holdService;
+    private final int batchSize;
+
+    public HoldExpirySweeper(HoldService holdService, @Value("${ledger.holds.sweep-batch-size:500}") int batchSize) {
+        this.holdService = holdService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.holds.sweep-interval-ms:30000}")
+    public void sweep() {
+        try {
+            int expired;
+            do {
+                expired = holdService.expireDue(batchSize);
+                logger.debug("Expired {} holds", expired);
+            } while (expired == batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Hold expiry sweep failed: {}", e.getMessage());
+        }
+    }
+}
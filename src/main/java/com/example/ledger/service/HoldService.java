@@ -0,0 +1,171 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.CaptureHoldRequest;
+import com.example.ledger.dto.HoldRequest;
+import com.example.ledger.exception.HoldStateException;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.AccountMetadata;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Hold.HoldStatus;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.repository.AccountRepository;
+import com.example.ledger.repository.HoldRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Authorization holds: reserve funds now, capture (part of) them later, or release them.
+ *
+ * A hold lowers the account's available balance (see AvailableBalanceIndex) but posts no ledger entries;
+ * a capture posts a HOLD_CAPTURE transaction from the held account to the hold's destination. Reserve and
+ * capture lock the account row, like the other debits, and then the hold; release and expiry only lock
+ * the hold, since giving funds back cannot overdraw.
+ */
+@Service
+public class HoldService {
+
+    private final HoldRepository holdRepository;
+    private final AccountRepository accountRepository;
+    private final AvailableBalanceIndex holdIndex;
+    private final TransactionService transactionService;
+    private final LedgerEngine engine;
+    private final LedgerMetrics metrics;
+    private final long defaultTtlSeconds;
+
+    public HoldService(HoldRepository holdRepository, AccountRepository accountRepository,
+                       AvailableBalanceIndex holdIndex,
+                       TransactionService transactionService, LedgerEngine engine, LedgerMetrics metrics,
+                       @Value("${ledger.holds.default-ttl-seconds:604800}") long defaultTtlSeconds) {
+        this.holdRepository = holdRepository;
+        this.accountRepository = accountRepository;
+        this.holdIndex = holdIndex;
+        this.transactionService = transactionService;
+        this.engine = engine;
+        this.metrics = metrics;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+    }
+
+    @RetryOnLockFailure
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Hold reserve(HoldRequest request) {
+        engine.rejectWhileEnabled("Holds");
+        transactionService.rejectShardAccount(request.getAccountId());
+        transactionService.rejectShardAccount(request.getDestinationAccountId());
+
+        Account account = metrics.lockAcquire().record(() -> accountRepository.findByIdWithLock(request.getAccountId()))
+                .orElseThrow(() -> new NoSuchElementException("Account not found."));
+        AccountMetadata dest = accountRepository.findMetadataById(request.getDestinationAccountId())
+                .orElseThrow(() -> new NoSuchElementException("Destination Account not found."));
+        if (!account.getCurrency().equals(dest.currency())) {
+            throw new IllegalArgumentException("Currency mismatch.");
+        }
+        TransactionService.requireActive(AccountMetadata.of(account));
+        TransactionService.requireActive(dest);
+
+        Money amount = Money.of(request.getAmount());
+        if (holdIndex.available(account.getId()).minus(amount).isNegative()) {
+            throw new InsufficientBalanceException("Insufficient funds for Account " + account.getId());
+        }
+
+        long ttlSeconds = request.getExpiresInSeconds() != null ? request.getExpiresInSeconds() : defaultTtlSeconds;
+        Hold hold = new Hold();
+        hold.setAccountId(account.getId());
+        hold.setDestinationAccountId(dest.id());
+        hold.setAmount(amount.toBigDecimal());
+        hold.setCurrency(account.getCurrency());
+        hold.setDescription(request.getDescription());
+        hold.setExpiresAt(hold.getCreatedAt().plusSeconds(ttlSeconds));
+        hold = holdRepository.save(hold);
+        holdIndex.record(account.getId(), amount);
+        return hold;
+    }
+
+    // Moves the requested amount (default: all that remains) to the destination; see CaptureHoldRequest
+    @RetryOnLockFailure
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Transaction capture(Long holdId, CaptureHoldRequest request) {
+        engine.rejectWhileEnabled("Hold captures");
+        Long accountId = holdRepository.findAccountIdById(holdId)
+                .orElseThrow(() -> new NoSuchElementException("Hold not found with ID: " + holdId));
+        Account account = metrics.lockAcquire().record(() -> accountRepository.findByIdWithLock(accountId))
+                .orElseThrow(() -> new NoSuchElementException("Account not found."));
+        Hold hold = lockActiveHold(holdId);
+        TransactionService.requireActive(AccountMetadata.of(account));
+        TransactionService.requireActive(accountRepository.findMetadataById(hold.getDestinationAccountId())
+                .orElseThrow(() -> new NoSuchElementException("Destination Account not found.")));
+
+        Money remaining = hold.getRemaining();
+        Money amount = request.getAmount() != null ? Money.of(request.getAmount()) : remaining;
+        if (amount.compareTo(remaining) > 0) {
+            throw new HoldStateException("Capture of " + amount + " exceeds the " + remaining + " remaining on hold " + holdId + ".");
+        }
+
+        Transaction transaction = transactionService.applyHoldCapture(hold, amount);
+        hold.setCapturedAmount(Money.of(hold.getCapturedAmount()).plus(amount).toBigDecimal());
+        if (request.isFinalCapture() || amount.equals(remaining)) {
+            hold.setStatus(HoldStatus.CAPTURED);
+        }
+        hold.setUpdatedAt(LocalDateTime.now());
+        // Releases the captured amount and, on a final capture, the rest of the hold
+        holdIndex.record(accountId, hold.getRemaining().minus(remaining));
+        return transaction;
+    }
+
+    @RetryOnLockFailure
+    @Transactional
+    public Hold release(Long holdId) {
+        Hold hold = lockActiveHold(holdId);
+        Money remaining = hold.getRemaining();
+        hold.setStatus(HoldStatus.RELEASED);
+        hold.setUpdatedAt(LocalDateTime.now());
+        holdIndex.record(hold.getAccountId(), remaining.negate());
+        return hold;
+    }
+
+    // Expires up to limit holds past their expiry; returns how many (see HoldExpirySweeper)
+    @Transactional
+    public int expireDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Hold> due = holdRepository.findDueWithLock(HoldStatus.ACTIVE, now, Limit.of(limit));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Money> released = new HashMap<>();
+        for (Hold hold : due) {
+            released.merge(hold.getAccountId(), hold.getRemaining(), Money::plus);
+        }
+        holdRepository.updateStatus(due.stream().map(Hold::getId).toList(), HoldStatus.EXPIRED, now);
+        released.forEach((accountId, amount) -> holdIndex.record(accountId, amount.negate()));
+        return due.size();
+    }
+
+    @Transactional(readOnly = true)
+    public Hold getHold(Long holdId) {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new NoSuchElementException("Hold not found with ID: " + holdId));
+    }
+
+    // A hold past its expiry counts as expired even before the sweeper has marked it
+    private Hold lockActiveHold(Long holdId) {
+        Hold hold = metrics.lockAcquire().record(() -> holdRepository.findByIdWithLock(holdId))
+                .orElseThrow(() -> new NoSuchElementException("Hold not found with ID: " + holdId));
+        if (hold.getStatus() != HoldStatus.ACTIVE) {
+            throw new HoldStateException("Hold " + holdId + " is " + hold.getStatus() + ".");
+        }
+        if (!hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new HoldStateException("Hold " + holdId + " has expired.");
+        }
+        return hold;
+    }
+}
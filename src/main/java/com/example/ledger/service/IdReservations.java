@@ -0,0 +1,37 @@
+package com.example.ledger.service;
+
+import com.example.ledger.config.BlockSequenceGenerator;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ids from the blocks of BlockSequenceGenerator, for rows written without Hibernate (bulk import, ledger engine).
+ */
+@Component
+public class IdReservations {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdReservations(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes count ids for the given table, in blocks of BLOCK_SIZE, on the caller's connection (its transaction's,
+     * when it has one; a rolled-back block is not handed out again). The ids are ascending but not contiguous
+     * across blocks; the rest of the last block is left unused.
+     */
+    public long[] reserve(String table, int count) {
+        long[] ids = new long[count];
+        int taken = 0;
+        while (taken < count) {
+            long first = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                    BlockSequenceGenerator.takeBlock(connection, table));
+            for (int i = 0; i < BlockSequenceGenerator.BLOCK_SIZE && taken < count; i++) {
+                ids[taken++] = first + i;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.ledger.service;
+
+import com.example.ledger.config.ReadRouting;
+import com.example.ledger.dto.IdempotentRequest;
+import com.example.ledger.exception.IdempotencyKeyReusedException;
+import com.example.ledger.model.IdempotencyKey;
+import com.example.ledger.model.IdempotencyRecord;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.repository.IdempotencyRecordRepository;
+import com.example.ledger.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for the single-item write endpoints: a retried request gets the transaction posted
+ * by the first one instead of posting again.
+ *
+ * The key is stored in idempotency_keys in the same database transaction as the posting (see
+ * TransactionService), so a key exists if and only if its posting committed, and the
+ * primary key stops a second posting on any instance. In front of the table, a bounded in-memory map of recent
+ * keys (insertion-ordered, max-size and ttl-ms) answers retries on this instance without a query, and lets a
+ * duplicate that arrives while the first request is still running wait for its result instead of racing it.
+ *
+ * Only successful postings are recorded: a request that failed (e.g. insufficient funds) posted nothing, and a
+ * retry with the same key runs again. Keys are kept for retention-hours.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Transaction> result = new CompletableFuture<>();
+        private final long createdAt = System.nanoTime();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries;
+    private final long ttlNanos;
+    private final long waitTimeoutMillis;
+    private final Duration retention;
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              TransactionRepository transactionRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${ledger.idempotency.max-size:100000}") int maxSize,
+                              @Value("${ledger.idempotency.ttl-ms:600000}") long ttlMillis,
+                              @Value("${ledger.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis,
+                              @Value("${ledger.idempotency.retention-hours:24}") long retentionHours) {
+        this.recordRepository = recordRepository;
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.retention = Duration.ofHours(retentionHours);
+        this.memoryReplays = Counter.builder("ledger.idempotency.replays").tag("source", "memory")
+                .description("Requests answered with the transaction of an earlier request with the same key")
+                .register(meterRegistry);
+        this.databaseReplays = Counter.builder("ledger.idempotency.replays").tag("source", "database")
+                .description("Requests answered with the transaction of an earlier request with the same key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the posting once per key. Without a key, just runs it. A duplicate gets the recorded transaction,
+     * or waits for the running request with the same key; the same key with a different request is refused.
+     */
+    public Transaction execute(String key, String operation, IdempotentRequest request, Supplier<Transaction> posting) {
+        if (key == null) {
+            return posting.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        IdempotencyKey idempotencyKey = new IdempotencyKey(key, fingerprint(operation, request));
+        while (true) {
+            Entry entry;
+            boolean owner;
+            synchronized (entries) {
+                entry = entries.get(key);
+                if (entry != null && entry.result.isDone() && System.nanoTime() - entry.createdAt > ttlNanos) {
+                    entries.remove(key);
+                    entry = null;
+                }
+                owner = entry == null;
+                if (owner) {
+                    entry = new Entry(idempotencyKey.fingerprint());
+                    entries.put(key, entry);
+                }
+            }
+            if (!entry.fingerprint.equals(idempotencyKey.fingerprint())) {
+                throw reused(key);
+            }
+            if (owner) {
+                return executeOnce(idempotencyKey, entry, request, posting);
+            }
+            Transaction transaction = await(entry);
+            if (transaction != null) {
+                memoryReplays.increment();
+                return transaction;
+            }
+            // The earlier request failed and posted nothing: run this one
+        }
+    }
+
+    // Called inside the posting's database transaction; a duplicate key fails the transaction
+    void record(IdempotencyKey key, Transaction transaction) {
+        recordRepository.save(new IdempotencyRecord(key, transaction.getId()));
+    }
+
+    // Ledger engine postings are recorded once persisted; the engine refused duplicates when it claimed the key
+    void recordIfAbsent(IdempotencyKey key, Transaction transaction) {
+        if (recordRepository.existsById(key.value())) {
+            logger.warn("{} {} is already recorded; transaction {} is not", HEADER, key.value(), transaction.getId());
+            return;
+        }
+        record(key, transaction);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.info("Purged {} idempotency keys older than {}", purged, retention);
+        }
+    }
+
+    private Transaction executeOnce(IdempotencyKey key, Entry entry, IdempotentRequest request,
+                                    Supplier<Transaction> posting) {
+        try {
+            Transaction transaction = findRecorded(key);
+            if (transaction != null) {
+                databaseReplays.increment();
+            } else {
+                request.setIdempotencyKey(key);
+                try {
+                    transaction = posting.get();
+                } catch (RuntimeException e) {
+                    // If another instance committed the same key first, this posting failed on the key's primary
+                    // key (at flush or commit, depending on the path) and was rolled back: answer with that one
+                    transaction = findRecorded(key);
+                    if (transaction == null) {
+                        throw e;
+                    }
+                    databaseReplays.increment();
+                }
+            }
+            entry.result.complete(transaction);
+            return transaction;
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key.value(), entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // The transaction recorded for the key, read from the primary (a replica may not have the key yet)
+    Transaction findRecorded(IdempotencyKey key) {
+        return ReadRouting.callOnPrimary(() -> recordRepository.findById(key.value())
+                .map(record -> {
+                    if (!record.getFingerprint().equals(key.fingerprint())) {
+                        throw reused(key.value());
+                    }
+                    return transactionRepository.findById(record.getTransactionId()).orElseThrow();
+                })
+                .orElse(null));
+    }
+
+    // The running request's transaction, or null if it failed
+    private Transaction await(Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this " + HEADER + " is still in progress, please retry the request.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request with the same " + HEADER + ".", e);
+        }
+    }
+
+    static IdempotencyKeyReusedException reused(String key) {
+        return new IdempotencyKeyReusedException(HEADER + " " + key + " was already used for a different request.");
+    }
+
+    // SHA-256 of the operation and the request's JSON form (the key itself is not serialized)
+    private String fingerprint(String operation, IdempotentRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.ImportRecord;
+import com.example.ledger.model.ImportJob.ImportFormat;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an import file one line at a time, so memory does not depend on the file size.
+ *
+ * CSV files start with a header naming the columns (type, source_account_id, destination_account_id, amount,
+ * currency, created_at, description; any order, unknown columns ignored). Fields may be double-quoted, but not
+ * span lines. NDJSON files hold one ImportRecord object per line. Blank lines are skipped in both formats.
+ * A line that cannot be parsed is returned with its error rather than failing the import.
+ */
+final class ImportRecordReader implements Closeable {
+
+    // A parsed line: either record or error is set
+    record Line(long number, ImportRecord record, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long lineNumber;
+
+    ImportRecordReader(InputStream in, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == ImportFormat.CSV) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV import file is empty; a header line is required.");
+            }
+            lineNumber = 1;
+            List<String> names = splitCsv(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : List.of("type", "amount", "currency", "created_at")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("CSV header has no " + required + " column.");
+                }
+            }
+        }
+    }
+
+    // Skips to line target, inclusive: the lines of an interrupted import that were committed
+    void skipTo(long target) throws IOException {
+        while (lineNumber < target && reader.readLine() != null) {
+            lineNumber++;
+        }
+    }
+
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    // The next non-blank line, or null at the end of the file
+    Line next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (text.isBlank());
+        try {
+            ImportRecord record = format == ImportFormat.CSV ? parseCsv(text) : objectMapper.readValue(text, ImportRecord.class);
+            return new Line(lineNumber, record, null);
+        } catch (JsonProcessingException e) {
+            return new Line(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+        } catch (RuntimeException e) {
+            return new Line(lineNumber, null, "Malformed CSV: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private ImportRecord parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        ImportRecord record = new ImportRecord();
+        record.setType(TransactionType.valueOf(required(fields, "type").toUpperCase(Locale.ROOT)));
+        record.setAmount(new BigDecimal(required(fields, "amount")));
+        record.setCurrency(required(fields, "currency"));
+        record.setCreatedAt(LocalDateTime.parse(required(fields, "created_at")));
+        String source = field(fields, "source_account_id");
+        record.setSourceAccountId(source == null ? null : Long.valueOf(source));
+        String destination = field(fields, "destination_account_id");
+        record.setDestinationAccountId(destination == null ? null : Long.valueOf(destination));
+        record.setDescription(field(fields, "description"));
+        return record;
+    }
+
+    private String required(List<String> fields, String column) {
+        String value = field(fields, column);
+        if (value == null) {
+            throw new IllegalArgumentException(column + " is empty");
+        }
+        return value;
+    }
+
+    // The named field, or null if the column is absent or the field empty
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Transaction.TransactionStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A posting of the ledger engine as written to its partition's journal: the transaction, from which its ledger
+ * entries follow (a COMPLETED posting debits the source and credits the destination, whichever are set).
+ * Amounts are Money units.
+ */
+record JournalRecord(long seq, long transactionId, TransactionType type, TransactionStatus status,
+                     Long sourceAccountId, Long destinationAccountId, long amountUnits, String currency,
+                     String description, LocalDateTime createdAt, String idempotencyKey, String idempotencyFingerprint) {
+
+    private static final long NONE = -1;
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putLong(seq);
+        buffer.putLong(transactionId);
+        buffer.put((byte) type.ordinal());
+        buffer.put((byte) status.ordinal());
+        buffer.putLong(sourceAccountId != null ? sourceAccountId : NONE);
+        buffer.putLong(destinationAccountId != null ? destinationAccountId : NONE);
+        buffer.putLong(amountUnits);
+        buffer.putLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(createdAt.getNano());
+        putString(buffer, currency);
+        putString(buffer, description);
+        putString(buffer, idempotencyKey);
+        putString(buffer, idempotencyFingerprint);
+    }
+
+    static JournalRecord readFrom(ByteBuffer buffer) {
+        long seq = buffer.getLong();
+        long transactionId = buffer.getLong();
+        TransactionType type = TransactionType.values()[buffer.get()];
+        TransactionStatus status = TransactionStatus.values()[buffer.get()];
+        long source = buffer.getLong();
+        long destination = buffer.getLong();
+        long amountUnits = buffer.getLong();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return new JournalRecord(seq, transactionId, type, status, source == NONE ? null : source,
+                destination == NONE ? null : destination, amountUnits, getString(buffer), getString(buffer),
+                createdAt, getString(buffer), getString(buffer));
+    }
+
+    // Upper bound of the encoded size
+    int maxSize() {
+        return 8 + 8 + 1 + 1 + 8 + 8 + 8 + 8 + 4
+                + maxSize(currency) + maxSize(description) + maxSize(idempotencyKey) + maxSize(idempotencyFingerprint);
+    }
+
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int maxSize(String value) {
+        return 4 + (value == null ? 0 : value.length() * 3);
+    }
+}
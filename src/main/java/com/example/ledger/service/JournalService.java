@@ -0,0 +1,175 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.JournalRequest;
+import com.example.ledger.dto.JournalRequest.Leg;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.AccountMetadata;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.example.ledger.repository.AccountRepository;
+import com.example.ledger.repository.LedgerEntryRepository;
+import com.example.ledger.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Multi-leg postings (POST /journals): any number of debit and credit legs across accounts, posted as a
+ * single JOURNAL transaction, e.g. a payment with its fee, or both sides of a currency conversion. The
+ * legs must balance in each currency, the currency of a leg being that of its account.
+ *
+ * As in BatchTransferService, the accounts the journal debits (net of its own credits) are locked in one
+ * statement, in id order, and checked against their available balance; accounts that are only credited
+ * are validated with an unlocked read of their row (not the metadata cache, whose status may be stale).
+ * The transaction and its entries are inserted with one batched statement per table, in one commit.
+ *
+ * The transaction's currency is that of the first leg, and its amount the total debited in that currency.
+ */
+@Service
+public class JournalService {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceService balanceService;
+    private final AccountShardingService shardingService;
+    private final AvailableBalanceIndex holdIndex;
+    private final IdempotencyService idempotencyService;
+    private final LedgerEventOutbox eventOutbox;
+    private final LedgerEngine engine;
+    private final LedgerMetrics metrics;
+
+    public JournalService(AccountRepository accountRepository,
+                          TransactionRepository transactionRepository,
+                          LedgerEntryRepository ledgerEntryRepository,
+                          BalanceService balanceService,
+                          AccountShardingService shardingService,
+                          AvailableBalanceIndex holdIndex,
+                          IdempotencyService idempotencyService,
+                          LedgerEventOutbox eventOutbox,
+                          LedgerEngine engine,
+                          LedgerMetrics metrics) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceService = balanceService;
+        this.shardingService = shardingService;
+        this.holdIndex = holdIndex;
+        this.idempotencyService = idempotencyService;
+        this.eventOutbox = eventOutbox;
+        this.engine = engine;
+        this.metrics = metrics;
+    }
+
+    @RetryOnLockFailure
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Transaction post(JournalRequest request) {
+        engine.rejectWhileEnabled("Journals");
+        List<Leg> legs = request.getLegs();
+
+        // Net movement of each account over all its legs: negative for a net debit
+        Map<Long, Money> netByAccount = new HashMap<>();
+        for (Leg leg : legs) {
+            netByAccount.merge(leg.getAccountId(), signed(leg), Money::plus);
+        }
+        Set<Long> debitedIds = new TreeSet<>();
+        netByAccount.forEach((accountId, net) -> {
+            if (net.isNegative()) {
+                debitedIds.add(accountId);
+            }
+        });
+
+        Map<Long, AccountMetadata> accounts = new HashMap<>();
+        if (!debitedIds.isEmpty()) {
+            metrics.lockAcquire().record(() -> accountRepository.findAllByIdInWithLock(debitedIds))
+                    .forEach(account -> accounts.put(account.getId(), AccountMetadata.of(account)));
+        }
+        for (Long accountId : netByAccount.keySet()) {
+            if (!accounts.containsKey(accountId)) {
+                accountRepository.findMetadataById(accountId).ifPresent(metadata -> accounts.put(accountId, metadata));
+            }
+        }
+
+        Map<String, Money> netByCurrency = new LinkedHashMap<>();
+        Money amount = Money.ZERO;
+        String currency = null;
+        for (int i = 0; i < legs.size(); i++) {
+            Leg leg = legs.get(i);
+            AccountMetadata account = accounts.get(leg.getAccountId());
+            if (account == null) {
+                throw new NoSuchElementException("Account " + leg.getAccountId() + " not found (leg " + i + ").");
+            }
+            if (shardingService.isShard(account.id())) {
+                throw new IllegalArgumentException("Shard accounts cannot be used directly (leg " + i + ").");
+            }
+            TransactionService.requireActive(account);
+            if (currency == null) {
+                currency = account.currency();
+            }
+            if (leg.getType() == EntryType.DEBIT && account.currency().equals(currency)) {
+                amount = amount.plus(Money.of(leg.getAmount()));
+            }
+            netByCurrency.merge(account.currency(), signed(leg), Money::plus);
+        }
+        netByCurrency.forEach((legCurrency, net) -> {
+            if (net.signum() != 0) {
+                throw new IllegalArgumentException("Legs do not balance in " + legCurrency
+                        + ": credits minus debits is " + net + ".");
+            }
+        });
+        // Funds reserved by active holds cannot be spent
+        for (Long accountId : debitedIds) {
+            if (holdIndex.available(accountId).plus(netByAccount.get(accountId)).isNegative()) {
+                throw new InsufficientBalanceException("Insufficient funds for Account " + accountId + ".");
+            }
+        }
+
+        balanceService.beginPosting();
+        Transaction transaction = new Transaction();
+        transaction.setType(TransactionType.JOURNAL);
+        transaction.setAmount(amount.toBigDecimal());
+        transaction.setCurrency(currency);
+        transaction.setDescription(request.getDescription());
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        // Ids come from the pooled table generator, so neither save forces an insert per row
+        transactionRepository.save(transaction);
+
+        List<LedgerEntry> entries = new ArrayList<>(legs.size());
+        for (Leg leg : legs) {
+            LedgerEntry entry = new LedgerEntry();
+            entry.setAccountId(leg.getType() == EntryType.CREDIT
+                    ? shardingService.creditTarget(leg.getAccountId()) : leg.getAccountId());
+            entry.setTransactionId(transaction.getId());
+            entry.setType(leg.getType());
+            entry.setAmount(leg.getAmount());
+            entries.add(entry);
+        }
+        metrics.entriesPersist().record(() -> ledgerEntryRepository.saveAll(entries));
+        for (LedgerEntry entry : entries) {
+            balanceService.recordPosting(entry.getAccountId(), entry.getSignedMoney());
+        }
+        eventOutbox.record(transaction, entries);
+        if (request.getIdempotencyKey() != null) {
+            idempotencyService.record(request.getIdempotencyKey(), transaction);
+        }
+        return transaction;
+    }
+
+    private static Money signed(Leg leg) {
+        Money amount = Money.of(leg.getAmount());
+        return leg.getType() == EntryType.CREDIT ? amount : amount.negate();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.ArchiveSegment;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.repository.ArchiveSegmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Read side of the ledger archive: the memory-mapped segments listed in archive_segments.
+ *
+ * Segments written by this instance are opened as soon as their archiving commits; segments written by
+ * another instance are picked up by the periodic refresh, so their history may be missing from that
+ * instance's reads for up to ledger.archive.refresh-interval-ms.
+ */
+@Component
+public class LedgerArchive {
+
+    // History order, as in the ledger-entries endpoints
+    static final Comparator<LedgerEntry> HISTORY_ORDER =
+            Comparator.comparing(LedgerEntry::getCreatedAt).thenComparing(LedgerEntry::getId);
+
+    private final ArchiveSegmentRepository segmentRepository;
+    private final Path directory;
+    private final Map<Long, LedgerSegment> opened = new HashMap<>();
+    private volatile List<LedgerSegment> segments = List.of();
+
+    public LedgerArchive(ArchiveSegmentRepository segmentRepository,
+                         @Value("${ledger.archive.directory:./ledger-archive}") String directory) {
+        this.segmentRepository = segmentRepository;
+        this.directory = Path.of(directory);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${ledger.archive.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        List<LedgerSegment> current = new ArrayList<>();
+        for (ArchiveSegment segment : segmentRepository.findAllByOrderByPeriodStart()) {
+            LedgerSegment reader = opened.get(segment.getId());
+            if (reader == null) {
+                try {
+                    reader = LedgerSegment.open(directory.resolve(segment.getFileName()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot open archive segment " + segment.getFileName(), e);
+                }
+                opened.put(segment.getId(), reader);
+            }
+            current.add(reader);
+        }
+        segments = List.copyOf(current);
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    // Archived entries of the accounts in history order, strictly after the position (null: from the start)
+    public Iterator<LedgerEntry> entries(Collection<Long> accountIds, LocalDateTime afterCreatedAt, Long afterId) {
+        List<Iterator<LedgerEntry>> sources = new ArrayList<>();
+        for (LedgerSegment segment : segments) {
+            for (Long accountId : accountIds) {
+                sources.add(segment.entries(accountId, afterCreatedAt, afterId));
+            }
+        }
+        return merge(sources);
+    }
+
+    // Merges iterators that are each in history order
+    public static Iterator<LedgerEntry> merge(List<Iterator<LedgerEntry>> sources) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing((Head head) -> head.entry, HISTORY_ORDER));
+        for (Iterator<LedgerEntry> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public LedgerEntry next() {
+                Head head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (head.source.hasNext()) {
+                    heads.add(new Head(head.source.next(), head.source));
+                }
+                return head.entry;
+            }
+        };
+    }
+
+    private record Head(LedgerEntry entry, Iterator<LedgerEntry> source) {
+    }
+}
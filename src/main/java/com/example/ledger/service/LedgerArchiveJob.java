@@ -0,0 +1,31 @@
+package com.example.ledger.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Scheduled archiving of closed periods (ledger.archive.enabled, off by default); enable it on one instance only.
+@Component
+@ConditionalOnProperty(name = "ledger.archive.enabled", havingValue = "true")
+public class LedgerArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerArchiveJob.class);
+
+    private final LedgerArchiveService archiveService;
+
+    public LedgerArchiveJob(LedgerArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.archive.interval-ms:86400000}")
+    public void run() {
+        try {
+            archiveService.archiveDue();
+        } catch (RuntimeException e) {
+            // Nothing is registered or deleted for the failed period; it is retried next time
+            logger.warn("Ledger archiving failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.ArchiveSegment;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.OpeningBalance;
+import com.example.ledger.repository.ArchiveSegmentRepository;
+import com.example.ledger.repository.LedgerEntryRepository;
+import com.example.ledger.repository.OpeningBalanceRepository;
+import com.example.ledger.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the ledger entries of closed periods out of ledger_entries into archive segments (see LedgerSegment).
+ *
+ * A period is a calendar month of transactions (all legs of a transaction move together), archived once
+ * it ended more than ledger.archive.retention-days ago. Per period:
+ * 1. its entries are streamed in (account_id, created_at, id) order into a new segment file;
+ * 2. in one transaction, the per-account sums are added to the opening balances, the archived entries posted
+ *    after an account's checkpoint are added to that checkpoint, the entries are deleted and the segment is
+ *    registered. Balances are therefore the same before and after.
+ * A failure before step 2 commits leaves only an unregistered file, which the next attempt overwrites.
+ */
+@Service
+public class LedgerArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerArchiveService.class);
+
+    private static final String PERIOD_QUERY = """
+        SELECT e.id, e.account_id, e.transaction_id, e.type, e.amount, e.created_at
+        FROM ledger_entries e
+        JOIN transactions t ON t.id = e.transaction_id
+        WHERE t.created_at >= ? AND t.created_at < ?
+        ORDER BY e.account_id, e.created_at, e.id
+        """;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TransactionRepository transactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final ArchiveSegmentRepository segmentRepository;
+    private final OpeningBalanceRepository openingBalanceRepository;
+    private final BalanceService balanceService;
+    private final LedgerArchive ledgerArchive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final Path directory;
+    private final int retentionDays;
+    private final int fetchSize;
+    private final boolean checkpointsEnabled;
+
+    public LedgerArchiveService(TransactionRepository transactionRepository,
+                                LedgerEntryRepository ledgerEntryRepository,
+                                ArchiveSegmentRepository segmentRepository,
+                                OpeningBalanceRepository openingBalanceRepository,
+                                BalanceService balanceService,
+                                LedgerArchive ledgerArchive,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${ledger.archive.directory:./ledger-archive}") String directory,
+                                @Value("${ledger.archive.retention-days:365}") int retentionDays,
+                                @Value("${ledger.reconciliation.fetch-size:1000}") int fetchSize,
+                                @Value("${ledger.checkpoint.enabled:true}") boolean checkpointsEnabled) {
+        this.transactionRepository = transactionRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.segmentRepository = segmentRepository;
+        this.openingBalanceRepository = openingBalanceRepository;
+        this.balanceService = balanceService;
+        this.ledgerArchive = ledgerArchive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Path.of(directory);
+        this.retentionDays = retentionDays;
+        this.fetchSize = fetchSize;
+        this.checkpointsEnabled = checkpointsEnabled;
+    }
+
+    // Archives every due period, oldest first; months without transactions are skipped
+    public List<ArchiveSegment> archiveDue() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        List<ArchiveSegment> archived = new ArrayList<>();
+        while (true) {
+            LocalDateTime archivedThrough = segmentRepository.findMaxPeriodEnd();
+            LocalDateTime oldest = transactionRepository.findMinCreatedAtFrom(archivedThrough != null ? archivedThrough : EPOCH);
+            if (oldest == null) {
+                break;
+            }
+            LocalDateTime start = YearMonth.from(oldest).atDay(1).atStartOfDay();
+            LocalDateTime end = start.plusMonths(1);
+            if (end.isAfter(cutoff)) {
+                break;
+            }
+            archived.add(archivePeriod(start, end));
+        }
+        return archived;
+    }
+
+    private ArchiveSegment archivePeriod(LocalDateTime start, LocalDateTime end) {
+        String fileName = "ledger-" + YearMonth.from(start) + ".seg";
+        Map<Long, AccountTotals> accounts = new HashMap<>();
+        int entryCount;
+        try (LedgerSegment.Writer writer = new LedgerSegment.Writer(directory.resolve(fileName))) {
+            readTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(PERIOD_QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setObject(1, start);
+                statement.setObject(2, end);
+                return statement;
+            }, rs -> {
+                LedgerEntry entry = new LedgerEntry();
+                entry.setId(rs.getLong(1));
+                entry.setAccountId(rs.getLong(2));
+                entry.setTransactionId(rs.getLong(3));
+                entry.setType(EntryType.valueOf(rs.getString(4)));
+                entry.setAmount(rs.getBigDecimal(5));
+                entry.setCreatedAt(rs.getObject(6, LocalDateTime.class));
+                try {
+                    writer.append(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                accounts.computeIfAbsent(entry.getAccountId(), id -> new AccountTotals()).add(entry);
+            }));
+            writer.finish();
+            entryCount = writer.rows();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write archive segment " + fileName, e);
+        }
+
+        ArchiveSegment segment = writeTemplate.execute(status -> {
+            accounts.forEach((accountId, totals) -> {
+                OpeningBalance opening = openingBalanceRepository.findByIdWithLock(accountId)
+                        .orElseGet(() -> new OpeningBalance(accountId));
+                opening.setBalance(Money.of(opening.getBalance()).plus(totals.sum).toBigDecimal());
+                opening.setArchivedThrough(end);
+                openingBalanceRepository.save(opening);
+                if (checkpointsEnabled) {
+                    balanceService.foldIntoCheckpoint(accountId, start, end);
+                }
+            });
+            int deleted = ledgerEntryRepository.deleteByTransactionCreatedAtBetween(start, end);
+            if (deleted != entryCount) {
+                throw new IllegalStateException("Archived " + entryCount + " entries for " + YearMonth.from(start)
+                        + " but " + deleted + " would be deleted");
+            }
+
+            ArchiveSegment registered = new ArchiveSegment();
+            registered.setPeriodStart(start);
+            registered.setPeriodEnd(end);
+            registered.setFileName(fileName);
+            registered.setEntryCount(entryCount);
+            registered.setAccountCount(accounts.size());
+            registered = segmentRepository.save(registered);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ledgerArchive.refresh();
+                }
+            });
+            return registered;
+        });
+        logger.info("Archived {} ledger entries of {} accounts for {} into {}",
+                entryCount, accounts.size(), YearMonth.from(start), fileName);
+        return segment;
+    }
+
+    private static final class AccountTotals {
+        private Money sum = Money.ZERO;
+
+        private void add(LedgerEntry entry) {
+            sum = sum.plus(entry.getSignedMoney());
+        }
+    }
+}
@@ -0,0 +1,560 @@
+package com.example.ledger.service;
+
+import com.example.ledger.config.ReadRouting;
+import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.dto.TransferRequest;
+import com.example.ledger.model.AccountMetadata;
+import com.example.ledger.model.EngineCheckpoint;
+import com.example.ledger.model.IdempotencyKey;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.example.ledger.repository.EngineCheckpointRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory execution engine for transfers, deposits and withdrawals (ledger.engine.enabled).
+ *
+ * Accounts are spread over ledger.engine.partitions single-threaded writers (EnginePartition) by account id.
+ * A posting is validated like the JPA path (account metadata, currency, status), then handed to the partition
+ * of the debited account (the credited one for deposits), which checks funds against its in-memory balance minus
+ * the account's held amount and appends the posting to its memory-mapped journal (LedgerJournal). The caller is answered once the journal is
+ * forced. The Transaction and LedgerEntry rows, balance postings, ledger events and idempotency keys are
+ * written to the database afterwards by the persister thread, in batches, together with each partition's
+ * persisted journal position (engine_checkpoints). On startup, journal records past that position are
+ * persisted before the engine accepts postings; an account's balance is then loaded from the database the
+ * first time a partition needs it.
+ *
+ * An Idempotency-Key is claimed in memory before its posting is submitted and looked up in the database after
+ * the claim, so a retry finds the first posting whether or not it is persisted yet. The claim is dropped once
+ * the key's row is committed.
+ *
+ * The same input produces the same transactions and ledger entries as TransactionService; a posting
+ * rejected for insufficient funds leaves nothing behind. Entry ids are assigned when the rows are persisted.
+ * While the engine is enabled it must be the only writer of ledger entries: new holds and captures, batch
+ * transfers, journals, imports and shard sweeps are refused (rejectWhileEnabled), sharded accounts are not
+ * supported, and balance reads see a posting once it is persisted.
+ */
+@Component
+public class LedgerEngine implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerEngine.class);
+
+    private record PersistBatch(EnginePartition partition, List<JournalRecord> records) {
+    }
+
+    private record KeyClaim(String fingerprint, CompletableFuture<Transaction> result) {
+    }
+
+    private final boolean enabled;
+    private final int partitionCount;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxBatch;
+    private final int queueCapacity;
+    private final int idBlockSize;
+    private final AccountMetadataCache metadataCache;
+    private final AccountShardingService shardingService;
+    private final BalanceService balanceService;
+    private final BalanceSnapshotService snapshotService;
+    private final IdReservations idReservations;
+    private final LedgerEventOutbox eventOutbox;
+    private final IdempotencyService idempotencyService;
+    private final AvailableBalanceIndex holdIndex;
+    private final EngineCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PersistBatch> persistQueue = new LinkedBlockingQueue<>();
+    private final AtomicLong persistBacklog = new AtomicLong();
+    // Idempotency keys of postings submitted but not yet persisted
+    private final Map<String, KeyClaim> pendingKeys = new ConcurrentHashMap<>();
+    private final Timer forceTimer;
+    private final DistributionSummary batchSizes;
+
+    private volatile List<EnginePartition> partitions = List.of();
+    private volatile boolean running;
+    private Thread persister;
+
+    public LedgerEngine(@Value("${ledger.engine.enabled:false}") boolean enabled,
+                        @Value("${ledger.engine.partitions:4}") int partitionCount,
+                        @Value("${ledger.engine.directory:./ledger-engine}") String directory,
+                        @Value("${ledger.engine.segment-size-mb:64}") int segmentSizeMb,
+                        @Value("${ledger.engine.max-batch:256}") int maxBatch,
+                        @Value("${ledger.engine.queue-capacity:10000}") int queueCapacity,
+                        @Value("${ledger.engine.id-block-size:1000}") int idBlockSize,
+                        AccountMetadataCache metadataCache,
+                        AccountShardingService shardingService,
+                        BalanceService balanceService,
+                        BalanceSnapshotService snapshotService,
+                        IdReservations idReservations,
+                        LedgerEventOutbox eventOutbox,
+                        IdempotencyService idempotencyService,
+                        AvailableBalanceIndex holdIndex,
+                        EngineCheckpointRepository checkpointRepository,
+                        JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.partitionCount = partitionCount;
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.maxBatch = maxBatch;
+        this.queueCapacity = queueCapacity;
+        this.idBlockSize = idBlockSize;
+        this.metadataCache = metadataCache;
+        this.shardingService = shardingService;
+        this.balanceService = balanceService;
+        this.snapshotService = snapshotService;
+        this.idReservations = idReservations;
+        this.eventOutbox = eventOutbox;
+        this.idempotencyService = idempotencyService;
+        this.holdIndex = holdIndex;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.forceTimer = Timer.builder("ledger.engine.journal.force")
+                .description("Journal fsyncs, one per partition batch").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("ledger.engine.batch.size")
+                .description("Postings made durable per journal fsync").register(meterRegistry);
+        Gauge.builder("ledger.engine.persist.backlog", persistBacklog, AtomicLong::get)
+                .description("Acknowledged postings not yet written to the database").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Called by the writers that bypass the engine: their entries would not reach the partitions' balances
+    public void rejectWhileEnabled(String operation) {
+        if (enabled) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    operation + " are not available while the ledger engine is enabled.");
+        }
+    }
+
+    public Transaction transfer(TransferRequest request) {
+        AccountMetadata source = find(request.getSourceAccountId(), "Source Account not found.");
+        AccountMetadata dest = find(request.getDestinationAccountId(), "Destination Account not found.");
+        if (!source.currency().equals(dest.currency())) {
+            throw new IllegalArgumentException("Currency mismatch.");
+        }
+        TransactionService.requireActive(source);
+        TransactionService.requireActive(dest);
+        return post(TransactionType.TRANSFER, source, dest, request.getAmount(), request.getDescription(),
+                request.getIdempotencyKey());
+    }
+
+    public Transaction withdraw(AmountRequest request) {
+        AccountMetadata source = find(request.getAccountId(), "Account not found.");
+        TransactionService.requireActive(source);
+        return post(TransactionType.WITHDRAWAL, source, null, request.getAmount(), request.getDescription(),
+                request.getIdempotencyKey());
+    }
+
+    public Transaction deposit(AmountRequest request) {
+        AccountMetadata dest = find(request.getAccountId(), "Account not found.");
+        TransactionService.requireActive(dest);
+        return post(TransactionType.DEPOSIT, null, dest, request.getAmount(), request.getDescription(),
+                request.getIdempotencyKey());
+    }
+
+    private Transaction post(TransactionType type, AccountMetadata source, AccountMetadata dest,
+                             BigDecimal amount, String description, IdempotencyKey idempotencyKey) {
+        if (!running) {
+            throw new IllegalStateException("Ledger engine is not running.");
+        }
+        Long sourceId = source != null ? source.id() : null;
+        Long destId = dest != null ? dest.id() : null;
+        // Every posting waits until its accounts are loaded, so a balance is never loaded from the database
+        // after a posting to that account was accepted (it could be counted twice once persisted)
+        ensureLoaded(sourceId);
+        ensureLoaded(destId);
+        CompletableFuture<Transaction> result = new CompletableFuture<>();
+        if (idempotencyKey != null) {
+            Transaction earlier = claim(idempotencyKey, result);
+            if (earlier != null) {
+                return earlier;
+            }
+        }
+        try {
+            EnginePartition partition = partitionFor(sourceId != null ? sourceId : destId);
+            partition.submit(new EnginePartition.Post(type, sourceId, destId, Money.toUnits(amount),
+                    (source != null ? source : dest).currency(), description, idempotencyKey, result));
+            return join(result);
+        } catch (RuntimeException e) {
+            // Nothing was posted: a retry with the same key runs again
+            if (idempotencyKey != null) {
+                pendingKeys.remove(idempotencyKey.value());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Claims the key for a new posting, or returns the transaction already posted with it. The database is read
+     * after the claim, so a key whose claim was dropped after its row committed is found there.
+     */
+    private Transaction claim(IdempotencyKey key, CompletableFuture<Transaction> result) {
+        KeyClaim claim = new KeyClaim(key.fingerprint(), result);
+        while (true) {
+            KeyClaim existing = pendingKeys.putIfAbsent(key.value(), claim);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.fingerprint().equals(key.fingerprint())) {
+                throw IdempotencyService.reused(key.value());
+            }
+            try {
+                return join(existing.result());
+            } catch (RuntimeException e) {
+                // The earlier posting failed and posted nothing
+                pendingKeys.remove(key.value(), existing);
+            }
+        }
+        try {
+            Transaction recorded = idempotencyService.findRecorded(key);
+            if (recorded != null) {
+                pendingKeys.remove(key.value(), claim);
+            }
+            return recorded;
+        } catch (RuntimeException e) {
+            pendingKeys.remove(key.value(), claim);
+            throw e;
+        }
+    }
+
+    private AccountMetadata find(Long accountId, String notFound) {
+        if (shardingService.isShard(accountId)) {
+            throw new IllegalArgumentException("Account " + accountId + " is an internal shard account.");
+        }
+        if (shardingService.isSharded(accountId)) {
+            throw new IllegalArgumentException("Account " + accountId + " is sharded; the ledger engine does not post to sharded accounts.");
+        }
+        return metadataCache.find(accountId).orElseThrow(() -> new NoSuchElementException(notFound));
+    }
+
+    private void ensureLoaded(Long accountId) {
+        if (accountId == null) {
+            return;
+        }
+        EnginePartition partition = partitionFor(accountId);
+        if (!partition.isLoaded(accountId)) {
+            join(partition.load(accountId));
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Partition callbacks
+
+    EnginePartition partitionFor(Long accountId) {
+        List<EnginePartition> current = partitions;
+        return current.get((int) Math.floorMod(accountId, (long) current.size()));
+    }
+
+    long loadBalance(Long accountId) {
+        return ReadRouting.callOnPrimary(() -> balanceService.getBalance(accountId)).units();
+    }
+
+    long loadHeld(Long accountId) {
+        return ReadRouting.callOnPrimary(() -> holdIndex.held(accountId)).units();
+    }
+
+    long[] reserveTransactionIds(int count) {
+        return idReservations.reserve("transactions", count);
+    }
+
+    void force(LedgerJournal journal, int records) {
+        forceTimer.record(journal::force);
+        batchSizes.record(records);
+    }
+
+    void persist(EnginePartition partition, List<JournalRecord> records) {
+        persistBacklog.addAndGet(records.size());
+        persistQueue.add(new PersistBatch(partition, records));
+    }
+
+    // Persister
+
+    private void runPersister() {
+        List<PersistBatch> batches = new ArrayList<>();
+        while (running || !persistQueue.isEmpty()) {
+            try {
+                PersistBatch first = persistQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batches.add(first);
+                persistQueue.drainTo(batches, maxBatch - 1);
+                Map<EnginePartition, List<JournalRecord>> byPartition = new LinkedHashMap<>();
+                int records = 0;
+                for (PersistBatch batch : batches) {
+                    byPartition.computeIfAbsent(batch.partition(), p -> new ArrayList<>()).addAll(batch.records());
+                    records += batch.records().size();
+                }
+                persistWithRetry(byPartition);
+                persistBacklog.addAndGet(-records);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batches.clear();
+            }
+        }
+    }
+
+    // The records are durable in the journal, so a failed write is retried until it succeeds (or, after a
+    // shutdown, by the recovery on the next start)
+    private void persistWithRetry(Map<EnginePartition, List<JournalRecord>> byPartition) throws InterruptedException {
+        long backoffMillis = 100;
+        while (true) {
+            try {
+                Map<Integer, List<JournalRecord>> records = new LinkedHashMap<>();
+                byPartition.forEach((partition, list) -> records.put(partition.id(), list));
+                persistRecords(records);
+                byPartition.forEach((partition, list) -> partition.journal().release(list.get(list.size() - 1).seq()));
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    logger.warn("Ledger engine rows not persisted at shutdown, they are recovered from the journal on restart: {}",
+                            e.getMessage());
+                    return;
+                }
+                logger.warn("Persisting ledger engine postings failed, retrying in {} ms: {}", backoffMillis, e.getMessage());
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, 5000);
+            }
+        }
+    }
+
+    // Writes the records' rows and each partition's new journal position in one database transaction
+    private void persistRecords(Map<Integer, List<JournalRecord>> recordsByPartition) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<JournalRecord> records = recordsByPartition.values().stream().flatMap(List::stream).toList();
+            int legs = 0;
+            LocalDateTime oldest = null;
+            for (JournalRecord record : records) {
+                if (oldest == null || record.createdAt().isBefore(oldest)) {
+                    oldest = record.createdAt();
+                }
+                if (record.status() == TransactionStatus.COMPLETED) {
+                    legs += (record.sourceAccountId() != null ? 1 : 0) + (record.destinationAccountId() != null ? 1 : 0);
+                }
+            }
+            long[] entryIds = idReservations.reserve("ledger_entries", legs);
+            int nextEntry = 0;
+            balanceService.beginPosting();
+            LocalDateTime postedAt = LocalDateTime.now();
+
+            List<Object[]> transactionRows = new ArrayList<>(records.size());
+            List<Object[]> entryRows = new ArrayList<>(legs);
+            Map<Long, Money> postings = new HashMap<>();
+            List<Runnable> afterInsert = new ArrayList<>();
+            List<String> committedKeys = new ArrayList<>();
+            for (JournalRecord record : records) {
+                Transaction transaction = toTransaction(record);
+                transactionRows.add(new Object[] {transaction.getId(), transaction.getType().name(),
+                        transaction.getSourceAccountId(), transaction.getDestinationAccountId(), transaction.getAmount(),
+                        transaction.getCurrency(), transaction.getStatus().name(), transaction.getDescription(),
+                        transaction.getCreatedAt(), postedAt});
+                if (record.status() != TransactionStatus.COMPLETED) {
+                    continue;
+                }
+                // Same legs, in the same order, as TransactionService
+                List<LedgerEntry> entries = new ArrayList<>(2);
+                if (record.sourceAccountId() != null) {
+                    entries.add(entry(entryIds[nextEntry++], record.sourceAccountId(), transaction, EntryType.DEBIT));
+                }
+                if (record.destinationAccountId() != null) {
+                    entries.add(entry(entryIds[nextEntry++], record.destinationAccountId(), transaction, EntryType.CREDIT));
+                }
+                for (LedgerEntry entry : entries) {
+                    entryRows.add(new Object[] {entry.getId(), entry.getAccountId(), entry.getTransactionId(),
+                            entry.getType().name(), entry.getAmount(), entry.getCreatedAt(), postedAt});
+                    postings.merge(entry.getAccountId(), entry.getSignedMoney(), Money::plus);
+                }
+                afterInsert.add(() -> eventOutbox.record(transaction, entries));
+                if (record.idempotencyKey() != null) {
+                    IdempotencyKey key = new IdempotencyKey(record.idempotencyKey(), record.idempotencyFingerprint());
+                    afterInsert.add(() -> idempotencyService.recordIfAbsent(key, transaction));
+                    committedKeys.add(record.idempotencyKey());
+                }
+            }
+            jdbcTemplate.batchUpdate(BulkImportService.INSERT_TRANSACTION, transactionRows);
+            jdbcTemplate.batchUpdate(BulkImportService.INSERT_ENTRY, entryRows);
+            postings.forEach(balanceService::recordPosting);
+            // Recovered postings can belong to days already snapshotted
+            snapshotService.invalidateFrom(oldest);
+            afterInsert.forEach(Runnable::run);
+            recordsByPartition.forEach((partition, list) ->
+                    checkpointRepository.save(new EngineCheckpoint(partition, list.get(list.size() - 1).seq())));
+            if (!committedKeys.isEmpty()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        committedKeys.forEach(pendingKeys::remove);
+                    }
+                });
+            }
+        });
+    }
+
+    static Transaction toTransaction(JournalRecord record) {
+        Transaction transaction = new Transaction();
+        transaction.setId(record.transactionId());
+        transaction.setType(record.type());
+        transaction.setSourceAccountId(record.sourceAccountId());
+        transaction.setDestinationAccountId(record.destinationAccountId());
+        transaction.setAmount(new Money(record.amountUnits()).toBigDecimal());
+        transaction.setCurrency(record.currency());
+        transaction.setStatus(record.status());
+        transaction.setDescription(record.description());
+        transaction.setCreatedAt(record.createdAt());
+        return transaction;
+    }
+
+    private static LedgerEntry entry(long id, Long accountId, Transaction transaction, EntryType type) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setId(id);
+        entry.setAccountId(accountId);
+        entry.setTransactionId(transaction.getId());
+        entry.setType(type);
+        entry.setAmount(transaction.getAmount());
+        entry.setCreatedAt(transaction.getCreatedAt());
+        return entry;
+    }
+
+    // Lifecycle
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Map<Integer, LedgerJournal> journals = recover();
+            List<EnginePartition> created = new ArrayList<>(partitionCount);
+            for (int i = 0; i < partitionCount; i++) {
+                LedgerJournal journal = journals.containsKey(i) ? journals.get(i) : openJournal(i);
+                created.add(new EnginePartition(i, this, journal, maxBatch, queueCapacity, idBlockSize));
+            }
+            partitions = List.copyOf(created);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the ledger engine journals in " + directory, e);
+        }
+        running = true;
+        persister = new Thread(this::runPersister, "ledger-engine-persister");
+        persister.start();
+        partitions.forEach(EnginePartition::start);
+        logger.info("Ledger engine started with {} partitions", partitionCount);
+    }
+
+    // Persists the journal records of every partition directory (also of partitions no longer configured)
+    private Map<Integer, LedgerJournal> recover() throws IOException {
+        Map<Integer, LedgerJournal> journals = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return journals;
+        }
+        List<Integer> ids;
+        try (Stream<Path> listing = Files.list(directory)) {
+            ids = listing.map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches("partition-\\d+"))
+                    .map(name -> Integer.parseInt(name.substring("partition-".length())))
+                    .sorted().toList();
+        }
+        for (Integer id : ids) {
+            long persistedSeq = checkpointRepository.findById(id).map(EngineCheckpoint::getPersistedSeq).orElse(0L);
+            LedgerJournal journal = new LedgerJournal(directory.resolve("partition-" + id), segmentSize);
+            List<JournalRecord> pending = journal.recover(persistedSeq);
+            for (int from = 0; from < pending.size(); from += maxBatch) {
+                persistRecords(Map.of(id, pending.subList(from, Math.min(from + maxBatch, pending.size()))));
+            }
+            if (!pending.isEmpty()) {
+                journal.release(pending.get(pending.size() - 1).seq());
+                logger.info("Recovered {} ledger engine postings of partition {} from its journal", pending.size(), id);
+            }
+            journals.put(id, journal);
+        }
+        return journals;
+    }
+
+    // A partition without a journal directory continues after its checkpoint, if it has one
+    private LedgerJournal openJournal(int id) throws IOException {
+        long persistedSeq = checkpointRepository.findById(id).map(EngineCheckpoint::getPersistedSeq).orElse(0L);
+        LedgerJournal journal = new LedgerJournal(directory.resolve("partition-" + id), segmentSize);
+        journal.recover(persistedSeq);
+        return journal;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        // Partitions first: their last batches are forced and queued for the persister, which then drains
+        partitions.forEach(EnginePartition::stop);
+        running = false;
+        if (persister != null) {
+            try {
+                persister.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            persister = null;
+        }
+        partitions.forEach(partition -> partition.journal().close());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
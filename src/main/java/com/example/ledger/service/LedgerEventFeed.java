@@ -0,0 +1,177 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.LedgerEvent;
+import com.example.ledger.dto.LedgerEventPage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read side of the ledger event log: pages from an offset, long polls and server-sent event streams.
+ *
+ * Waiting consumers hold no thread. Long polls are DeferredResults completed when events past their offset
+ * are appended (or with an empty page when the wait ends); streams are SseEmitters. Both are served by one
+ * dispatcher thread, woken by LedgerEventPublisher after each append, which also sends a keep-alive comment
+ * to idle streams every heartbeat-ms.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.events.publisher.enabled", havingValue = "true")
+public class LedgerEventFeed {
+
+    private final LedgerEventSink sink;
+    private final int maxBatch;
+    private final long streamTimeoutMillis;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dispatchPending = new AtomicBoolean();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-event-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LedgerEventFeed(LedgerEventSink sink,
+                           @Value("${ledger.events.max-batch:1000}") int maxBatch,
+                           @Value("${ledger.events.stream-timeout-ms:600000}") long streamTimeoutMillis,
+                           @Value("${ledger.events.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.sink = sink;
+        this.maxBatch = maxBatch;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public LedgerEventPage read(long from, int max) {
+        List<LedgerEvent> events = sink.read(from, Math.min(max, maxBatch));
+        long next = events.isEmpty() ? from : events.get(events.size() - 1).offset() + 1;
+        return new LedgerEventPage(events, next);
+    }
+
+    // The events from the offset, waiting up to waitMillis for the first one to be appended
+    public DeferredResult<LedgerEventPage> poll(long from, int max, long waitMillis) {
+        LedgerEventPage page = read(from, max);
+        if (!page.getEvents().isEmpty() || waitMillis <= 0) {
+            DeferredResult<LedgerEventPage> result = new DeferredResult<>();
+            result.setResult(page);
+            return result;
+        }
+        DeferredResult<LedgerEventPage> result = new DeferredResult<>(waitMillis, () -> page);
+        Waiter waiter = new Waiter(from, max, result);
+        synchronized (waiters) {
+            waiters.add(waiter);
+        }
+        result.onCompletion(() -> {
+            synchronized (waiters) {
+                waiters.remove(waiter);
+            }
+        });
+        // An append between the read above and the registration would not wake this waiter
+        if (sink.endOffset() > from) {
+            appended();
+        }
+        return result;
+    }
+
+    // A stream of the events from the offset on, as server-sent events with the offset as id
+    public SseEmitter subscribe(long from) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, from);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        dispatcher.execute(() -> push(subscriber));
+        return emitter;
+    }
+
+    // Called after each append; wakeups that arrive while one is queued are coalesced
+    void appended() {
+        if (dispatchPending.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                dispatchPending.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void dispatch() {
+        long end = sink.endOffset();
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (waiters) {
+            for (Waiter waiter : waiters) {
+                if (waiter.from < end) {
+                    ready.add(waiter);
+                }
+            }
+        }
+        for (Waiter waiter : ready) {
+            waiter.result.setResult(read(waiter.from, waiter.max));
+        }
+        for (Subscriber subscriber : subscribers) {
+            push(subscriber);
+        }
+    }
+
+    // Sends the subscriber everything it has not seen yet; runs on the dispatcher thread only
+    private void push(Subscriber subscriber) {
+        try {
+            while (true) {
+                List<LedgerEvent> events = sink.read(subscriber.next, maxBatch);
+                if (events.isEmpty()) {
+                    return;
+                }
+                for (LedgerEvent event : events) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.offset()))
+                            .name("ledger")
+                            .data(event.event(), MediaType.APPLICATION_JSON));
+                    subscriber.next = event.offset() + 1;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter completed
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private record Waiter(long from, int max, DeferredResult<LedgerEventPage> result) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private long next;
+
+        private Subscriber(SseEmitter emitter, long next) {
+            this.emitter = emitter;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.OutboxEvent;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Write side of the ledger event stream: every completed transaction is stored in ledger_outbox, with its
+ * legs, in the database transaction that posts it. An event is therefore written if and only if its posting
+ * commits, and LedgerEventPublisher moves it to the event log afterwards.
+ *
+ * Does nothing unless ledger.events.enabled is set.
+ */
+@Component
+public class LedgerEventOutbox {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public LedgerEventOutbox(OutboxEventRepository outboxRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${ledger.events.enabled:false}") boolean enabled) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Called inside the posting's database transaction, once the transaction and its entries have ids
+    public void record(Transaction transaction, List<LedgerEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(new Event(transaction, entries));
+            outboxRepository.save(new OutboxEvent(transaction.getId(), payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize ledger event of transaction " + transaction.getId(), e);
+        }
+    }
+
+    record Event(Transaction transaction, List<LedgerEntry> entries) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.OutboxEvent;
+import com.example.ledger.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Drains ledger_outbox into the LedgerEventSink in batches of ledger.events.batch-size, oldest first, and wakes
+ * up the consumers waiting in LedgerEventFeed. Each batch is appended (and made durable) before its outbox rows
+ * are deleted, so delivery is at-least-once: if the instance stops in between, the batch is appended again on
+ * restart. Consumers that must not apply an event twice skip transaction ids they have already seen.
+ *
+ * Enable it on one instance only (ledger.events.publisher.enabled); every instance writes the outbox.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.events.publisher.enabled", havingValue = "true")
+public class LedgerEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerEventPublisher.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final LedgerEventSink sink;
+    private final LedgerEventFeed feed;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter published;
+
+    public LedgerEventPublisher(OutboxEventRepository outboxRepository,
+                                LedgerEventSink sink,
+                                LedgerEventFeed feed,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${ledger.events.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.feed = feed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.published = Counter.builder("ledger.events.published")
+                .description("Ledger events moved from the outbox to the event log").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.events.publish-interval-ms:100}")
+    public void run() {
+        try {
+            publishPending();
+        } catch (RuntimeException e) {
+            // The outbox rows of the failed batch are kept and published next time
+            logger.warn("Publishing ledger events failed: {}", e.getMessage());
+        }
+    }
+
+    // Publishes everything in the outbox; returns the number of events appended
+    public synchronized int publishPending() {
+        int total = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxRepository.findAllByOrderById(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            sink.append(batch.stream().map(OutboxEvent::getPayload).toList());
+            List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteByIds(ids));
+            published.increment(batch.size());
+            total += batch.size();
+            feed.appended();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.LedgerEvent;
+
+import java.util.List;
+
+/**
+ * Where LedgerEventPublisher appends the ledger events drained from the outbox, and where consumers read them
+ * back from an offset. Offsets are assigned by the sink: 0, 1, 2, ... in append order.
+ *
+ * FileLedgerEventLog is the default (ledger.events.sink=file); another sink is plugged in as a bean of this type
+ * with a different ledger.events.sink value.
+ */
+public interface LedgerEventSink {
+
+    // Appends the events in order and returns the offset of the first; they are durable once this returns
+    long append(List<String> events);
+
+    // At most max events starting at offset from; empty when from is at or past the end
+    List<LedgerEvent> read(long from, int max);
+
+    // The offset the next appended event gets, i.e. the number of events in the log
+    long endOffset();
+}
@@ -0,0 +1,184 @@
+package com.example.ledger.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of one ledger engine partition: memory-mapped segment files of segment-size bytes,
+ * named after the sequence number of their first record.
+ *
+ * A record is [payload length][CRC32C of the payload][payload]; a zero length marks the end of the written part
+ * of a segment (segments are zero-filled when created). The partition appends a batch of records and then
+ * calls force() once, so one fsync covers the batch. Recovery reads every segment and stops at the first
+ * record that is incomplete or fails its checksum, which is where the next append goes.
+ *
+ * Appends and force() are called by the partition's thread only; release() by the persister.
+ */
+final class LedgerJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerJournal.class);
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment current;
+    private long nextSeq = 1;
+
+    LedgerJournal(Path directory, int segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Reads every complete record, oldest first, and positions the journal after the last one. Records at or
+     * below afterSeq are skipped (they are already persisted).
+     */
+    List<JournalRecord> recover(long afterSeq) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().matches("journal-\\d+\\.log")).sorted().toList();
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        for (Path file : files) {
+            Segment segment = Segment.open(file, firstSeq(file), segmentSize);
+            segments.add(segment);
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.position(0);
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                if (checksum != checksum(payload)) {
+                    logger.warn("Journal {} ends with a torn record at {}", file.getFileName(), start);
+                    buffer.position(start);
+                    break;
+                }
+                JournalRecord record = JournalRecord.readFrom(payload);
+                buffer.position(buffer.position() + length);
+                nextSeq = record.seq() + 1;
+                if (record.seq() > afterSeq) {
+                    records.add(record);
+                }
+            }
+        }
+        if (!segments.isEmpty()) {
+            current = segments.get(segments.size() - 1);
+            // Clear whatever a torn append left behind, so that it cannot be read as a record later
+            MappedByteBuffer buffer = current.buffer;
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+        nextSeq = Math.max(nextSeq, afterSeq + 1);
+        return records;
+    }
+
+    long nextSeq() {
+        return nextSeq;
+    }
+
+    // Appends the record, whose seq must be nextSeq(); durable after the next force()
+    void append(JournalRecord record) throws IOException {
+        if (record.seq() != nextSeq) {
+            throw new IllegalArgumentException("Expected journal record " + nextSeq + ", got " + record.seq());
+        }
+        int maxSize = HEADER_SIZE + record.maxSize();
+        if (maxSize > segmentSize) {
+            throw new IllegalArgumentException("Journal record " + record.seq() + " is larger than a segment");
+        }
+        if (current == null || current.buffer.remaining() < maxSize) {
+            roll(record.seq());
+        }
+        MappedByteBuffer buffer = current.buffer;
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        record.writeTo(buffer);
+        int length = buffer.position() - start - HEADER_SIZE;
+        buffer.putInt(start + Integer.BYTES, checksum(buffer.slice(start + HEADER_SIZE, length)));
+        // The length goes last: a record is not visible to recovery before it is complete
+        buffer.putInt(start, length);
+        nextSeq++;
+    }
+
+    void force() {
+        if (current != null) {
+            current.buffer.force();
+        }
+    }
+
+    // Deletes the segments whose records are all at or below persistedSeq, except the one being written
+    void release(long persistedSeq) {
+        List<Segment> released = new ArrayList<>();
+        synchronized (segments) {
+            while (segments.size() > 1 && segments.get(1).firstSeq - 1 <= persistedSeq) {
+                released.add(segments.remove(0));
+            }
+        }
+        for (Segment segment : released) {
+            try {
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                logger.warn("Cannot delete journal segment {}: {}", segment.file, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private void roll(long firstSeq) throws IOException {
+        force();
+        Segment segment = Segment.open(directory.resolve(String.format("journal-%020d.log", firstSeq)), firstSeq, segmentSize);
+        synchronized (segments) {
+            segments.add(segment);
+        }
+        current = segment;
+    }
+
+    private static long firstSeq(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private record Segment(Path file, long firstSeq, MappedByteBuffer buffer) {
+
+        static Segment open(Path file, long firstSeq, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Mapping beyond the end of the file extends it with zeros; the mapping outlives the channel. A segment
+                // written with a larger segment-size keeps its size.
+                long length = Math.max(size, channel.size());
+                return new Segment(file, firstSeq, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+            }
+        }
+    }
+}
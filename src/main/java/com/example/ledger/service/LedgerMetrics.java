@@ -0,0 +1,165 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the write path, so a slow request can be attributed to lock waits, balance reads,
+ * entry persistence or the commit (where the batched INSERTs are actually flushed).
+ *
+ * Also listens to every transaction run by the transaction manager (commit time, rollbacks) and to
+ * the lock retries of {@link RetryOnLockFailure} and BatchTransferService.
+ */
+@Component
+public class LedgerMetrics implements TransactionExecutionListener, RetryListener {
+
+    private final MeterRegistry registry;
+    private final Timer lockAcquire;
+    private final Timer balanceFromCheckpoint;
+    private final Timer balanceFullSum;
+    private final Timer entriesPersist;
+    private final Counter lockRetries;
+    private final Counter lockRetriesExhausted;
+    private final Counter lockConflicts;
+    private final Counter rollbacks;
+    // ledger.transaction.commit by [read_only][outcome failed]
+    private final Timer[][] commitTimers = new Timer[2][2];
+    private final Map<OperationKey, Timer> operationTimers = new ConcurrentHashMap<>();
+    // Commit start times; a commit can run another transaction from its synchronizations, hence a stack
+    private final ThreadLocal<Deque<Long>> commitStarts = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public LedgerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.lockAcquire = Timer.builder("ledger.lock.acquire")
+                .description("Time to acquire pessimistic account row locks, including waits on other holders")
+                .register(registry);
+        this.balanceFromCheckpoint = balanceTimer("checkpoint");
+        this.balanceFullSum = balanceTimer("full");
+        this.entriesPersist = Timer.builder("ledger.entries.persist")
+                .description("Time to hand ledger entries to the persistence context (id allocation included)")
+                .register(registry);
+        this.lockRetries = Counter.builder("ledger.lock.retries")
+                .description("Attempts that failed on a lock timeout or deadlock")
+                .register(registry);
+        this.lockRetriesExhausted = Counter.builder("ledger.lock.retries.exhausted")
+                .description("Operations that still failed on a lock after the last attempt")
+                .register(registry);
+        this.lockConflicts = Counter.builder("ledger.lock.conflicts")
+                .description("Attempts that failed their version check under the optimistic locking strategy")
+                .register(registry);
+        this.rollbacks = Counter.builder("ledger.transactions.rollbacks")
+                .description("Database transactions rolled back")
+                .register(registry);
+        for (int readOnly = 0; readOnly < 2; readOnly++) {
+            for (int failed = 0; failed < 2; failed++) {
+                commitTimers[readOnly][failed] = Timer.builder("ledger.transaction.commit")
+                        .description("Flush and commit of database transactions")
+                        .tags("read_only", String.valueOf(readOnly == 1), "outcome", failed == 1 ? "failed" : "committed")
+                        .register(registry);
+            }
+        }
+    }
+
+    private record OperationKey(String operation, String outcome) {
+    }
+
+    private Timer balanceTimer(String source) {
+        return Timer.builder("ledger.balance.compute")
+                .description("Balance loads from the database (cache misses)")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    /**
+     * Times one transfer/deposit/withdrawal end to end (retries and commit included) and tags it with
+     * its outcome: completed, insufficient_funds or failed.
+     */
+    public Transaction recordOperation(String operation, Supplier<Transaction> call) {
+        long start = System.nanoTime();
+        String outcome = "failed";
+        try {
+            Transaction transaction = call.get();
+            if (transaction.getStatus() == TransactionStatus.COMPLETED) {
+                outcome = "completed";
+            }
+            return transaction;
+        } catch (InsufficientBalanceException e) {
+            outcome = "insufficient_funds";
+            throw e;
+        } finally {
+            operationTimers.computeIfAbsent(new OperationKey(operation, outcome), key -> Timer.builder("ledger.operation")
+                            .description("Ledger operations by outcome")
+                            .tags("operation", key.operation(), "outcome", key.outcome())
+                            .register(registry))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public Timer lockAcquire() {
+        return lockAcquire;
+    }
+
+    public Timer balanceCompute(boolean fromCheckpoint) {
+        return fromCheckpoint ? balanceFromCheckpoint : balanceFullSum;
+    }
+
+    public Timer entriesPersist() {
+        return entriesPersist;
+    }
+
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        commitStarts.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        Long start = commitStarts.get().poll();
+        if (start == null) {
+            return;
+        }
+        commitTimers[transaction.isReadOnly() ? 1 : 0][commitFailure == null ? 0 : 1]
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        rollbacks.increment();
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (throwable instanceof PessimisticLockingFailureException) {
+            lockRetries.increment();
+        } else if (throwable instanceof OptimisticLockingFailureException) {
+            lockConflicts.increment();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (throwable instanceof PessimisticLockingFailureException
+                || throwable instanceof OptimisticLockingFailureException) {
+            lockRetriesExhausted.increment();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.example.ledger.model.Money;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable archive segment: the ledger entries of one closed period, sorted by (account_id, created_at, id).
+ *
+ * Layout: a 32-byte header (magic, version, row count, index size), then one column of longs per field
+ * (id, account_id, transaction_id, created_at in epoch microseconds, signed amount in Money units; the sign
+ * is the entry type), then a sparse index of (account_id, row) pairs for every INDEX_INTERVAL-th row.
+ * Each column is memory-mapped on its own, so a lookup touches the index (on the heap) and then one
+ * contiguous stretch of each column.
+ */
+final class LedgerSegment {
+
+    static final int MAGIC = 0x4C534547; // "LSEG"
+    static final int VERSION = 1;
+    static final int INDEX_INTERVAL = 1024;
+
+    private static final int HEADER_BYTES = 32;
+    private static final int ID = 0, ACCOUNT_ID = 1, TRANSACTION_ID = 2, CREATED_AT = 3, AMOUNT = 4, COLUMNS = 5;
+    // A column is mapped as one buffer
+    private static final int MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+
+    private final LongBuffer[] columns;
+    private final long[] indexKeys;
+    private final int[] indexRows;
+    private final int rows;
+
+    private LedgerSegment(LongBuffer[] columns, long[] indexKeys, int[] indexRows, int rows) {
+        this.columns = columns;
+        this.indexKeys = indexKeys;
+        this.indexRows = indexRows;
+        this.rows = rows;
+    }
+
+    static LedgerSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " ledger segment: " + path);
+            }
+            int rows = header.getInt(8);
+            int indexSize = header.getInt(12);
+
+            // Mappings stay valid after the channel is closed
+            long offset = HEADER_BYTES;
+            LongBuffer[] columns = new LongBuffer[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                columns[column] = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rows * Long.BYTES).asLongBuffer();
+                offset += (long) rows * Long.BYTES;
+            }
+            LongBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) indexSize * 2 * Long.BYTES).asLongBuffer();
+            long[] indexKeys = new long[indexSize];
+            int[] indexRows = new int[indexSize];
+            for (int i = 0; i < indexSize; i++) {
+                indexKeys[i] = index.get(2 * i);
+                indexRows[i] = (int) index.get(2 * i + 1);
+            }
+            return new LedgerSegment(columns, indexKeys, indexRows, rows);
+        }
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    // The account's entries in (created_at, id) order, strictly after the position (null: from its first entry)
+    Iterator<LedgerEntry> entries(long accountId, LocalDateTime afterCreatedAt, Long afterId) {
+        int start = lowerBound(accountId);
+        int end = lowerBound(accountId + 1);
+        if (afterCreatedAt != null) {
+            start = firstAfter(start, end, toMicros(afterCreatedAt), afterId);
+        }
+        int first = start;
+        return new Iterator<>() {
+            private int row = first;
+
+            @Override
+            public boolean hasNext() {
+                return row < end;
+            }
+
+            @Override
+            public LedgerEntry next() {
+                if (row >= end) {
+                    throw new NoSuchElementException();
+                }
+                return entryAt(row++);
+            }
+        };
+    }
+
+    // First row whose account_id >= accountId: the sparse index narrows the search to one interval
+    private int lowerBound(long accountId) {
+        int lo = 0;
+        int hi = indexKeys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (indexKeys[mid] < accountId) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        // Index entries lo - 1 (< accountId) and lo (>= accountId) bound the row
+        int from = lo == 0 ? 0 : indexRows[lo - 1];
+        int to = lo == indexKeys.length ? rows : indexRows[lo];
+        LongBuffer accounts = columns[ACCOUNT_ID];
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (accounts.get(mid) < accountId) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private int firstAfter(int from, int to, long createdAtMicros, long id) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            long createdAt = columns[CREATED_AT].get(mid);
+            if (createdAt < createdAtMicros || (createdAt == createdAtMicros && columns[ID].get(mid) <= id)) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private LedgerEntry entryAt(int row) {
+        long units = columns[AMOUNT].get(row);
+        LedgerEntry entry = new LedgerEntry();
+        entry.setId(columns[ID].get(row));
+        entry.setAccountId(columns[ACCOUNT_ID].get(row));
+        entry.setTransactionId(columns[TRANSACTION_ID].get(row));
+        entry.setType(units < 0 ? EntryType.DEBIT : EntryType.CREDIT);
+        entry.setAmount(new Money(Math.abs(units)).toBigDecimal());
+        entry.setCreatedAt(fromMicros(columns[CREATED_AT].get(row)));
+        return entry;
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Writes a segment from entries appended in (account_id, created_at, id) order. Columns are spooled to
+     * temporary files and assembled on finish(); the segment appears under its final name atomically.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path[] spoolFiles = new Path[COLUMNS];
+        private final DataOutputStream[] spools = new DataOutputStream[COLUMNS];
+        private final List<long[]> index = new ArrayList<>();
+        private int rows;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            for (int column = 0; column < COLUMNS; column++) {
+                spoolFiles[column] = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".col");
+                spools[column] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spoolFiles[column]), 1 << 16));
+            }
+        }
+
+        void append(LedgerEntry entry) throws IOException {
+            if (rows == MAX_ROWS) {
+                throw new IOException("Segment " + target + " exceeds " + MAX_ROWS + " entries");
+            }
+            if (rows % INDEX_INTERVAL == 0) {
+                index.add(new long[] {entry.getAccountId(), rows});
+            }
+            spools[ID].writeLong(entry.getId());
+            spools[ACCOUNT_ID].writeLong(entry.getAccountId());
+            spools[TRANSACTION_ID].writeLong(entry.getTransactionId());
+            spools[CREATED_AT].writeLong(toMicros(entry.getCreatedAt()));
+            spools[AMOUNT].writeLong(entry.getSignedMoney().units());
+            rows++;
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        void finish() throws IOException {
+            for (DataOutputStream spool : spools) {
+                spool.close();
+            }
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(index.size()).rewind();
+                writeFully(out, header);
+                for (Path spoolFile : spoolFiles) {
+                    try (FileChannel in = FileChannel.open(spoolFile, StandardOpenOption.READ)) {
+                        long position = 0;
+                        while (position < in.size()) {
+                            position += in.transferTo(position, in.size() - position, out);
+                        }
+                    }
+                }
+                ByteBuffer indexBuffer = ByteBuffer.allocate(index.size() * 2 * Long.BYTES);
+                for (long[] pair : index) {
+                    indexBuffer.putLong(pair[0]).putLong(pair[1]);
+                }
+                indexBuffer.rewind();
+                writeFully(out, indexBuffer);
+                out.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (int column = 0; column < COLUMNS; column++) {
+                spools[column].close();
+                Files.deleteIfExists(spoolFiles[column]);
+            }
+        }
+
+        private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Money;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Balance deltas posted by the current database transaction. Bound to the transaction as a
+ * synchronization resource; releases the cache pins once the transaction completes and applies
+ * the deltas only on commit.
+ */
+class PendingPostings implements TransactionSynchronization {
+
+    private record Posting(Long accountId, Money delta) {
+    }
+
+    private final BalanceCache balanceCache;
+    private final List<Posting> postings = new ArrayList<>();
+
+    PendingPostings(BalanceCache balanceCache) {
+        this.balanceCache = balanceCache;
+    }
+
+    void add(Long accountId, Money delta) {
+        balanceCache.begin(accountId);
+        postings.add(new Posting(accountId, delta));
+    }
+
+    // Position to roll back to if the enclosing savepoint is rolled back
+    int mark() {
+        return postings.size();
+    }
+
+    // Releases the pins of postings made after the mark without applying their deltas
+    void rollbackTo(int mark) {
+        List<Posting> discarded = postings.subList(mark, postings.size());
+        for (Posting posting : discarded) {
+            balanceCache.complete(posting.accountId(), posting.delta(), false);
+        }
+        discarded.clear();
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(PendingPostings.class);
+        boolean committed = status == STATUS_COMMITTED;
+        for (Posting posting : postings) {
+            balanceCache.complete(posting.accountId(), posting.delta(), committed);
+        }
+        postings.clear();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ledger.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Bound to a database transaction that writes ledger entries. Rolls it back instead of committing it once its
+ * first posting is older than the deadline, so entries cannot become visible long after their posted_at
+ * (checkpoints and reconciliation runs only cover rows posted up to a settled point in time, see
+ * BalanceService.settledThrough).
+ */
+class PostingDeadline implements TransactionSynchronization {
+
+    private final long startedAt = System.nanoTime();
+    private final long deadlineNanos;
+
+    PostingDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        if (System.nanoTime() - startedAt > deadlineNanos) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Ledger entries were not committed in time and have been rolled back.");
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(PostingDeadline.class);
+    }
+}
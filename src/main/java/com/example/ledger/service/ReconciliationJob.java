@@ -0,0 +1,37 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exception.ReconciliationInProgressException;
+import com.example.ledger.model.ReconciliationRun;
+import com.example.ledger.model.ReconciliationRun.RunMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Scheduled incremental reconciliation (ledger.reconciliation.cron, off by default); enable it on one instance only.
+@Component
+public class ReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationJob.class);
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationJob(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @Scheduled(cron = "${ledger.reconciliation.cron:-}")
+    public void run() {
+        try {
+            ReconciliationRun run = reconciliationService.reconcile(RunMode.INCREMENTAL);
+            if (!run.isBalanced()) {
+                logger.error("Reconciliation run {} found {} mismatches", run.getId(), run.getMismatches());
+            }
+        } catch (ReconciliationInProgressException e) {
+            logger.info("Skipping scheduled reconciliation: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            // The run stays RUNNING and is resumed next time
+            logger.warn("Reconciliation failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exception.ReconciliationInProgressException;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.ReconciliationMismatch;
+import com.example.ledger.model.ReconciliationMismatch.MismatchKind;
+import com.example.ledger.model.ReconciliationRange;
+import com.example.ledger.model.ReconciliationRun;
+import com.example.ledger.model.ReconciliationRun.RunMode;
+import com.example.ledger.model.ReconciliationRun.RunStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.example.ledger.repository.ArchiveSegmentRepository;
+import com.example.ledger.repository.ReconciliationMismatchRepository;
+import com.example.ledger.repository.ReconciliationRangeRepository;
+import com.example.ledger.repository.ReconciliationRunRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Proves the double-entry invariants over the whole ledger without per-account balance queries.
+ *
+ * A run covers a range of transaction ids, split into fixed-size slices that are reconciled in parallel
+ * on a fork/join pool. Each slice streams its transactions joined with their ledger entries through a
+ * forward-only cursor (read-only, so it goes to the replica when routing is enabled) and checks every
+ * transaction against its type: transfers and captures debit and credit the amount, deposits only
+ * credit it, withdrawals only debit it. Slicing by transaction id rather than entry id keeps all legs of
+ * a transaction in one slice, so a slice's result is final.
+ *
+ * Transactions of archived periods (see LedgerArchiveService) no longer have entries in ledger_entries; they
+ * are counted but not checked, as their entries were balanced into the opening balances when archived.
+ *
+ * Completed slices are stored with their totals and mismatches: an interrupted run is resumed by the next
+ * call and skips them.
+ *
+ * Ids come from per-instance blocks and are not in commit order, so runs are delimited by posted_at, the time
+ * a transaction's row was written: a run covers the transactions posted in [postedFrom, postedUntil), and its
+ * slices span the ids found in that window. postedUntil is BalanceService.settledThrough(): a transaction
+ * posted before it has committed or been rolled back, so none can appear behind a completed run. An
+ * incremental run starts where the last completed run ended.
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationService.class);
+
+    // Mismatches stored per slice; further ones are only counted
+    private static final int MAX_RECORDED_MISMATCHES = 1000;
+
+    private static final String RANGE_QUERY = """
+        SELECT t.id, t.type, t.status, t.amount, t.currency, e.account_id, e.type, e.amount, a.currency, t.created_at
+        FROM transactions t
+        LEFT JOIN ledger_entries e ON e.transaction_id = t.id
+        LEFT JOIN accounts a ON a.id = e.account_id
+        WHERE t.id > ? AND t.id <= ? AND t.posted_at >= ? AND t.posted_at < ?
+        ORDER BY t.id
+        """;
+
+    // Ids of the transactions posted in a run's window
+    private static final String ID_SPAN = """
+        SELECT MIN(id), MAX(id) FROM transactions WHERE posted_at >= ? AND posted_at < ?
+        """;
+
+    // Lower bound of a FULL run's window: before any posted_at
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationRangeRepository rangeRepository;
+    private final ReconciliationMismatchRepository mismatchRepository;
+    private final ArchiveSegmentRepository segmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final BalanceService balanceService;
+    private final long rangeSize;
+    private final int parallelism;
+    private final int fetchSize;
+    private final Timer rangeTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReconciliationService(ReconciliationRunRepository runRepository,
+                                 ReconciliationRangeRepository rangeRepository,
+                                 ReconciliationMismatchRepository mismatchRepository,
+                                 ArchiveSegmentRepository segmentRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 BalanceService balanceService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${ledger.reconciliation.range-size:100000}") long rangeSize,
+                                 @Value("${ledger.reconciliation.parallelism:2}") int parallelism,
+                                 @Value("${ledger.reconciliation.fetch-size:1000}") int fetchSize) {
+        this.runRepository = runRepository;
+        this.rangeRepository = rangeRepository;
+        this.mismatchRepository = mismatchRepository;
+        this.segmentRepository = segmentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.balanceService = balanceService;
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+        this.fetchSize = fetchSize;
+        this.rangeTimer = Timer.builder("ledger.reconciliation.range")
+                .description("Reconciliation of one slice of transaction ids")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resumes the unfinished run if there is one, otherwise starts a new run: over all transactions
+     * (FULL) or those after the last completed run (INCREMENTAL). Returns the completed run.
+     */
+    public ReconciliationRun reconcile(RunMode mode) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ReconciliationInProgressException("A reconciliation run is already in progress.");
+        }
+        try {
+            ReconciliationRun run = runRepository.findFirstByStatusOrderByIdDesc(RunStatus.RUNNING)
+                    .orElseGet(() -> startRun(mode));
+            return complete(run);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public ReconciliationRun getRun(Long runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new NoSuchElementException("Reconciliation run not found with ID: " + runId));
+    }
+
+    public List<ReconciliationMismatch> getMismatches(Long runId, int limit) {
+        return mismatchRepository.findByRunIdOrderById(runId, Limit.of(limit));
+    }
+
+    private ReconciliationRun startRun(RunMode mode) {
+        LocalDateTime from = mode == RunMode.FULL ? null : runRepository.findMaxPostedUntil(RunStatus.COMPLETED);
+        // posted_at is taken when the row is written but the row is visible at commit: transactions posted
+        // after the settled point may still be in flight
+        LocalDateTime until = balanceService.settledThrough();
+        if (from != null && until.isBefore(from)) {
+            until = from;
+        }
+        LocalDateTime lower = from != null ? from : BEGINNING;
+        long[] span = jdbcTemplate.queryForObject(ID_SPAN, (rs, row) -> new long[] {rs.getLong(1), rs.getLong(2)},
+                lower, until);
+
+        ReconciliationRun run = new ReconciliationRun();
+        run.setMode(mode);
+        run.setPostedFrom(from);
+        run.setPostedUntil(until);
+        // Slices cover (fromTransactionId, toTransactionId]; an empty window has no ids (MIN and MAX are 0)
+        run.setFromTransactionId(Math.max(0, span[0] - 1));
+        run.setToTransactionId(span[1]);
+        return runRepository.save(run);
+    }
+
+    private ReconciliationRun complete(ReconciliationRun run) {
+        Set<Long> done = rangeRepository.findByRunId(run.getId()).stream()
+                .map(ReconciliationRange::getFromId)
+                .collect(Collectors.toSet());
+        List<ReconciliationRange> pending = new ArrayList<>();
+        // Slice boundaries are multiples of rangeSize, so a resumed run plans the same slices
+        long from = run.getFromTransactionId();
+        while (from < run.getToTransactionId()) {
+            long to = Math.min((from / rangeSize + 1) * rangeSize, run.getToTransactionId());
+            if (!done.contains(from)) {
+                pending.add(new ReconciliationRange(run.getId(), from, to));
+            }
+            from = to;
+        }
+        logger.info("Reconciliation run {} ({}): transactions posted in [{}, {}), ids ({}, {}], {} of {} slices to do",
+                run.getId(), run.getMode(), run.getPostedFrom(), run.getPostedUntil(), run.getFromTransactionId(),
+                run.getToTransactionId(), pending.size(), pending.size() + done.size());
+
+        if (!pending.isEmpty()) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new RangeTask(run, pending));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        // Totals over every slice of the run, including those completed before a resume
+        List<ReconciliationRange> ranges = rangeRepository.findByRunId(run.getId());
+        run.setTransactions(ranges.stream().mapToLong(ReconciliationRange::getTransactions).sum());
+        run.setEntries(ranges.stream().mapToLong(ReconciliationRange::getEntries).sum());
+        run.setMismatches(ranges.stream().mapToLong(ReconciliationRange::getMismatches).sum());
+        run.setDebits(sum(ranges, ReconciliationRange::getDebits));
+        run.setCredits(sum(ranges, ReconciliationRange::getCredits));
+        run.setDeposits(sum(ranges, ReconciliationRange::getDeposits));
+        run.setWithdrawals(sum(ranges, ReconciliationRange::getWithdrawals));
+        run.setStatus(RunStatus.COMPLETED);
+        run.setFinishedAt(LocalDateTime.now());
+        run = runRepository.save(run);
+        logger.info("Reconciliation run {} completed: {} transactions, {} mismatches, balanced: {}",
+                run.getId(), run.getTransactions(), run.getMismatches(), run.isBalanced());
+        return run;
+    }
+
+    private void reconcileRange(ReconciliationRun run, ReconciliationRange range) {
+        RangeScan scan = new RangeScan(range.getRunId(), segmentRepository.findMaxPeriodEnd());
+        rangeTimer.record(() -> readTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RANGE_QUERY,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, range.getFromId());
+            statement.setLong(2, range.getToId());
+            statement.setObject(3, run.getPostedFrom() != null ? run.getPostedFrom() : BEGINNING);
+            statement.setObject(4, run.getPostedUntil());
+            return statement;
+        }, scan::accept)));
+        scan.finish(range);
+        writeTemplate.executeWithoutResult(status -> {
+            rangeRepository.save(range);
+            mismatchRepository.saveAll(scan.mismatches);
+        });
+    }
+
+    private static BigDecimal sum(List<ReconciliationRange> ranges,
+                                  Function<ReconciliationRange, BigDecimal> amount) {
+        return ranges.stream().map(amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Splits the slices in halves down to single slices, reconciled in parallel
+    private final class RangeTask extends RecursiveAction {
+
+        private final ReconciliationRun run;
+        private final List<ReconciliationRange> ranges;
+
+        private RangeTask(ReconciliationRun run, List<ReconciliationRange> ranges) {
+            this.run = run;
+            this.ranges = ranges;
+        }
+
+        @Override
+        protected void compute() {
+            if (ranges.size() == 1) {
+                reconcileRange(run, ranges.get(0));
+                return;
+            }
+            int middle = ranges.size() / 2;
+            invokeAll(new RangeTask(run, ranges.subList(0, middle)),
+                    new RangeTask(run, ranges.subList(middle, ranges.size())));
+        }
+    }
+
+    // Checks the rows of one slice (ordered by transaction id, one row per entry) a transaction at a time
+    private static final class RangeScan {
+
+        private final Long runId;
+        // Transactions created before this have their entries in the archive
+        private final LocalDateTime archivedThrough;
+        private final List<ReconciliationMismatch> mismatches = new ArrayList<>();
+        private long mismatchCount;
+        private long transactions;
+        private long entries;
+        private Money totalDebits = Money.ZERO;
+        private Money totalCredits = Money.ZERO;
+        private Money totalDeposits = Money.ZERO;
+        private Money totalWithdrawals = Money.ZERO;
+
+        // Current transaction
+        private Long transactionId;
+        private TransactionType type;
+        private String status;
+        private Money amount;
+        private String currency;
+        private LocalDateTime createdAt;
+        private int legs;
+        private Money debits;
+        private Money credits;
+        // JOURNAL transactions only: net of the entries per account currency, and debits in the transaction's currency
+        private final Map<String, Money> journalNet = new HashMap<>();
+        private Money journalDebits;
+
+        private RangeScan(Long runId, LocalDateTime archivedThrough) {
+            this.runId = runId;
+            this.archivedThrough = archivedThrough;
+        }
+
+        private void accept(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            if (transactionId == null || transactionId != id) {
+                endTransaction();
+                transactionId = id;
+                type = TransactionType.valueOf(rs.getString(2));
+                status = rs.getString(3);
+                amount = Money.of(rs.getBigDecimal(4));
+                currency = rs.getString(5);
+                createdAt = rs.getObject(10, LocalDateTime.class);
+                legs = 0;
+                debits = Money.ZERO;
+                credits = Money.ZERO;
+                journalNet.clear();
+                journalDebits = Money.ZERO;
+            }
+            long accountId = rs.getLong(6);
+            if (rs.wasNull()) {
+                return;
+            }
+            legs++;
+            Money entryAmount = Money.of(rs.getBigDecimal(8));
+            boolean credit = "CREDIT".equals(rs.getString(7));
+            if (credit) {
+                credits = credits.plus(entryAmount);
+            } else {
+                debits = debits.plus(entryAmount);
+            }
+            String accountCurrency = rs.getString(9);
+            if (accountCurrency == null) {
+                mismatch(MismatchKind.UNKNOWN_ACCOUNT, accountId, "Entry on account " + accountId + " which does not exist");
+            } else if (type == TransactionType.JOURNAL) {
+                // A journal may span currencies; each one must balance on its own (see endTransaction)
+                journalNet.merge(accountCurrency, credit ? entryAmount : entryAmount.negate(), Money::plus);
+                if (!credit && accountCurrency.equals(currency)) {
+                    journalDebits = journalDebits.plus(entryAmount);
+                }
+            } else if (!accountCurrency.equals(currency)) {
+                mismatch(MismatchKind.CURRENCY_MISMATCH, accountId,
+                        "Entry on a " + accountCurrency + " account in a " + currency + " transaction");
+            }
+        }
+
+        private void endTransaction() {
+            if (transactionId == null) {
+                return;
+            }
+            transactions++;
+            entries += legs;
+            totalDebits = totalDebits.plus(debits);
+            totalCredits = totalCredits.plus(credits);
+
+            if (!"COMPLETED".equals(status)) {
+                if (legs > 0) {
+                    mismatch(MismatchKind.ENTRIES_ON_INCOMPLETE_TRANSACTION, null, status + " transaction with " + legs + " entries");
+                }
+                return;
+            }
+            if (legs == 0) {
+                if (archivedThrough != null && createdAt.isBefore(archivedThrough)) {
+                    return;
+                }
+                mismatch(MismatchKind.MISSING_ENTRIES, null, "COMPLETED transaction without entries");
+                return;
+            }
+            if (type == TransactionType.JOURNAL) {
+                endJournal();
+                return;
+            }
+            Money expectedDebits = type == TransactionType.DEPOSIT ? Money.ZERO : amount;
+            Money expectedCredits = type == TransactionType.WITHDRAWAL ? Money.ZERO : amount;
+            if (type == TransactionType.DEPOSIT) {
+                totalDeposits = totalDeposits.plus(credits);
+            } else if (type == TransactionType.WITHDRAWAL) {
+                totalWithdrawals = totalWithdrawals.plus(debits);
+            }
+            if (!debits.equals(expectedDebits) || !credits.equals(expectedCredits)) {
+                mismatch(MismatchKind.UNBALANCED_TRANSACTION, null, type + " of " + amount + " with debits "
+                        + debits + " and credits " + credits);
+            }
+        }
+
+        // The amount of a journal is what it debits in its own currency
+        private void endJournal() {
+            journalNet.forEach((accountCurrency, net) -> {
+                if (net.signum() != 0) {
+                    mismatch(MismatchKind.UNBALANCED_TRANSACTION, null, "JOURNAL legs in " + accountCurrency
+                            + " do not balance: credits minus debits is " + net);
+                }
+            });
+            if (!journalDebits.equals(amount)) {
+                mismatch(MismatchKind.UNBALANCED_TRANSACTION, null, "JOURNAL of " + amount + " " + currency
+                        + " with debits " + journalDebits + " in " + currency);
+            }
+        }
+
+        private void mismatch(MismatchKind kind, Long accountId, String detail) {
+            mismatchCount++;
+            if (mismatches.size() < MAX_RECORDED_MISMATCHES) {
+                mismatches.add(new ReconciliationMismatch(runId, kind, transactionId, accountId, detail));
+            }
+        }
+
+        private void finish(ReconciliationRange range) {
+            endTransaction();
+            range.setTransactions(transactions);
+            range.setEntries(entries);
+            range.setDebits(totalDebits.toBigDecimal());
+            range.setCredits(totalCredits.toBigDecimal());
+            range.setDeposits(totalDeposits.toBigDecimal());
+            range.setWithdrawals(totalWithdrawals.toBigDecimal());
+            range.setMismatches(mismatchCount);
+            range.setCompletedAt(LocalDateTime.now());
+        }
+    }
+}
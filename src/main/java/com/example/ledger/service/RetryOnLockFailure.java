@@ -0,0 +1,29 @@
+package com.example.ledger.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Replays a @Transactional service method when it fails on a lock timeout or deadlock, or on a version
+ * conflict under the optimistic locking strategy (all roll back the whole transaction), with jittered
+ * exponential backoff.
+ * The retry advice is ordered outside the transaction advice, so every attempt is a fresh transaction.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(retryFor = {PessimisticLockingFailureException.class, OptimisticLockingFailureException.class},
+        listeners = {"ledgerMetrics", "contentionTracker"},
+        maxAttemptsExpression = "${ledger.locking.max-attempts:4}",
+        backoff = @Backoff(delayExpression = "${ledger.locking.backoff-ms:20}",
+                maxDelayExpression = "${ledger.locking.max-backoff-ms:500}", multiplier = 2, random = true))
+public @interface RetryOnLockFailure {
+}
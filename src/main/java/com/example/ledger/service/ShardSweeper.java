@@ -0,0 +1,44 @@
+package com.example.ledger.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Periodically consolidates the sub-account balances of sharded accounts into the logical account.
+// Paused while the ledger engine is enabled (see LedgerEngine.rejectWhileEnabled).
+@Component
+public class ShardSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSweeper.class);
+
+    private final AccountShardingService shardingService;
+    private final TransactionService transactionService;
+    private final LedgerEngine engine;
+
+    public ShardSweeper(AccountShardingService shardingService, TransactionService transactionService,
+                        LedgerEngine engine) {
+        this.shardingService = shardingService;
+        this.transactionService = transactionService;
+        this.engine = engine;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.sharding.sweep-interval-ms:10000}")
+    public void sweep() {
+        if (engine.isEnabled()) {
+            return;
+        }
+        shardingService.refresh();
+        for (Map.Entry<Long, List<Long>> layout : shardingService.getShardLayout().entrySet()) {
+            try {
+                int swept = transactionService.consolidateShards(layout.getKey(), layout.getValue());
+                logger.debug("Swept {} shards into account {}", swept, layout.getKey());
+            } catch (RuntimeException e) {
+                logger.warn("Shard sweep of account {} failed: {}", layout.getKey(), e.getMessage());
+            }
+        }
+    }
+}
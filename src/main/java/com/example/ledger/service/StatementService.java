@@ -0,0 +1,294 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.AccountStatement;
+import com.example.ledger.dto.PointInTimeBalance;
+import com.example.ledger.model.AccountMetadata;
+import com.example.ledger.model.BalanceSnapshot;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.example.ledger.model.Money;
+import com.example.ledger.repository.ArchiveSegmentRepository;
+import com.example.ledger.repository.BalanceSnapshotRepository;
+import com.example.ledger.repository.BalanceSnapshotRunRepository;
+import com.example.ledger.repository.LedgerEntryRepository;
+import com.example.ledger.repository.OpeningBalanceRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Point-in-time balances and statements, from the daily balance snapshots (see BalanceSnapshotService).
+ *
+ * The balance of an account at an instant is its latest snapshot closing before that day, plus its entries
+ * from the start of the day on: a primary key read and a range scan on idx_ledger_entries_account_created.
+ * Past the snapshotted days the scan starts after the last one; before the first one it covers the whole
+ * history. Archived entries in the scanned range are read from the archive.
+ *
+ * A statement run covers every account (shards summed into their account) in chunks of
+ * ledger.statements.chunk-size accounts: each chunk is one snapshot query and one grouped range query,
+ * computed ledger.statements.parallelism chunks at a time and handed to the consumer in account id order. The
+ * chunks of all runs share one pool of parallelism threads (StatementConfig).
+ */
+@Service
+public class StatementService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String ACCOUNT_PAGE = """
+        SELECT id, currency FROM accounts
+        WHERE parent_account_id IS NULL AND id > ?
+        ORDER BY id
+        LIMIT ?
+        """;
+
+    // The days the snapshots cover, and how far the archive goes; read once per statement run
+    private record Coverage(LocalDate firstClosingDate, LocalDate lastClosingDate, LocalDateTime archivedThrough) {
+    }
+
+    // Balances of the accounts before since (accounts without one are at zero), and whether entries from
+    // since on may be archived
+    private record Start(LocalDateTime since, Map<Long, Money> balances, boolean readArchive) {
+    }
+
+    private record StatementAccount(Long id, String currency) {
+    }
+
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final BalanceSnapshotRunRepository runRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final OpeningBalanceRepository openingBalanceRepository;
+    private final ArchiveSegmentRepository segmentRepository;
+    private final LedgerArchive ledgerArchive;
+    private final AccountShardingService shardingService;
+    private final AccountMetadataCache metadataCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTemplate;
+    private final ExecutorService statementExecutor;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public StatementService(BalanceSnapshotRepository snapshotRepository,
+                            BalanceSnapshotRunRepository runRepository,
+                            LedgerEntryRepository ledgerEntryRepository,
+                            OpeningBalanceRepository openingBalanceRepository,
+                            ArchiveSegmentRepository segmentRepository,
+                            LedgerArchive ledgerArchive,
+                            AccountShardingService shardingService,
+                            AccountMetadataCache metadataCache,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("statementExecutor") ExecutorService statementExecutor,
+                            @Value("${ledger.statements.parallelism:4}") int parallelism,
+                            @Value("${ledger.statements.chunk-size:500}") int chunkSize) {
+        this.snapshotRepository = snapshotRepository;
+        this.runRepository = runRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.openingBalanceRepository = openingBalanceRepository;
+        this.segmentRepository = segmentRepository;
+        this.ledgerArchive = ledgerArchive;
+        this.shardingService = shardingService;
+        this.metadataCache = metadataCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.statementExecutor = statementExecutor;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    // Balance of the account, summed over its shards, from its entries created before asOf
+    @Transactional(readOnly = true)
+    public PointInTimeBalance balanceAt(Long accountId, LocalDateTime asOf) {
+        AccountMetadata account = metadataCache.find(accountId)
+                .orElseThrow(() -> new NoSuchElementException("Account not found with ID: " + accountId));
+        List<Long> group = shardingService.balanceGroup(accountId);
+        Start start = start(coverage(), group, asOf);
+        Money balance = Money.ZERO;
+        for (Money opening : start.balances().values()) {
+            balance = balance.plus(opening);
+        }
+        balance = balance.plus(Money.of(ledgerEntryRepository.sumSignedAmountCreatedBetween(group, start.since(), asOf)));
+        if (start.readArchive()) {
+            Iterator<LedgerEntry> archived = archived(group, start.since());
+            while (archived.hasNext()) {
+                LedgerEntry entry = archived.next();
+                if (!entry.getCreatedAt().isBefore(asOf)) {
+                    break;
+                }
+                balance = balance.plus(entry.getSignedMoney());
+            }
+        }
+        return new PointInTimeBalance(accountId, account.currency(), asOf, balance.toBigDecimal());
+    }
+
+    // Statements of every account over [from, to), in account id order
+    public void streamStatements(LocalDateTime from, LocalDateTime to, Consumer<AccountStatement> consumer) {
+        Coverage coverage = readTemplate.execute(status -> coverage());
+        Deque<Future<List<AccountStatement>>> inFlight = new ArrayDeque<>();
+        try {
+            long afterId = 0;
+            while (true) {
+                List<StatementAccount> accounts = jdbcTemplate.query(ACCOUNT_PAGE,
+                        (rs, rowNum) -> new StatementAccount(rs.getLong(1), rs.getString(2)), afterId, chunkSize);
+                if (accounts.isEmpty()) {
+                    break;
+                }
+                afterId = accounts.get(accounts.size() - 1).id();
+                inFlight.add(statementExecutor.submit(() -> readTemplate.execute(status -> statements(coverage, accounts, from, to))));
+                // Bounded read-ahead: the next chunks are computed while the oldest one is written
+                if (inFlight.size() > parallelism) {
+                    emit(inFlight.poll(), consumer);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                emit(inFlight.poll(), consumer);
+            }
+        } finally {
+            // Chunks still queued or running when the run fails (e.g. the client went away)
+            inFlight.forEach(chunk -> chunk.cancel(true));
+        }
+    }
+
+    private List<AccountStatement> statements(Coverage coverage, List<StatementAccount> accounts,
+                                              LocalDateTime from, LocalDateTime to) {
+        // Shard sub-accounts are summed into their logical account
+        Map<Long, Long> logical = new HashMap<>();
+        for (StatementAccount account : accounts) {
+            for (Long id : shardingService.balanceGroup(account.id())) {
+                logical.put(id, account.id());
+            }
+        }
+        Map<Long, Totals> totals = new HashMap<>();
+        Start start = start(coverage, logical.keySet(), from);
+        start.balances().forEach((id, balance) -> totals(totals, logical.get(id)).addOpening(balance));
+        for (Object[] row : ledgerEntryRepository.summarizeCreatedBetween(logical.keySet(), start.since(), from, to)) {
+            Totals account = totals(totals, logical.get((Long) row[0]));
+            account.addOpening(Money.of(decimal(row[1])));
+            account.credits = account.credits.plus(Money.of(decimal(row[2])));
+            account.debits = account.debits.plus(Money.of(decimal(row[3])));
+            account.entries += ((Number) row[4]).longValue();
+        }
+        if (start.readArchive()) {
+            Iterator<LedgerEntry> archived = archived(logical.keySet(), start.since());
+            while (archived.hasNext()) {
+                LedgerEntry entry = archived.next();
+                if (!entry.getCreatedAt().isBefore(to)) {
+                    break;
+                }
+                totals(totals, logical.get(entry.getAccountId())).add(entry, from);
+            }
+        }
+        List<AccountStatement> statements = new ArrayList<>(accounts.size());
+        for (StatementAccount account : accounts) {
+            Totals sums = totals.getOrDefault(account.id(), new Totals());
+            statements.add(new AccountStatement(account.id(), account.currency(), from, to,
+                    sums.opening.toBigDecimal(), sums.opening.plus(sums.credits).minus(sums.debits).toBigDecimal(),
+                    sums.credits.toBigDecimal(), sums.debits.toBigDecimal(), sums.entries));
+        }
+        return statements;
+    }
+
+    private Coverage coverage() {
+        return new Coverage(runRepository.findFirstClosingDate(), runRepository.findLastClosingDate(),
+                segmentRepository.findMaxPeriodEnd());
+    }
+
+    // Where the range scan for the balances at the instant starts, and the balances before it
+    private Start start(Coverage coverage, Collection<Long> accountIds, LocalDateTime at) {
+        Map<Long, Money> balances = new HashMap<>();
+        LocalDate day = at.toLocalDate();
+        if (coverage.lastClosingDate() != null && day.isAfter(coverage.lastClosingDate().plusDays(1))) {
+            // Days after the watermark have no snapshots yet: scan from the first of them
+            day = coverage.lastClosingDate().plusDays(1);
+        }
+        if (coverage.firstClosingDate() != null && day.isAfter(coverage.firstClosingDate())) {
+            for (BalanceSnapshot snapshot : snapshotRepository.findLatestBefore(accountIds, day)) {
+                balances.put(snapshot.getAccountId(), Money.of(snapshot.getBalance()));
+            }
+            LocalDateTime since = day.atStartOfDay();
+            // An entry can be created a moment after its transaction, which decides its archive period
+            boolean readArchive = coverage.archivedThrough() != null
+                    && since.isBefore(coverage.archivedThrough().plusDays(1));
+            return new Start(since, balances, readArchive);
+        }
+        // Before the first snapshot: the opening balances cover the archive, unless it goes past the instant
+        if (coverage.archivedThrough() == null || !at.isBefore(coverage.archivedThrough())) {
+            openingBalanceRepository.findAllById(accountIds)
+                    .forEach(opening -> balances.put(opening.getAccountId(), Money.of(opening.getBalance())));
+            return new Start(EPOCH, balances, false);
+        }
+        return new Start(EPOCH, balances, true);
+    }
+
+    private Iterator<LedgerEntry> archived(Collection<Long> accountIds, LocalDateTime since) {
+        // Ids are positive, so "after (since, 0)" starts at since
+        return since.equals(EPOCH) ? ledgerArchive.entries(accountIds, null, null)
+                : ledgerArchive.entries(accountIds, since, 0L);
+    }
+
+    private static Totals totals(Map<Long, Totals> totals, Long accountId) {
+        return totals.computeIfAbsent(accountId, id -> new Totals());
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static void emit(Future<List<AccountStatement>> chunk, Consumer<AccountStatement> consumer) {
+        try {
+            chunk.get().forEach(consumer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement run interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static final class Totals {
+        private Money opening = Money.ZERO;
+        private Money credits = Money.ZERO;
+        private Money debits = Money.ZERO;
+        private long entries;
+
+        private void addOpening(Money amount) {
+            opening = opening.plus(amount);
+        }
+
+        private void add(LedgerEntry entry, LocalDateTime from) {
+            if (entry.getCreatedAt().isBefore(from)) {
+                addOpening(entry.getSignedMoney());
+            } else if (entry.getType() == EntryType.CREDIT) {
+                credits = credits.plus(Money.of(entry.getAmount()));
+                entries++;
+            } else {
+                debits = debits.plus(Money.of(entry.getAmount()));
+                entries++;
+            }
+        }
+    }
+}
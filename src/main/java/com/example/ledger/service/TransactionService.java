@@ -1,10 +1,15 @@
 package com.example.ledger.service;
 
 import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.dto.IdempotentRequest;
 import com.example.ledger.dto.TransferRequest;
+import com.example.ledger.exception.AccountNotActiveException;
 import com.example.ledger.exception.InsufficientBalanceException;
 import com.example.ledger.model.Account;
+import com.example.ledger.model.AccountMetadata;
+import com.example.ledger.model.Hold;
 import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.Money;
 import com.example.ledger.model.Transaction;
 import com.example.ledger.model.Transaction.TransactionStatus;
 import com.example.ledger.model.Transaction.TransactionType;
@@ -18,7 +23,10 @@ import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 import static com.example.ledger.model.LedgerEntry.EntryType.CREDIT;
 import static com.example.ledger.model.LedgerEntry.EntryType.DEBIT;
@@ -31,47 +39,121 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final LedgerEntryRepository ledgerEntryRepository;
     private final AccountRepository accountRepository;
+    private final BalanceService balanceService;
+    private final AccountShardingService shardingService;
+    private final AccountMetadataCache metadataCache;
+    private final AvailableBalanceIndex holdIndex;
+    private final AccountLocking accountLocking;
+    private final IdempotencyService idempotencyService;
+    private final LedgerEventOutbox eventOutbox;
+    private final LedgerMetrics metrics;
 
     public TransactionService(TransactionRepository transactionRepository, 
                               LedgerEntryRepository ledgerEntryRepository, 
-                              AccountRepository accountRepository) {
+                              AccountRepository accountRepository,
+                              BalanceService balanceService,
+                              AccountShardingService shardingService,
+                              AccountMetadataCache metadataCache,
+                              AvailableBalanceIndex holdIndex,
+                              AccountLocking accountLocking,
+                              IdempotencyService idempotencyService,
+                              LedgerEventOutbox eventOutbox,
+                              LedgerMetrics metrics) {
         this.transactionRepository = transactionRepository;
         this.ledgerEntryRepository = ledgerEntryRepository;
         this.accountRepository = accountRepository;
+        this.balanceService = balanceService;
+        this.shardingService = shardingService;
+        this.metadataCache = metadataCache;
+        this.holdIndex = holdIndex;
+        this.accountLocking = accountLocking;
+        this.idempotencyService = idempotencyService;
+        this.eventOutbox = eventOutbox;
+        this.metrics = metrics;
     }
 
+    @RetryOnLockFailure
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public Transaction executeTransfer(TransferRequest request) {
-        // [FIXED] Pessimistic locking to prevent race conditions during balance check
-        Account source = accountRepository.findByIdWithLock(request.getSourceAccountId())
+        return applyTransfer(request);
+    }
+
+    @RetryOnLockFailure
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Transaction executeWithdrawal(AmountRequest request) {
+        return applyWithdrawal(request);
+    }
+
+    @RetryOnLockFailure
+    @Transactional
+    public Transaction executeDeposit(AmountRequest request) {
+        return applyDeposit(request);
+    }
+
+    // Moves the positive balance of each sub-account of a sharded account back to the logical account (see ShardSweeper)
+    @RetryOnLockFailure
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public int consolidateShards(Long accountId, List<Long> shardIds) {
+        int swept = 0;
+        for (Account shard : metrics.lockAcquire().record(() -> accountRepository.findAllByIdInWithLock(shardIds))) {
+            Money balance = balanceService.getBalance(shard.getId());
+            if (balance.signum() <= 0) {
+                continue;
+            }
+            Transaction transaction = createPendingTransaction(TransactionType.TRANSFER, balance.toBigDecimal(),
+                    shard.getCurrency(), "Shard sweep", shard.getId(), accountId);
+            complete(transaction, List.of(
+                    createLedgerEntry(shard.getId(), transaction.getId(), DEBIT, balance),
+                    createLedgerEntry(accountId, transaction.getId(), CREDIT, balance)));
+            swept++;
+        }
+        return swept;
+    }
+
+    // The apply* methods carry no transaction demarcation: they run inside the caller's transaction
+    // (the execute* methods above, or a shared group-commit transaction, see GroupCommitExecutor).
+
+    public Transaction applyTransfer(TransferRequest request) {
+        Long sourceId = request.getSourceAccountId();
+        Long destId = request.getDestinationAccountId();
+        rejectShardAccount(sourceId);
+        rejectShardAccount(destId);
+
+        // Both rows are read from the database, not the metadata cache, so a status change of either account
+        // made on another instance cannot be missed (see AccountLocking.findForTransfer)
+        Map<Long, Account> accounts = accountLocking.findForTransfer(sourceId, destId);
+        Account source = Optional.ofNullable(accounts.get(sourceId))
                 .orElseThrow(() -> new NoSuchElementException("Source Account not found."));
-        Account dest = accountRepository.findById(request.getDestinationAccountId())
+        Account dest = Optional.ofNullable(accounts.get(destId))
                 .orElseThrow(() -> new NoSuchElementException("Destination Account not found."));
 
         if (!source.getCurrency().equals(dest.getCurrency())) {
             throw new IllegalArgumentException("Currency mismatch.");
         }
+        requireActive(AccountMetadata.of(source));
+        requireActive(AccountMetadata.of(dest));
 
         Transaction transaction = createPendingTransaction(TransactionType.TRANSFER, request.getAmount(), 
                 source.getCurrency(), request.getDescription(), source.getId(), dest.getId());
 
         try {
-            logger.info("Processing transfer: {} from {} to {}", request.getAmount(), source.getId(), dest.getId());
+            logger.debug("Processing transfer: {} from {} to {}", request.getAmount(), source.getId(), dest.getId());
             
-            BigDecimal currentBalance = ledgerEntryRepository.calculateBalance(source.getId());
-            BigDecimal newBalance = currentBalance.subtract(request.getAmount());
+            Money amount = Money.of(request.getAmount());
+            // Funds reserved by active holds cannot be spent
+            Money newBalance = available(source).minus(amount);
 
-            if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
+            if (newBalance.isNegative()) {
                 transaction.setStatus(TransactionStatus.FAILED);
                 transactionRepository.save(transaction);
                 throw new InsufficientBalanceException("Insufficient funds for Account " + source.getId());
             }
 
-            createLedgerEntry(source.getId(), transaction.getId(), DEBIT, request.getAmount());
-            createLedgerEntry(dest.getId(), transaction.getId(), CREDIT, request.getAmount());
+            List<LedgerEntry> legs = List.of(
+                    createLedgerEntry(source.getId(), transaction.getId(), DEBIT, amount),
+                    createLedgerEntry(shardingService.creditTarget(dest.getId()), transaction.getId(), CREDIT, amount));
 
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            return transactionRepository.save(transaction);
+            return recordIdempotencyKey(request, complete(transaction, legs));
         } catch (Exception e) {
             logger.error("Transfer failed: {}", e.getMessage());
             transaction.setStatus(TransactionStatus.FAILED);
@@ -80,43 +162,95 @@ public class TransactionService {
         }
     }
 
-    @Transactional(isolation = Isolation.READ_COMMITTED)
-    public Transaction executeWithdrawal(AmountRequest request) {
-        // [FIXED] Lock account row before calculating balance
-        Account source = accountRepository.findByIdWithLock(request.getAccountId())
+    public Transaction applyWithdrawal(AmountRequest request) {
+        rejectShardAccount(request.getAccountId());
+        // [FIXED] Lock account row before calculating balance (or a versioned read, see AccountLocking)
+        Account source = accountLocking.findForDebit(request.getAccountId())
                 .orElseThrow(() -> new NoSuchElementException("Account not found."));
+        requireActive(AccountMetadata.of(source));
 
         Transaction transaction = createPendingTransaction(TransactionType.WITHDRAWAL, request.getAmount(), 
                 source.getCurrency(), request.getDescription(), source.getId(), null);
         
-        BigDecimal currentBalance = ledgerEntryRepository.calculateBalance(source.getId());
-        BigDecimal newBalance = currentBalance.subtract(request.getAmount());
+        Money amount = Money.of(request.getAmount());
+        Money newBalance = available(source).minus(amount);
 
-        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
+        if (newBalance.isNegative()) {
             transaction.setStatus(TransactionStatus.FAILED);
             transactionRepository.save(transaction);
             throw new InsufficientBalanceException("Insufficient funds.");
         }
 
-        createLedgerEntry(source.getId(), transaction.getId(), DEBIT, request.getAmount());
-        transaction.setStatus(TransactionStatus.COMPLETED);
-        return transactionRepository.save(transaction);
+        LedgerEntry debit = createLedgerEntry(source.getId(), transaction.getId(), DEBIT, amount);
+        return recordIdempotencyKey(request, complete(transaction, List.of(debit)));
     }
 
-    @Transactional
-    public Transaction executeDeposit(AmountRequest request) {
-        Account dest = accountRepository.findById(request.getAccountId())
+    public Transaction applyDeposit(AmountRequest request) {
+        rejectShardAccount(request.getAccountId());
+        AccountMetadata dest = metadataCache.find(request.getAccountId())
                 .orElseThrow(() -> new NoSuchElementException("Account not found."));
-        
+        requireActive(dest);
+
         Transaction transaction = createPendingTransaction(TransactionType.DEPOSIT, request.getAmount(), 
-                dest.getCurrency(), request.getDescription(), null, dest.getId());
+                dest.currency(), request.getDescription(), null, dest.id());
+
+        LedgerEntry credit = createLedgerEntry(shardingService.creditTarget(dest.id()), transaction.getId(), CREDIT,
+                Money.of(request.getAmount()));
+        return recordIdempotencyKey(request, complete(transaction, List.of(credit)));
+    }
+
+    // Posts a capture of a hold: the caller holds the lock on the held account and has checked the amount
+    // against the hold, whose reservation already guaranteed the funds.
+    Transaction applyHoldCapture(Hold hold, Money amount) {
+        Transaction transaction = createPendingTransaction(TransactionType.HOLD_CAPTURE, amount.toBigDecimal(),
+                hold.getCurrency(), hold.getDescription(), hold.getAccountId(), hold.getDestinationAccountId());
+        return complete(transaction, List.of(
+                createLedgerEntry(hold.getAccountId(), transaction.getId(), DEBIT, amount),
+                createLedgerEntry(shardingService.creditTarget(hold.getDestinationAccountId()), transaction.getId(), CREDIT, amount)));
+    }
+
+    static void requireActive(AccountMetadata account) {
+        if (!account.isActive()) {
+            throw new AccountNotActiveException("Account " + account.id() + " is " + account.status() + ".");
+        }
+    }
 
-        createLedgerEntry(dest.getId(), transaction.getId(), CREDIT, request.getAmount());
+    // Available balance of an account loaded by findForDebit: its running balance under the optimistic
+    // strategy, otherwise the ledger balance read under the row lock
+    private Money available(Account account) {
+        Long accountId = account.getId();
+        if (accountLocking.usesRunningBalance(accountId)) {
+            return accountLocking.runningBalance(account, () -> balanceService.getBalance(accountId))
+                    .minus(holdIndex.held(accountId));
+        }
+        return holdIndex.available(accountId);
+    }
+
+    // Sub-accounts of sharded accounts are internal; they are only written through their logical account
+    void rejectShardAccount(Long accountId) {
+        if (shardingService.isShard(accountId)) {
+            throw new IllegalArgumentException("Account " + accountId + " is an internal shard account.");
+        }
+    }
+
+    // Stores the request's Idempotency-Key with the posting, in the same database transaction (see IdempotencyService)
+    private Transaction recordIdempotencyKey(IdempotentRequest request, Transaction transaction) {
+        if (request.getIdempotencyKey() != null) {
+            idempotencyService.record(request.getIdempotencyKey(), transaction);
+        }
+        return transaction;
+    }
+
+    // Marks the posting COMPLETED and queues its event (transaction and legs) in the same database transaction
+    private Transaction complete(Transaction transaction, List<LedgerEntry> legs) {
         transaction.setStatus(TransactionStatus.COMPLETED);
-        return transactionRepository.save(transaction);
+        Transaction completed = transactionRepository.save(transaction);
+        eventOutbox.record(completed, legs);
+        return completed;
     }
 
     private Transaction createPendingTransaction(TransactionType type, BigDecimal amount, String currency, String description, Long sourceId, Long destId) {
+        balanceService.beginPosting();
         Transaction transaction = new Transaction();
         transaction.setType(type);
         transaction.setAmount(amount);
@@ -128,12 +262,14 @@ public class TransactionService {
         return transactionRepository.save(transaction);
     }
 
-    private void createLedgerEntry(Long accountId, Long transactionId, LedgerEntry.EntryType type, BigDecimal amount) {
+    private LedgerEntry createLedgerEntry(Long accountId, Long transactionId, LedgerEntry.EntryType type, Money amount) {
         LedgerEntry entry = new LedgerEntry();
         entry.setAccountId(accountId);
         entry.setTransactionId(transactionId);
         entry.setType(type);
-        entry.setAmount(amount);
-        ledgerEntryRepository.save(entry);
+        entry.setAmount(amount.toBigDecimal());
+        metrics.entriesPersist().record(() -> ledgerEntryRepository.save(entry));
+        balanceService.recordPosting(accountId, type == CREDIT ? amount : amount.negate());
+        return entry;
     }
 }
\ No newline at end of file
@@ -0,0 +1,305 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.AccountStatement;
+import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.dto.CreateAccountRequest;
+import com.example.ledger.dto.JournalRequest;
+import com.example.ledger.dto.LedgerEntryPage;
+import com.example.ledger.dto.PointInTimeBalance;
+import com.example.ledger.dto.TransferRequest;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Account.AccountType;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Warm start (ledger.warmup.enabled): work that the first requests after a deploy would otherwise pay for,
+ * done before the instance reports ready. Spring Boot switches the readiness state to ACCEPTING_TRAFFIC
+ * only once the application runners have returned, so /actuator/health/readiness stays DOWN meanwhile.
+ *
+ * Phases, each timed and logged on one line:
+ * 1. schema: one "WHERE 1 = 0" query per entity, which fails on a missing table or column and also warms
+ *    Hibernate's query plans. It does not check column types: run production with LEDGER_DDL_AUTO=validate,
+ *    which does;
+ * 2. accounts: metadata and balance of the ledger.warmup.accounts accounts with the most entries among the
+ *    last recent-entries entries, which fills the caches and the database's buffer pool;
+ * 3. postings: iterations rounds of deposit, transfer, withdrawal, journal and reads through the services
+ *    and repositories, on two scratch accounts, in one transaction that is rolled back, so the JIT compiles
+ *    the posting paths. Nothing is committed, but the scratch accounts use up two account ids;
+ * 4. json: Jackson and Bean Validation on the request and response types.
+ * A failing schema phase fails startup, so an instance with a broken schema never becomes ready. Any other
+ * failing phase is logged and skipped; the instance still becomes ready.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "ledger.warmup.enabled", havingValue = "true")
+public class WarmStartRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmStartRunner.class);
+
+    // Accounts with the most entries among the newest ones; primary key range scan
+    private static final String ACTIVE_ACCOUNTS = """
+        SELECT account_id FROM ledger_entries
+        WHERE id > ?
+        GROUP BY account_id
+        ORDER BY COUNT(*) DESC
+        LIMIT ?
+        """;
+
+    private final TransactionService transactionService;
+    private final JournalService journalService;
+    private final AccountService accountService;
+    private final BalanceService balanceService;
+    private final BalanceCache balanceCache;
+    private final AccountMetadataCache metadataCache;
+    private final AccountShardingService shardingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate rollbackTemplate;
+    private final int accounts;
+    private final long recentEntries;
+    private final int iterations;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private record Phase(String name, long millis, String detail) {
+    }
+
+    public WarmStartRunner(TransactionService transactionService,
+                           JournalService journalService,
+                           AccountService accountService,
+                           BalanceService balanceService,
+                           BalanceCache balanceCache,
+                           AccountMetadataCache metadataCache,
+                           AccountShardingService shardingService,
+                           JdbcTemplate jdbcTemplate,
+                           ObjectMapper objectMapper,
+                           Validator validator,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${ledger.warmup.accounts:1000}") int accounts,
+                           @Value("${ledger.warmup.recent-entries:100000}") long recentEntries,
+                           @Value("${ledger.warmup.iterations:200}") int iterations) {
+        this.transactionService = transactionService;
+        this.journalService = journalService;
+        this.accountService = accountService;
+        this.balanceService = balanceService;
+        this.balanceCache = balanceCache;
+        this.metadataCache = metadataCache;
+        this.shardingService = shardingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.rollbackTemplate = new TransactionTemplate(transactionManager);
+        this.accounts = accounts;
+        this.recentEntries = recentEntries;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long contextMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        long start = System.nanoTime();
+        List<Phase> phases = new ArrayList<>();
+        phases.add(new Phase("context", contextMillis, null));
+        phases.add(requiredPhase("schema", this::checkSchema));
+        phases.add(phase("accounts", this::preloadAccounts));
+        phases.add(phase("postings", this::warmUpPostings));
+        phases.add(phase("json", this::warmUpJson));
+
+        StringJoiner breakdown = new StringJoiner(", ");
+        for (Phase phase : phases) {
+            breakdown.add(phase.name() + " " + phase.millis() + " ms" + (phase.detail() != null ? " (" + phase.detail() + ")" : ""));
+        }
+        logger.info("Warm start: {}; ready after {} ms", breakdown,
+                contextMillis + (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Phase phase(String name, PhaseBody body) {
+        long start = System.nanoTime();
+        String detail;
+        try {
+            detail = body.run();
+        } catch (RuntimeException e) {
+            logger.warn("Warm start phase {} failed: {}", name, e.getMessage());
+            detail = "failed";
+        }
+        return new Phase(name, (System.nanoTime() - start) / 1_000_000, detail);
+    }
+
+    private Phase requiredPhase(String name, PhaseBody body) {
+        long start = System.nanoTime();
+        try {
+            return new Phase(name, (System.nanoTime() - start) / 1_000_000, body.run());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Warm start phase " + name + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PhaseBody {
+        String run();
+    }
+
+    private String checkSchema() {
+        List<EntityType<?>> entities = new ArrayList<>(entityManager.getMetamodel().getEntities());
+        rollbackTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            for (EntityType<?> entity : entities) {
+                entityManager.createQuery("SELECT e FROM " + entity.getName() + " e WHERE 1 = 0", entity.getJavaType())
+                        .getResultList();
+            }
+        });
+        return entities.size() + " entities";
+    }
+
+    private String preloadAccounts() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM ledger_entries", Long.class);
+        List<Long> accountIds = jdbcTemplate.queryForList(ACTIVE_ACCOUNTS, Long.class,
+                Math.max(0, maxId - recentEntries), accounts);
+        int loaded = 0;
+        for (Long accountId : accountIds) {
+            // Shards are loaded with their logical account
+            if (shardingService.isShard(accountId) || metadataCache.find(accountId).isEmpty()) {
+                continue;
+            }
+            balanceService.getBalance(shardingService.balanceGroup(accountId));
+            loaded++;
+        }
+        return loaded + " accounts";
+    }
+
+    private String warmUpPostings() {
+        List<Long> scratch = new ArrayList<>(2);
+        try {
+            rollbackTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                Account source = accountService.createAccount(scratchAccount());
+                Account dest = accountService.createAccount(scratchAccount());
+                scratch.add(source.getId());
+                scratch.add(dest.getId());
+                for (int i = 0; i < iterations; i++) {
+                    transactionService.executeDeposit(amount(source.getId(), "10"));
+                    transactionService.executeTransfer(transfer(source.getId(), dest.getId(), "4"));
+                    transactionService.executeWithdrawal(amount(dest.getId(), "1"));
+                    journalService.post(journal(source.getId(), dest.getId()));
+                    accountService.getAccountWithBalance(source.getId());
+                    accountService.getLedgerEntryPage(dest.getId(), null, 10);
+                    // Each request starts with an empty persistence context
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            });
+        } finally {
+            // Reads inside the rolled-back transaction may have cached the scratch accounts
+            for (Long accountId : scratch) {
+                metadataCache.invalidate(accountId);
+                balanceCache.invalidate(accountId);
+            }
+        }
+        return iterations + " rounds";
+    }
+
+    private String warmUpJson() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setUserId(1L);
+        account.setType(AccountType.CHECKING);
+        account.setCurrency("USD");
+        Transaction transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setCurrency("USD");
+        LedgerEntry entry = new LedgerEntry();
+        entry.setId(1L);
+        entry.setAccountId(1L);
+        entry.setTransactionId(1L);
+        entry.setType(LedgerEntry.EntryType.CREDIT);
+        entry.setAmount(BigDecimal.TEN);
+        LocalDateTime now = LocalDateTime.now();
+        Object[] responses = {account, transaction, new LedgerEntryPage(List.of(entry), null),
+                new PointInTimeBalance(1L, "USD", now, BigDecimal.TEN),
+                new AccountStatement(1L, "USD", now, now, BigDecimal.ZERO, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ZERO, 1)};
+        int rounds = 0;
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (Object response : responses) {
+                    objectMapper.writeValueAsBytes(response);
+                }
+                validator.validate(objectMapper.readValue(
+                        "{\"sourceAccountId\":1,\"destinationAccountId\":2,\"amount\":10.00}", TransferRequest.class));
+                validator.validate(objectMapper.readValue("{\"accountId\":1,\"amount\":10.00}", AmountRequest.class));
+                validator.validate(objectMapper.readValue("{\"legs\":[{\"accountId\":1,\"type\":\"DEBIT\",\"amount\":1},"
+                        + "{\"accountId\":2,\"type\":\"CREDIT\",\"amount\":1}]}", JournalRequest.class));
+                rounds++;
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rounds + " rounds";
+    }
+
+    private static CreateAccountRequest scratchAccount() {
+        CreateAccountRequest request = new CreateAccountRequest();
+        request.setUserId(0L);
+        request.setType(AccountType.CHECKING);
+        request.setCurrency("USD");
+        return request;
+    }
+
+    private static AmountRequest amount(Long accountId, String amount) {
+        AmountRequest request = new AmountRequest();
+        request.setAccountId(accountId);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+
+    private static TransferRequest transfer(Long sourceId, Long destId, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setSourceAccountId(sourceId);
+        request.setDestinationAccountId(destId);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+
+    private static JournalRequest journal(Long debitId, Long creditId) {
+        JournalRequest.Leg debit = new JournalRequest.Leg();
+        debit.setAccountId(debitId);
+        debit.setType(LedgerEntry.EntryType.DEBIT);
+        debit.setAmount(BigDecimal.ONE);
+        JournalRequest.Leg credit = new JournalRequest.Leg();
+        credit.setAccountId(creditId);
+        credit.setType(LedgerEntry.EntryType.CREDIT);
+        credit.setAmount(BigDecimal.ONE);
+        JournalRequest request = new JournalRequest();
+        request.setLegs(List.of(debit, credit));
+        return request;
+    }
+}
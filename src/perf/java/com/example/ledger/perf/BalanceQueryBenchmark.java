@@ -0,0 +1,89 @@
+package com.example.ledger.perf;
+
+import com.example.ledger.repository.LedgerEntryRepository;
+import com.example.ledger.service.BalanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance queries against an account with a history of the given depth: the full SUM over
+ * every entry versus the checkpoint query, with the checkpoint 100 entries behind the head.
+ *
+ * Calls alternate between two accounts of the same depth: H2 hands back the previous result
+ * when the same query runs again with the same parameters on an unchanged table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BalanceQueryBenchmark {
+
+    private static final long[] ACCOUNT_IDS = {1L, 2L};
+    private static final int UNCHECKPOINTED_ENTRIES = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int depth;
+
+    private ConfigurableApplicationContext context;
+    private LedgerEntryRepository ledgerEntryRepository;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PerfContext.start("ledger.balance-cache.enabled=false");
+        ledgerEntryRepository = context.getBean(LedgerEntryRepository.class);
+
+        // Bulk-load both histories, interleaved, in one statement; going through the services would take minutes at 1M
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO ledger_entries (id, account_id, transaction_id, type, amount, created_at, posted_at) "
+                        + "SELECT n, MOD(n, 2) + 1, n, CASE WHEN MOD(n, 3) = 0 THEN 'DEBIT' ELSE 'CREDIT' END, 1.2500, "
+                        + "DATEADD(SECOND, n, TIMESTAMP '2024-01-01 00:00:00'), DATEADD(SECOND, n, TIMESTAMP '2024-01-01 00:00:00') "
+                        + "FROM SYSTEM_RANGE(1, ?) AS r(n)",
+                2L * depth);
+        // Entry n was posted n seconds after the start
+        LocalDateTime checkpointedThrough = LocalDateTime.of(2024, 1, 1, 0, 0)
+                .plusSeconds(2L * Math.max(depth - UNCHECKPOINTED_ENTRIES, 1));
+        for (long accountId : ACCOUNT_IDS) {
+            context.getBean(BalanceService.class).advanceCheckpoint(accountId, checkpointedThrough);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BigDecimal calculateBalance() {
+        return ledgerEntryRepository.calculateBalance(nextAccount());
+    }
+
+    @Benchmark
+    public BigDecimal calculateBalanceFromCheckpoint() {
+        return ledgerEntryRepository.calculateBalanceFromCheckpoint(nextAccount());
+    }
+
+    private long nextAccount() {
+        next ^= 1;
+        return ACCOUNT_IDS[next];
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.ledger.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator: starts the application in-process on a random port and drives
+ * transfers, deposits, withdrawals and balance reads over HTTP from many threads, with Zipf-skewed
+ * account choice.
+ * Reports throughput, latency percentiles, lock-acquire time and a failure breakdown, then checks
+ * the double-entry invariants directly in the database. Exits with status 1 if an invariant fails.
+ *
+ * Runs on embedded H2 by default; any Spring Boot argument is passed through, so a local MySQL works
+ * with --spring.datasource.url=... --spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver.
+ *
+ * Settings (all optional):
+ *   --load.threads=32 --load.duration-seconds=30 --load.warmup-seconds=5 --load.accounts=1000
+ *   --load.zipf-exponent=1.0 --load.mix=transfer:80,deposit:10,withdrawal:10 (balance:N adds GET /accounts/{id})
+ *   --load.opening-balance=1000 --load.max-amount=100
+ *
+ * Each thread waits for its response before sending the next request, so latencies under overload
+ * understate what an open-loop client would see.
+ */
+public final class LoadTest {
+
+    enum Operation {
+        TRANSFER("/transfers"), DEPOSIT("/deposits"), WITHDRAWAL("/withdrawals"), BALANCE("/accounts/");
+
+        private final String path;
+
+        Operation(String path) {
+            this.path = path;
+        }
+    }
+
+    enum Outcome {
+        OK, INSUFFICIENT_FUNDS, DEADLOCK, LOCK_TIMEOUT, REJECTED, CLIENT_ERROR, SERVER_ERROR, IO_ERROR
+    }
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final int threads;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int accountCount;
+    private final double zipfExponent;
+    private final Map<Operation, Integer> mix;
+    private final BigDecimal openingBalance;
+    private final int maxAmountCents;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Outcome, LongAdder>> outcomes = new EnumMap<>(Operation.class);
+    private long[] accountIds;
+    private volatile boolean measuring;
+
+    private LoadTest(Environment env) {
+        this.baseUrl = "http://localhost:" + env.getRequiredProperty("local.server.port");
+        this.threads = env.getProperty("load.threads", Integer.class, 32);
+        this.durationSeconds = env.getProperty("load.duration-seconds", Integer.class, 30);
+        this.warmupSeconds = env.getProperty("load.warmup-seconds", Integer.class, 5);
+        this.accountCount = env.getProperty("load.accounts", Integer.class, 1000);
+        this.zipfExponent = env.getProperty("load.zipf-exponent", Double.class, 1.0);
+        this.mix = parseMix(env.getProperty("load.mix", "transfer:80,deposit:10,withdrawal:10"));
+        this.openingBalance = new BigDecimal(env.getProperty("load.opening-balance", "1000"));
+        this.maxAmountCents = new BigDecimal(env.getProperty("load.max-amount", "100")).movePointRight(2).intValueExact();
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            Map<Outcome, LongAdder> counts = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counts.put(outcome, new LongAdder());
+            }
+            outcomes.put(operation, counts);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean passed;
+        try (ConfigurableApplicationContext context = PerfContext.startServer(args)) {
+            LoadTest loadTest = new LoadTest(context.getEnvironment());
+            loadTest.createAccounts();
+            Timer lockTimer = context.getBean(MeterRegistry.class).timer("ledger.lock.acquire");
+            LockSnapshot lockBefore = new LockSnapshot(lockTimer);
+            long measuredNanos = loadTest.run();
+            loadTest.report(System.out, measuredNanos, lockBefore, new LockSnapshot(lockTimer));
+            passed = new InvariantCheck(context.getBean(JdbcTemplate.class)).run(System.out);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private void createAccounts() throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            HttpResponse<String> created = post("/accounts",
+                    "{\"userId\":" + (i + 1) + ",\"type\":\"CHECKING\",\"currency\":\"USD\"}");
+            if (created.statusCode() != 201) {
+                throw new IllegalStateException("Account creation failed: " + created.body());
+            }
+            long id = objectMapper.readTree(created.body()).get("id").asLong();
+            if (openingBalance.signum() > 0) {
+                post("/deposits", "{\"accountId\":" + id + ",\"amount\":" + openingBalance.toPlainString() + "}");
+            }
+            ids.add(id);
+        }
+        // Spread the hot ranks over the id space instead of always making the lowest ids hot
+        Collections.shuffle(ids, new Random(42));
+        accountIds = ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Returns the length of the measured (post-warmup) window in nanoseconds
+    private long run() throws InterruptedException {
+        ZipfSampler sampler = new ZipfSampler(accountCount, zipfExponent);
+        Operation[] schedule = schedule();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    Operation operation = schedule[random.nextInt(schedule.length)];
+                    execute(operation, sampler, random);
+                }
+            }, "load-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(measureFrom - System.nanoTime()));
+        measuring = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - measureFrom;
+    }
+
+    private void execute(Operation operation, ZipfSampler sampler, Random random) {
+        String amount = randomAmount(random);
+        String path = operation.path;
+        String body;
+        if (operation == Operation.TRANSFER) {
+            int source = sampler.sample(random);
+            int dest = sampler.sample(random);
+            if (dest == source) {
+                dest = (source + 1) % accountCount;
+            }
+            body = "{\"sourceAccountId\":" + accountIds[source] + ",\"destinationAccountId\":" + accountIds[dest]
+                    + ",\"amount\":" + amount + "}";
+        } else if (operation == Operation.BALANCE) {
+            path += accountIds[sampler.sample(random)];
+            body = null;
+        } else {
+            body = "{\"accountId\":" + accountIds[sampler.sample(random)] + ",\"amount\":" + amount + "}";
+        }
+
+        long started = System.nanoTime();
+        Outcome outcome;
+        try {
+            HttpResponse<String> response = body == null ? get(path) : post(path, body);
+            outcome = classify(response);
+        } catch (IOException e) {
+            outcome = Outcome.IO_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (measuring) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+            latencies.get(operation).recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+            outcomes.get(operation).get(outcome).increment();
+        }
+    }
+
+    private static Outcome classify(HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return Outcome.OK;
+        }
+        return switch (status) {
+            case 422 -> Outcome.INSUFFICIENT_FUNDS;
+            case 409 -> response.body().startsWith("Deadlock") ? Outcome.DEADLOCK : Outcome.LOCK_TIMEOUT;
+            case 503 -> Outcome.REJECTED;
+            default -> status < 500 ? Outcome.CLIENT_ERROR : Outcome.SERVER_ERROR;
+        };
+    }
+
+    private HttpResponse<String> post(String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String randomAmount(Random random) {
+        int cents = 1 + random.nextInt(maxAmountCents);
+        return (cents / 100) + "." + String.format("%02d", cents % 100);
+    }
+
+    // One slot per percentage point of the mix, so picking an operation is a single array lookup
+    private Operation[] schedule() {
+        List<Operation> slots = new ArrayList<>();
+        mix.forEach((operation, weight) -> slots.addAll(Collections.nCopies(weight, operation)));
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no positive weights");
+        }
+        return slots.toArray(new Operation[0]);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    private void report(PrintStream out, long measuredNanos, LockSnapshot lockBefore, LockSnapshot lockAfter) {
+        double seconds = measuredNanos / 1e9;
+        out.printf("%nLoad test: %d threads, %d s (+%d s warmup), %d accounts, zipf exponent %.2f, mix %s%n%n",
+                threads, durationSeconds, warmupSeconds, accountCount, zipfExponent, mix);
+        out.printf("%-11s %10s %10s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "ok", "ok/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long totalOk = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            long ok = outcomes.get(operation).get(Outcome.OK).sum();
+            total.add(histogram);
+            totalOk += ok;
+            printRow(out, operation.name().toLowerCase(), histogram, ok, seconds);
+        }
+        printRow(out, "all", total, totalOk, seconds);
+
+        out.printf("%nFailures:%n");
+        for (Operation operation : Operation.values()) {
+            StringBuilder line = new StringBuilder();
+            outcomes.get(operation).forEach((outcome, count) -> {
+                if (outcome != Outcome.OK && count.sum() > 0) {
+                    line.append(' ').append(outcome.name().toLowerCase()).append('=').append(count.sum());
+                }
+            });
+            out.printf("  %-11s%s%n", operation.name().toLowerCase(), line.length() == 0 ? " none" : line);
+        }
+
+        long locks = lockAfter.count - lockBefore.count;
+        double lockMillis = (lockAfter.totalNanos - lockBefore.totalNanos) / 1e6;
+        out.printf("%nLock acquire (ledger.lock.acquire): %d acquisitions, mean %.3f ms, total %.1f ms, recent max %.3f ms%n",
+                locks, locks == 0 ? 0.0 : lockMillis / locks, lockMillis, lockAfter.maxMillis);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long ok, double seconds) {
+        out.printf("%-11s %10d %10d %10.1f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), ok, ok / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    private record LockSnapshot(long count, double totalNanos, double maxMillis) {
+        LockSnapshot(Timer timer) {
+            this(timer.count(), timer.totalTime(TimeUnit.NANOSECONDS), timer.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Ledger-wide checks run after the load: every completed transaction's entries net to what its
+     * type implies (0 for transfers, +amount for deposits, -amount for withdrawals), so total debits
+     * equal total credits once external flows are accounted for; nothing is posted for failed
+     * transactions; and no account (a sharded account together with its shards) is negative.
+     */
+    private record InvariantCheck(JdbcTemplate jdbcTemplate) {
+
+        private static final String SIGNED = "CASE WHEN e.type = 'CREDIT' THEN e.amount ELSE -e.amount END";
+
+        boolean run(PrintStream out) {
+            Map<String, Object> totals = jdbcTemplate.queryForMap(
+                    "SELECT COALESCE(SUM(CASE WHEN e.type = 'DEBIT' THEN e.amount END), 0) AS debits, "
+                            + "COALESCE(SUM(CASE WHEN e.type = 'CREDIT' THEN e.amount END), 0) AS credits FROM ledger_entries e");
+            Map<String, Object> external = jdbcTemplate.queryForMap(
+                    "SELECT COALESCE(SUM(CASE WHEN t.type = 'DEPOSIT' THEN t.amount END), 0) AS deposits, "
+                            + "COALESCE(SUM(CASE WHEN t.type = 'WITHDRAWAL' THEN t.amount END), 0) AS withdrawals "
+                            + "FROM transactions t WHERE t.status = 'COMPLETED'");
+            BigDecimal debits = (BigDecimal) totals.get("debits");
+            BigDecimal credits = (BigDecimal) totals.get("credits");
+            BigDecimal deposits = (BigDecimal) external.get("deposits");
+            BigDecimal withdrawals = (BigDecimal) external.get("withdrawals");
+
+            Long unbalanced = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM transactions t JOIN (SELECT e.transaction_id, SUM(" + SIGNED + ") AS net "
+                            + "FROM ledger_entries e GROUP BY e.transaction_id) n ON n.transaction_id = t.id "
+                            + "WHERE t.status <> 'COMPLETED' "
+                            + "OR (t.type = 'TRANSFER' AND n.net <> 0) "
+                            + "OR (t.type = 'DEPOSIT' AND n.net <> t.amount) "
+                            + "OR (t.type = 'WITHDRAWAL' AND n.net <> -t.amount)", Long.class);
+            Long unposted = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM transactions t WHERE t.status = 'COMPLETED' "
+                            + "AND NOT EXISTS (SELECT 1 FROM ledger_entries e WHERE e.transaction_id = t.id)", Long.class);
+            List<Map<String, Object>> negative = jdbcTemplate.queryForList(
+                    "SELECT COALESCE(a.parent_account_id, a.id) AS account_id, SUM(" + SIGNED + ") AS balance "
+                            + "FROM ledger_entries e JOIN accounts a ON a.id = e.account_id "
+                            + "GROUP BY COALESCE(a.parent_account_id, a.id) HAVING SUM(" + SIGNED + ") < 0");
+
+            boolean flowsBalance = credits.subtract(debits).compareTo(deposits.subtract(withdrawals)) == 0;
+            out.printf("%nInvariants:%n");
+            out.printf("  debits %s, credits %s, deposits %s, withdrawals %s -> %s%n", debits.toPlainString(),
+                    credits.toPlainString(), deposits.toPlainString(), withdrawals.toPlainString(),
+                    flowsBalance ? "credits - debits = deposits - withdrawals" : "MISMATCH");
+            out.printf("  transactions with unbalanced or stray entries: %d%n", unbalanced);
+            out.printf("  completed transactions without entries: %d%n", unposted);
+            out.printf("  accounts with negative balance: %d%s%n", negative.size(), negative.isEmpty() ? "" : " " + negative);
+
+            boolean passed = flowsBalance && unbalanced == 0 && unposted == 0 && negative.isEmpty();
+            out.printf("  %s%n", passed ? "PASSED" : "FAILED");
+            return passed;
+        }
+    }
+}
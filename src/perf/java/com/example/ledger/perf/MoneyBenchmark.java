@@ -0,0 +1,84 @@
+package com.example.ledger.perf;
+
+import com.example.ledger.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic of one transfer: sum the source's balance group, funds check, then apply the
+ * debit and credit deltas to the cached balances. Run with -prof gc (the perf profile default)
+ * and compare gc.alloc.rate.norm, the bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final String[] GROUP = {"1520.2500", "310.0000", "75.1250", "0.0001"};
+    private static final String DEST_BALANCE = "98765.4321";
+    private static final String AMOUNT = "42.5000";
+
+    private BigDecimal[] decimalGroup;
+    private BigDecimal decimalDest;
+    private BigDecimal decimalAmount;
+
+    private Money[] moneyGroup;
+    private Money moneyDest;
+    private Money moneyAmount;
+
+    @Setup
+    public void setUp() {
+        decimalGroup = new BigDecimal[GROUP.length];
+        moneyGroup = new Money[GROUP.length];
+        for (int i = 0; i < GROUP.length; i++) {
+            decimalGroup[i] = new BigDecimal(GROUP[i]);
+            moneyGroup[i] = Money.of(decimalGroup[i]);
+        }
+        decimalDest = new BigDecimal(DEST_BALANCE);
+        decimalAmount = new BigDecimal(AMOUNT);
+        moneyDest = Money.of(decimalDest);
+        moneyAmount = Money.of(decimalAmount);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal balance : decimalGroup) {
+            total = total.add(balance);
+        }
+        if (total.subtract(decimalAmount).compareTo(BigDecimal.ZERO) < 0) {
+            return total;
+        }
+        BigDecimal source = decimalGroup[0].add(decimalAmount.negate());
+        BigDecimal dest = decimalDest.add(decimalAmount);
+        return source.add(dest);
+    }
+
+    @Benchmark
+    public long money() {
+        Money total = Money.ZERO;
+        for (Money balance : moneyGroup) {
+            total = total.plus(balance);
+        }
+        if (total.minus(moneyAmount).isNegative()) {
+            return total.units();
+        }
+        Money source = moneyGroup[0].plus(moneyAmount.negate());
+        Money dest = moneyDest.plus(moneyAmount);
+        return source.plus(dest).units();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ledger.perf;
+
+import com.example.ledger.LedgerApiApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against the embedded H2 database configured in
+ * src/test/resources/application.yml (each context gets its own in-memory database).
+ */
+final class PerfContext {
+
+    private PerfContext() {
+    }
+
+    // Without the web layer, for benchmarks that call the services directly
+    static ConfigurableApplicationContext start(String... properties) {
+        return builder(WebApplicationType.NONE).properties(properties).run();
+    }
+
+    // With the web server on a random port; args are regular Spring Boot arguments (--key=value).
+    // Lock timeouts and deadlocks are expected under load and counted by the client, so their
+    // per-failure SQL error logging is silenced.
+    static ConfigurableApplicationContext startServer(String... args) {
+        return builder(WebApplicationType.SERVLET)
+                .properties("server.port=0",
+                        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF",
+                        "logging.level.org.springframework.transaction.interceptor=OFF",
+                        "logging.level.com.zaxxer.hikari.pool.ProxyConnection=ERROR")
+                .run(args);
+    }
+
+    private static SpringApplicationBuilder builder(WebApplicationType webApplicationType) {
+        return new SpringApplicationBuilder(LedgerApiApplication.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .properties("logging.level.root=WARN",
+                        "logging.level.com.example.ledger=WARN",
+                        "spring.main.banner-mode=off");
+    }
+}
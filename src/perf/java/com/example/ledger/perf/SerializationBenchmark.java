@@ -0,0 +1,87 @@
+package com.example.ledger.perf;
+
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the API responses: a single Transaction (transfer/deposit/withdrawal
+ * responses) and LedgerEntry, and a 100-entry page of the ledger-entries endpoint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    // Same defaults Spring Boot applies to the MVC message converters
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Transaction transaction;
+    private LedgerEntry entry;
+    private List<LedgerEntry> page;
+
+    @Setup
+    public void setUp() {
+        transaction = new Transaction();
+        transaction.setId(1_234_567L);
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setSourceAccountId(42L);
+        transaction.setDestinationAccountId(43L);
+        transaction.setAmount(new BigDecimal("125.5000"));
+        transaction.setCurrency("USD");
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setDescription("Invoice 2024-0042");
+
+        entry = newEntry(7_654_321L);
+        page = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            page.add(newEntry(7_654_321L + i));
+        }
+    }
+
+    @Benchmark
+    public byte[] transaction() throws Exception {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] ledgerEntry() throws Exception {
+        return objectMapper.writeValueAsBytes(entry);
+    }
+
+    @Benchmark
+    public byte[] ledgerEntryPage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    private static LedgerEntry newEntry(long id) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setId(id);
+        entry.setAccountId(42L);
+        entry.setTransactionId(1_234_567L);
+        entry.setType(LedgerEntry.EntryType.DEBIT);
+        entry.setAmount(new BigDecimal("125.5000"));
+        return entry;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.ledger.perf;
+
+import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.dto.CreateAccountRequest;
+import com.example.ledger.dto.TransferRequest;
+import com.example.ledger.model.Account.AccountType;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.service.AccountService;
+import com.example.ledger.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of the write paths (locking, funds check, inserts, commit) on embedded H2.
+ * Transfers pick a random pair from a pool of funded accounts; run with -t N to add contention, and
+ * compare the locking strategies with fewer accounts (e.g. -p accounts=10) for a higher conflict rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000");
+    private static final BigDecimal AMOUNT = new BigDecimal("0.0100");
+
+    @Param({"100"})
+    public int accounts;
+
+    @Param({"true"})
+    public boolean balanceCache;
+
+    @Param({"PESSIMISTIC", "OPTIMISTIC"})
+    public String lockingStrategy;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PerfContext.start("ledger.balance-cache.enabled=" + balanceCache,
+                "ledger.locking.strategy=" + lockingStrategy);
+        transactionService = context.getBean(TransactionService.class);
+        AccountService accountService = context.getBean(AccountService.class);
+
+        accountIds = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            CreateAccountRequest request = new CreateAccountRequest();
+            request.setUserId((long) i);
+            request.setType(AccountType.CHECKING);
+            request.setCurrency("USD");
+            accountIds[i] = accountService.createAccount(request).getId();
+            transactionService.executeDeposit(amount(accountIds[i], OPENING_BALANCE));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transaction transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(accounts);
+        int dest = (source + 1 + random.nextInt(accounts - 1)) % accounts;
+        TransferRequest request = new TransferRequest();
+        request.setSourceAccountId(accountIds[source]);
+        request.setDestinationAccountId(accountIds[dest]);
+        request.setAmount(AMOUNT);
+        return transactionService.executeTransfer(request);
+    }
+
+    @Benchmark
+    public Transaction withdrawal() {
+        return transactionService.executeWithdrawal(amount(randomAccount(), AMOUNT));
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return transactionService.executeDeposit(amount(randomAccount(), AMOUNT));
+    }
+
+    private long randomAccount() {
+        return accountIds[ThreadLocalRandom.current().nextInt(accounts)];
+    }
+
+    private static AmountRequest amount(long accountId, BigDecimal amount) {
+        AmountRequest request = new AmountRequest();
+        request.setAccountId(accountId);
+        request.setAmount(amount);
+        return request;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ledger.config;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+/**
+ * H2 reports a row-lock wait timeout as an SQLTimeoutException, which Hikari treats as a broken
+ * connection and evicts; the transaction's rollback then fails and replaces the lock failure that
+ * the lock retries are meant to see. The connection is still healthy, so keep it.
+ */
+public class H2LockTimeoutOverride implements SQLExceptionOverride {
+
+    // org.h2.api.ErrorCode.LOCK_TIMEOUT_1
+    private static final int LOCK_TIMEOUT = 50200;
+
+    @java.lang.Override
+    public Override adjudicate(SQLException sqlException) {
+        return sqlException.getErrorCode() == LOCK_TIMEOUT ? Override.DO_NOT_EVICT : Override.CONTINUE_EVICT;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.TransferRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class AdmissionInterceptorTests {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void saturatedWritesAreRejectedWithoutBlockingReads() throws Exception {
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(true, 1, 1, 10, 10, new SimpleMeterRegistry());
+        HandlerMethod transfer = new HandlerMethod(mock(TransactionController.class),
+                TransactionController.class.getMethod("executeTransfer", TransferRequest.class, String.class));
+        HandlerMethod getAccount = new HandlerMethod(mock(AccountController.class),
+                AccountController.class.getMethod("getAccount", Long.class));
+
+        MockHttpServletRequest firstWrite = new MockHttpServletRequest("POST", "/transfers");
+        assertTrue(interceptor.preHandle(firstWrite, response, transfer));
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("POST", "/transfers"), response, transfer));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/accounts/1");
+        assertTrue(interceptor.preHandle(read, response, getAccount));
+
+        // Releasing the first write's permit admits the next one
+        interceptor.afterCompletion(firstWrite, response, transfer, null);
+        interceptor.afterCompletion(firstWrite, response, transfer, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/transfers"), response, transfer));
+        assertThrows(ResponseStatusException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("POST", "/transfers"), response, transfer));
+    }
+
+    @Test
+    void otherControllersTakeTheLaneOfTheirHttpMethod() throws Exception {
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(true, 1, 1, 10, 10, new SimpleMeterRegistry());
+        HandlerMethod statements = handler(StatementController.class, "streamStatements");
+        HandlerMethod reconcile = handler(ReconciliationController.class, "reconcile");
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/statements"), response, statements));
+        assertThrows(ResponseStatusException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/statements"), response, statements));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/reconciliations"), response, reconcile));
+        assertThrows(ResponseStatusException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("POST", "/reconciliations"), response, reconcile));
+    }
+
+    @Test
+    void rejectsBudgetsTheConnectionPoolCannotCover() {
+        assertThrows(IllegalStateException.class,
+                () -> new AdmissionInterceptor(true, 30, 30, 10, 50, new SimpleMeterRegistry()));
+    }
+
+    private static HandlerMethod handler(Class<?> controller, String name) {
+        Method method = Arrays.stream(controller.getMethods())
+                .filter(candidate -> candidate.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+        return new HandlerMethod(mock(controller), method);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ledger.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTests {
+
+    @Test
+    void roundTripsColumnValuesLosslessly() {
+        for (String value : new String[]{"0", "0.0001", "-0.0001", "12.5", "100", "1E+3",
+                "922337203685477.5807", "-922337203685477.5808"}) {
+            BigDecimal decimal = new BigDecimal(value);
+            assertEquals(0, decimal.compareTo(Money.of(decimal).toBigDecimal()), value);
+        }
+        assertEquals(125_000, Money.of(new BigDecimal("12.5")).units());
+    }
+
+    @Test
+    void rejectsValuesItCannotHoldExactly() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.00001")));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("922337203685477.5808")));
+    }
+
+    @Test
+    void arithmeticIsOverflowChecked() {
+        Money max = new Money(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.plus(new Money(1)));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MIN_VALUE).negate());
+        assertEquals(new Money(-5), new Money(10).minus(new Money(15)));
+    }
+}
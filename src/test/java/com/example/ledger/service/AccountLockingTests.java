@@ -0,0 +1,103 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import com.example.ledger.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.example.ledger.service.LedgerFixtures.amount;
+import static com.example.ledger.service.LedgerFixtures.transferRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "ledger.locking.strategy=OPTIMISTIC",
+        "ledger.locking.max-attempts=50",
+        "ledger.locking.fallback.min-attempts=1000000"
+})
+class AccountLockingTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void concurrentDebitsNeverOverdrawTheRunningBalance() throws Exception {
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+        fixtures.deposit(source.getId(), "100");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            boolean transfers = i % 2 == 0;
+            workers.add(pool.submit(() -> debitRepeatedly(source.getId(), dest.getId(), transfers, 20)));
+        }
+        int completed = 0;
+        for (Future<Integer> worker : workers) {
+            completed += worker.get();
+        }
+        pool.shutdown();
+
+        assertEquals(100, completed);
+        assertEquals(0, balanceService.getBalance(source.getId()).signum());
+        assertEquals(0, accountRepository.findById(source.getId()).orElseThrow().getRunningBalance().signum());
+
+        // The running balance follows every later posting, credits included
+        fixtures.deposit(source.getId(), "12.5");
+        assertEquals(0, new BigDecimal("12.5").compareTo(accountRepository.findById(source.getId()).orElseThrow().getRunningBalance()));
+        assertEquals(0, new BigDecimal("12.5").compareTo(balanceService.getBalance(source.getId()).toBigDecimal()));
+    }
+
+    @Test
+    void accountsWithAHighConflictRateFallBackToRowLocks() {
+        ContentionTracker tracker = new ContentionTracker(0.5, 4, 60_000, 60_000, new SimpleMeterRegistry());
+        for (int i = 0; i < 4; i++) {
+            tracker.attempt(1L);
+            tracker.attempt(2L);
+        }
+        tracker.conflict(1L);
+        tracker.conflict(2L);
+        tracker.conflict(2L);
+
+        assertFalse(tracker.isHot(1L));
+        assertTrue(tracker.isHot(2L));
+        assertEquals(1, tracker.hotAccounts());
+    }
+
+    private int debitRepeatedly(Long sourceId, Long destId, boolean transfers, int times) {
+        int completed = 0;
+        for (int i = 0; i < times; i++) {
+            try {
+                if (transfers) {
+                    transactionService.executeTransfer(transferRequest(sourceId, destId, "1"));
+                } else {
+                    transactionService.executeWithdrawal(amount(sourceId, "1"));
+                }
+                completed++;
+            } catch (InsufficientBalanceException e) {
+                // Expected once the 100 are spent
+            }
+        }
+        return completed;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exception.AccountNotActiveException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Account.AccountStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class AccountMetadataCacheTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountMetadataCache metadataCache;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void createdAccountsAreServedFromTheCache() {
+        Account account = fixtures.createAccount();
+        double missesBefore = counter("ledger.account.cache.misses");
+        double hitsBefore = counter("ledger.account.cache.hits");
+
+        assertEquals("USD", metadataCache.find(account.getId()).orElseThrow().currency());
+        assertEquals("USD", accountService.getAccountWithBalance(account.getId()).getCurrency());
+
+        assertEquals(missesBefore, counter("ledger.account.cache.misses"));
+        assertEquals(hitsBefore + 2, counter("ledger.account.cache.hits"));
+    }
+
+    @Test
+    void statusChangesInvalidateTheCachedMetadata() {
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+        fixtures.deposit(source.getId(), "100");
+        assertEquals(AccountStatus.ACTIVE, metadataCache.find(dest.getId()).orElseThrow().status());
+
+        accountService.updateStatus(dest.getId(), AccountStatus.FROZEN);
+        assertEquals(AccountStatus.FROZEN, metadataCache.find(dest.getId()).orElseThrow().status());
+        assertThrows(AccountNotActiveException.class, () -> fixtures.transfer(source.getId(), dest.getId(), "10"));
+        assertThrows(AccountNotActiveException.class, () -> fixtures.deposit(dest.getId(), "10"));
+
+        accountService.updateStatus(dest.getId(), AccountStatus.ACTIVE);
+        fixtures.transfer(source.getId(), dest.getId(), "10");
+        assertEquals(0, new BigDecimal("10").compareTo(accountService.getAccountWithBalance(dest.getId()).getBalance()));
+    }
+
+    private double counter(String name) {
+        return registry.get(name).functionCounter().count();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.LedgerEntryPage;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.LedgerEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class AccountServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void cursorPagesCoverTheStreamedHistoryExactlyOnce() {
+        Account account = fixtures.createAccount();
+        for (int i = 1; i <= 7; i++) {
+            fixtures.deposit(account.getId(), String.valueOf(i));
+        }
+
+        List<Long> streamed = new ArrayList<>();
+        accountService.streamLedgerEntries(account.getId(), entry -> streamed.add(entry.getId()));
+        assertEquals(7, streamed.size());
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            LedgerEntryPage page = accountService.getLedgerEntryPage(account.getId(), cursor, 3);
+            page.getEntries().stream().map(LedgerEntry::getId).forEach(paged::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(streamed, paged);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void lastFullPageEndsWithAnEmptyPage() {
+        Account account = fixtures.createAccount();
+        fixtures.deposit(account.getId(), "1");
+        fixtures.deposit(account.getId(), "2");
+
+        LedgerEntryPage first = accountService.getLedgerEntryPage(account.getId(), null, 2);
+        assertEquals(2, first.getEntries().size());
+        LedgerEntryPage second = accountService.getLedgerEntryPage(account.getId(), first.getNextCursor(), 2);
+        assertEquals(0, second.getEntries().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void unknownAccountIsRejected() {
+        assertThrows(NoSuchElementException.class, () -> accountService.assertAccountExists(Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Account;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AccountShardingServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountShardingService shardingService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ShardSweeper shardSweeper;
+
+    @Test
+    void creditsAreSpreadAcrossShardsAndSweptBack() {
+        Account merchant = fixtures.createAccount();
+        Account customer = fixtures.createAccount();
+        shardingService.enableSharding(merchant.getId(), 4);
+        List<Long> group = shardingService.balanceGroup(merchant.getId());
+        assertEquals(5, group.size());
+
+        fixtures.deposit(customer.getId(), "100");
+        for (int i = 0; i < 20; i++) {
+            fixtures.transfer(customer.getId(), merchant.getId(), "5");
+        }
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceService.getBalance(merchant.getId()).toBigDecimal()));
+        assertEquals(0, new BigDecimal("100").compareTo(accountService.getAccountWithBalance(merchant.getId()).getBalance()));
+
+        // Debits on the logical account are checked against the whole group
+        fixtures.withdraw(merchant.getId(), "60");
+        assertEquals(0, new BigDecimal("40").compareTo(accountService.getAccountWithBalance(merchant.getId()).getBalance()));
+
+        shardSweeper.sweep();
+        assertEquals(0, new BigDecimal("40").compareTo(balanceService.getBalance(merchant.getId()).toBigDecimal()));
+        for (Long shardId : group.subList(1, group.size())) {
+            assertEquals(0, BigDecimal.ZERO.compareTo(balanceService.getBalance(shardId).toBigDecimal()));
+            assertTrue(shardingService.isShard(shardId));
+        }
+    }
+
+    @Test
+    void shardCountsAboveTheMaximumAreRejected() {
+        Account account = fixtures.createAccount();
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> shardingService.enableSharding(account.getId(), 65));
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        assertFalse(shardingService.isSharded(account.getId()));
+    }
+}
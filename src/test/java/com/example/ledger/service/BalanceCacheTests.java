@@ -0,0 +1,55 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BalanceCacheTests {
+
+    @Test
+    void pinnedEntryIsNotServedAndDeltaAppliesOnlyOnCommit() {
+        BalanceCache cache = new BalanceCache(10);
+        cache.putIfUnchanged(1L, cache.version(1L), money("100"));
+
+        cache.begin(1L);
+        assertNull(cache.get(1L));
+        cache.complete(1L, money("-40"), false);
+        assertEquals(money("100"), cache.get(1L));
+
+        cache.begin(1L);
+        cache.complete(1L, money("-40"), true);
+        assertEquals(money("60"), cache.get(1L));
+    }
+
+    @Test
+    void loadIsDiscardedWhenAWriterInterleaves() {
+        BalanceCache cache = new BalanceCache(10);
+        long version = cache.version(1L);
+        cache.begin(1L);
+        cache.complete(1L, money("10"), true);
+
+        cache.putIfUnchanged(1L, version, money("100"));
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedButNeverPinnedEntries() {
+        BalanceCache cache = new BalanceCache(2);
+        cache.begin(1L);
+        cache.putIfUnchanged(2L, cache.version(2L), money("1"));
+        cache.putIfUnchanged(3L, cache.version(3L), money("1"));
+        cache.putIfUnchanged(4L, cache.version(4L), money("1"));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2L));
+        assertEquals(money("1"), cache.get(4L));
+    }
+
+    private static Money money(String amount) {
+        return Money.of(new BigDecimal(amount));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.BalanceCheckResponse;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.repository.BalanceCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static com.example.ledger.service.LedgerFixtures.amount;
+import static com.example.ledger.service.LedgerFixtures.transferRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BalanceServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private BalanceCheckpointCompactor compactor;
+
+    @Autowired
+    private BalanceCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writesCommittingAfterThePostingDeadlineAreRolledBack() {
+        Account account = fixtures.createAccount();
+        // An earlier write on the same thread must not leave its deadline behind
+        fixtures.deposit(account.getId(), "10");
+
+        // ledger.checkpoint.settle-ms is 2000 in tests: postings must commit within a second
+        assertThrows(ResponseStatusException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            fixtures.deposit(account.getId(), "5");
+            try {
+                Thread.sleep(1200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        assertEquals(0, new BigDecimal("10").compareTo(balanceService.getBalance(account.getId()).toBigDecimal()));
+    }
+
+    @Test
+    void checkpointPlusDeltaMatchesFullRecompute() {
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+
+        transactionService.executeDeposit(amount(source.getId(), "100.0000"));
+        transactionService.executeTransfer(transferRequest(source.getId(), dest.getId(), "30.0000"));
+
+        // Every write above has committed, so checkpoints may cover all entries posted so far
+        compactor.compactThrough(LocalDateTime.now());
+        assertTrue(checkpointRepository.findById(source.getId()).isPresent());
+
+        transactionService.executeWithdrawal(amount(source.getId(), "20.5000"));
+
+        assertEquals(0, new BigDecimal("49.5000").compareTo(balanceService.getBalance(source.getId()).toBigDecimal()));
+        assertEquals(0, new BigDecimal("30.0000").compareTo(balanceService.getBalance(dest.getId()).toBigDecimal()));
+        assertTrue(balanceService.verify(source.getId()).isConsistent());
+        assertTrue(balanceService.verify(dest.getId()).isConsistent());
+    }
+
+    @Test
+    void entriesCommittedAfterACheckpointCountEvenWithLowerIds() {
+        Account account = fixtures.createAccount();
+        Transaction deposit = fixtures.deposit(account.getId(), "10");
+        compactor.compactThrough(LocalDateTime.now());
+
+        // Another instance's id block can be lower than every id the checkpoint already covers
+        Long lowId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM ledger_entries", Long.class) - 1;
+        jdbcTemplate.update("INSERT INTO ledger_entries (id, account_id, transaction_id, type, amount, created_at, posted_at) "
+                + "VALUES (?, ?, ?, 'CREDIT', 5, ?, ?)", lowId, account.getId(), deposit.getId(),
+                LocalDateTime.now(), LocalDateTime.now().plusSeconds(1));
+
+        BalanceCheckResponse check = balanceService.verify(account.getId());
+        assertEquals(0, new BigDecimal("15").compareTo(check.getCheckpointBalance()));
+        assertTrue(check.isConsistent());
+    }
+}
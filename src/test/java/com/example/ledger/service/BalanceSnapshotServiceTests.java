@@ -0,0 +1,105 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.AccountStatement;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.ImportJob.ImportFormat;
+import com.example.ledger.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BalanceSnapshotServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private BalanceSnapshotService snapshotService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private BulkImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pointInTimeBalancesAndStatementsMatchTheHistory() {
+        Account payer = fixtures.createAccount();
+        Account payee = fixtures.createAccount();
+        LocalDate today = LocalDate.now();
+        LocalDateTime deposited = today.minusDays(3).atTime(10, 0);
+        LocalDateTime transferred = today.minusDays(2).atTime(15, 0);
+        backdate(fixtures.deposit(payer.getId(), "100"), deposited);
+        backdate(fixtures.transfer(payer.getId(), payee.getId(), "30"), transferred);
+        fixtures.deposit(payer.getId(), "5");
+
+        snapshotService.snapshotDue();
+        assertEquals(0, new BigDecimal("70").compareTo(jdbcTemplate.queryForObject(
+                "SELECT balance FROM balance_snapshots WHERE account_id = ? AND closing_date = ?",
+                BigDecimal.class, payer.getId(), transferred.toLocalDate())));
+
+        assertBalanceAt("0", payer, deposited);
+        assertBalanceAt("100", payer, deposited.plusMinutes(1));
+        assertBalanceAt("100", payer, transferred.toLocalDate().atStartOfDay());
+        assertBalanceAt("70", payer, transferred.plusSeconds(1));
+        assertBalanceAt("30", payee, today.atStartOfDay());
+        assertBalanceAt("75", payer, LocalDateTime.now().plusMinutes(1));
+
+        Map<Long, AccountStatement> statements = statements(transferred.toLocalDate().atStartOfDay(), today.atStartOfDay());
+        assertStatement(statements.get(payer.getId()), "100", "70", "0", "30", 1);
+        assertStatement(statements.get(payee.getId()), "0", "30", "30", "0", 1);
+
+        // A history import into a snapshotted day drops the snapshots from that day on
+        importService.importFile("snapshots-" + payer.getId() + ".csv", ImportFormat.CSV, new ByteArrayInputStream((
+                "type,source_account_id,destination_account_id,amount,currency,created_at,description\n"
+                + "DEPOSIT,," + payer.getId() + ",50,USD," + deposited.plusHours(2) + ",\n").getBytes(StandardCharsets.UTF_8)));
+        assertTrue(jdbcTemplate.queryForObject("SELECT MAX(closing_date) FROM balance_snapshot_runs", LocalDate.class)
+                .isBefore(deposited.toLocalDate()));
+        assertBalanceAt("120", payer, transferred.plusSeconds(1));
+
+        snapshotService.snapshotDue();
+        assertBalanceAt("120", payer, transferred.plusSeconds(1));
+        assertStatement(statements(deposited.toLocalDate().atStartOfDay(), today.atStartOfDay()).get(payer.getId()),
+                "0", "120", "150", "30", 3);
+    }
+
+    private Map<Long, AccountStatement> statements(LocalDateTime from, LocalDateTime to) {
+        Map<Long, AccountStatement> statements = new HashMap<>();
+        statementService.streamStatements(from, to, statement -> statements.put(statement.getAccountId(), statement));
+        return statements;
+    }
+
+    private void assertStatement(AccountStatement statement, String opening, String closing,
+                                 String credits, String debits, long entries) {
+        assertEquals(0, new BigDecimal(opening).compareTo(statement.getOpeningBalance()));
+        assertEquals(0, new BigDecimal(closing).compareTo(statement.getClosingBalance()));
+        assertEquals(0, new BigDecimal(credits).compareTo(statement.getCredits()));
+        assertEquals(0, new BigDecimal(debits).compareTo(statement.getDebits()));
+        assertEquals(entries, statement.getEntries());
+    }
+
+    private void assertBalanceAt(String expected, Account account, LocalDateTime asOf) {
+        assertEquals(0, new BigDecimal(expected).compareTo(statementService.balanceAt(account.getId(), asOf).getBalance()));
+    }
+
+    private void backdate(Transaction transaction, LocalDateTime createdAt) {
+        jdbcTemplate.update("UPDATE transactions SET created_at = ? WHERE id = ?", createdAt, transaction.getId());
+        jdbcTemplate.update("UPDATE ledger_entries SET created_at = ? WHERE transaction_id = ?", createdAt, transaction.getId());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.BatchTransferRequest;
+import com.example.ledger.dto.BatchTransferRequest.BatchMode;
+import com.example.ledger.dto.BatchTransferResponse;
+import com.example.ledger.dto.TransferRequest;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Transaction.TransactionStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.example.ledger.service.LedgerFixtures.transferRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class BatchTransferServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private BatchTransferService batchTransferService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Test
+    void perItemModeAppliesValidTransfersAndReportsFailures() {
+        Account a = fixtures.createAccount();
+        Account b = fixtures.createAccount();
+        fixtures.deposit(a.getId(), "50");
+
+        BatchTransferResponse response = batchTransferService.executeBatch(batch(BatchMode.PER_ITEM,
+                transferRequest(a.getId(), b.getId(), "30"),
+                transferRequest(a.getId(), b.getId(), "30"),
+                transferRequest(b.getId(), a.getId(), "10")));
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(TransactionStatus.FAILED, response.getResults().get(1).getStatus());
+        assertNotNull(response.getResults().get(2).getTransactionId());
+        assertEquals(0, new BigDecimal("30").compareTo(balanceService.getBalance(a.getId()).toBigDecimal()));
+        assertEquals(0, new BigDecimal("20").compareTo(balanceService.getBalance(b.getId()).toBigDecimal()));
+    }
+
+    @Test
+    void atomicModeRollsBackEveryTransferOnFailure() {
+        Account a = fixtures.createAccount();
+        Account b = fixtures.createAccount();
+        fixtures.deposit(a.getId(), "50");
+
+        assertThrows(InsufficientBalanceException.class, () -> batchTransferService.executeBatch(batch(BatchMode.ATOMIC,
+                transferRequest(a.getId(), b.getId(), "30"),
+                transferRequest(a.getId(), b.getId(), "30"))));
+
+        assertEquals(0, new BigDecimal("50").compareTo(balanceService.getBalance(a.getId()).toBigDecimal()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceService.getBalance(b.getId()).toBigDecimal()));
+    }
+
+    private BatchTransferRequest batch(BatchMode mode, TransferRequest... transfers) {
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setMode(mode);
+        request.setTransfers(List.of(transfers));
+        return request;
+    }
+}
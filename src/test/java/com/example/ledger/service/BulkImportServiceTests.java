@@ -0,0 +1,106 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Account;
+import com.example.ledger.model.ImportJob;
+import com.example.ledger.model.ImportJob.ImportFormat;
+import com.example.ledger.model.ImportJob.ImportStatus;
+import com.example.ledger.model.ImportReject;
+import com.example.ledger.repository.ImportJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class BulkImportServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private BulkImportService importService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ImportJobRepository jobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void csvRowsArePostedInChunksAndInvalidRowsRejected() {
+        Account first = fixtures.createAccount("USD");
+        Account second = fixtures.createAccount("USD");
+        Account euro = fixtures.createAccount("EUR");
+        String csv = String.join("\n",
+                "type,source_account_id,destination_account_id,amount,currency,created_at,description",
+                "DEPOSIT,," + first.getId() + ",100.00,USD,2019-01-02T09:00:00,\"Opening, migrated\"",
+                "TRANSFER," + first.getId() + "," + second.getId() + ",30,USD,2019-01-03T10:00:00,",
+                "TRANSFER," + first.getId() + "," + euro.getId() + ",5,USD,2019-01-03T11:00:00,",
+                "",
+                "WITHDRAWAL," + second.getId() + ",,12.5,USD,2019-01-04T08:30:00,ATM",
+                "DEPOSIT,,999999999,1,USD,2019-01-05T00:00:00,",
+                "DEPOSIT,," + first.getId() + ",abc,USD,2019-01-05T00:00:00,");
+
+        ImportJob job = importService.importFile("history-" + first.getId() + ".csv", ImportFormat.CSV, stream(csv));
+
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRowsImported());
+        assertEquals(3, job.getRowsRejected());
+        assertEquals(8, job.getLinesProcessed());
+        List<Long> rejectedLines = importService.getRejects(job.getId(), 10).stream()
+                .map(ImportReject::getLineNumber).toList();
+        assertEquals(List.of(4L, 7L, 8L), rejectedLines);
+
+        assertEquals(0, new BigDecimal("70").compareTo(balanceService.getBalance(first.getId()).toBigDecimal()));
+        assertEquals(0, new BigDecimal("17.5").compareTo(balanceService.getBalance(second.getId()).toBigDecimal()));
+        assertEquals(0, new BigDecimal("70").compareTo(balanceService.verify(first.getId()).getRecomputedBalance()));
+        assertEquals(LocalDateTime.of(2019, 1, 2, 9, 0), jdbcTemplate.queryForObject(
+                "SELECT created_at FROM transactions WHERE destination_account_id = ? AND type = 'DEPOSIT'",
+                LocalDateTime.class, first.getId()));
+    }
+
+    @Test
+    void anInterruptedImportResumesAfterTheLastCommittedLine() {
+        Account account = fixtures.createAccount("USD");
+        String source = "resume-" + account.getId() + ".ndjson";
+        // The first two lines were committed before the interruption
+        ImportJob interrupted = new ImportJob();
+        interrupted.setSource(source);
+        interrupted.setFormat(ImportFormat.NDJSON);
+        interrupted.setLinesProcessed(2);
+        interrupted.setRowsImported(2);
+        interrupted = jobRepository.save(interrupted);
+        String ndjson = String.join("\n",
+                deposit(account.getId(), "1"),
+                deposit(account.getId(), "2"),
+                deposit(account.getId(), "4"),
+                deposit(account.getId(), "8"));
+
+        ImportJob job = importService.importFile(source, ImportFormat.NDJSON, stream(ndjson));
+
+        assertEquals(interrupted.getId(), job.getId());
+        assertEquals(4, job.getRowsImported());
+        assertEquals(0, new BigDecimal("12").compareTo(balanceService.getBalance(account.getId()).toBigDecimal()));
+    }
+
+    private static String deposit(Long accountId, String amount) {
+        return "{\"type\":\"DEPOSIT\",\"destinationAccountId\":" + accountId + ",\"amount\":" + amount
+                + ",\"currency\":\"USD\",\"createdAt\":\"2019-02-01T12:00:00\"}";
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.LedgerEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileLedgerEventLogTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsAreReadBackFromAnyOffsetAfterReopening() throws Exception {
+        FileLedgerEventLog log = new FileLedgerEventLog(directory.toString());
+        assertEquals(0, log.append(List.of("{\"n\":0}", "{\"n\":1}")));
+        assertEquals(2, log.append(List.of("{\"n\":\"é\"}")));
+        log.close();
+        // An append that was cut off before its index entry was written
+        Files.writeString(directory.resolve("events.log"), "{\"n\":", StandardOpenOption.APPEND);
+
+        FileLedgerEventLog reopened = new FileLedgerEventLog(directory.toString());
+        assertEquals(3, reopened.endOffset());
+        assertEquals(List.of(new LedgerEvent(1, "{\"n\":1}"), new LedgerEvent(2, "{\"n\":\"é\"}")), reopened.read(1, 10));
+        assertEquals(3, reopened.append(List.of("{\"n\":3}")));
+        assertEquals(List.of(new LedgerEvent(0, "{\"n\":0}")), reopened.read(0, 1));
+        assertEquals("{\"n\":3}", reopened.read(3, 10).get(0).event());
+        assertTrue(reopened.read(4, 10).isEmpty());
+        reopened.close();
+    }
+}
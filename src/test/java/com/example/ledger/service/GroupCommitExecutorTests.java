@@ -0,0 +1,79 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Transaction;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.example.ledger.service.LedgerFixtures.amount;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(properties = {
+        "ledger.group-commit.enabled=true",
+        "ledger.group-commit.max-wait-ms=50"
+})
+class GroupCommitExecutorTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private GroupCommitExecutor groupCommitExecutor;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void failingOperationDoesNotPoisonItsBatch() throws Exception {
+        Account account = fixtures.createAccount();
+        AmountRequest deposit = amount(account.getId(), "100");
+        groupCommitExecutor.execute(() -> transactionService.applyDeposit(deposit),
+                () -> transactionService.executeDeposit(deposit));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Transaction>> results = new ArrayList<>();
+        for (String value : List.of("30", "30", "30", "30")) {
+            AmountRequest withdrawal = amount(account.getId(), value);
+            results.add(pool.submit(() -> groupCommitExecutor.execute(
+                    () -> transactionService.applyWithdrawal(withdrawal),
+                    () -> transactionService.executeWithdrawal(withdrawal))));
+        }
+
+        int completed = 0;
+        int rejected = 0;
+        for (Future<Transaction> result : results) {
+            try {
+                result.get();
+                completed++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(InsufficientBalanceException.class, e.getCause());
+                rejected++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(3, completed);
+        assertEquals(1, rejected);
+        assertEquals(0.0, meterRegistry.counter("ledger.group_commit.fallbacks").count());
+        assertEquals(0, new BigDecimal("10").compareTo(balanceService.getBalance(account.getId()).toBigDecimal()));
+    }
+}
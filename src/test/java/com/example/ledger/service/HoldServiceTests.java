@@ -0,0 +1,117 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.CaptureHoldRequest;
+import com.example.ledger.dto.HoldRequest;
+import com.example.ledger.exception.HoldStateException;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Hold.HoldStatus;
+import com.example.ledger.model.Money;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.example.ledger.repository.HoldRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class HoldServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private AvailableBalanceIndex holdIndex;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Test
+    void heldFundsCannotBeSpentAndCapturesMoveThem() {
+        Account customer = fixtures.createAccount();
+        Account merchant = fixtures.createAccount();
+        fixtures.deposit(customer.getId(), "100");
+
+        Hold hold = reserve(customer.getId(), merchant.getId(), "80", null);
+        assertAvailable(customer.getId(), "20");
+        assertThrows(InsufficientBalanceException.class, () -> fixtures.withdraw(customer.getId(), "30"));
+        assertThrows(InsufficientBalanceException.class, () -> reserve(customer.getId(), merchant.getId(), "30", null));
+
+        CaptureHoldRequest partial = new CaptureHoldRequest();
+        partial.setAmount(new BigDecimal("50"));
+        assertEquals(TransactionType.HOLD_CAPTURE, holdService.capture(hold.getId(), partial).getType());
+        assertBalance(customer.getId(), "50");
+        assertBalance(merchant.getId(), "50");
+        assertAvailable(customer.getId(), "20");
+
+        partial.setAmount(new BigDecimal("40"));
+        assertThrows(HoldStateException.class, () -> holdService.capture(hold.getId(), partial));
+
+        // A final capture releases what it does not take
+        CaptureHoldRequest last = new CaptureHoldRequest();
+        last.setAmount(new BigDecimal("10"));
+        last.setFinalCapture(true);
+        holdService.capture(hold.getId(), last);
+        assertEquals(HoldStatus.CAPTURED, holdService.getHold(hold.getId()).getStatus());
+        assertBalance(customer.getId(), "40");
+        assertAvailable(customer.getId(), "40");
+        assertThrows(HoldStateException.class, () -> holdService.release(hold.getId()));
+    }
+
+    @Test
+    void releasedAndExpiredHoldsFreeTheirFunds() {
+        Account customer = fixtures.createAccount();
+        Account merchant = fixtures.createAccount();
+        fixtures.deposit(customer.getId(), "100");
+
+        Hold released = reserve(customer.getId(), merchant.getId(), "30", null);
+        Hold expiring = reserve(customer.getId(), merchant.getId(), "50", 3600L);
+        assertAvailable(customer.getId(), "20");
+
+        holdService.release(released.getId());
+        assertAvailable(customer.getId(), "50");
+
+        Hold due = holdRepository.findById(expiring.getId()).orElseThrow();
+        due.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        holdRepository.save(due);
+        assertThrows(HoldStateException.class, () -> holdService.capture(expiring.getId(), new CaptureHoldRequest()));
+
+        while (holdService.expireDue(100) > 0) {
+            // drain holds that other tests left due
+        }
+        assertEquals(HoldStatus.EXPIRED, holdService.getHold(expiring.getId()).getStatus());
+        assertAvailable(customer.getId(), "100");
+        assertEquals(0, holdRepository.sumRemainingByAccountId(customer.getId(), HoldStatus.ACTIVE).signum());
+    }
+
+    private void assertAvailable(Long accountId, String expected) {
+        assertEquals(Money.of(new BigDecimal(expected)), holdIndex.available(accountId));
+        // The in-memory index agrees with the database
+        assertEquals(Money.of(holdRepository.sumRemainingByAccountId(accountId, HoldStatus.ACTIVE)), holdIndex.held(accountId));
+    }
+
+    private void assertBalance(Long accountId, String expected) {
+        assertEquals(0, new BigDecimal(expected).compareTo(accountService.getAccountWithBalance(accountId).getBalance()));
+    }
+
+    private Hold reserve(Long accountId, Long destId, String amount, Long expiresInSeconds) {
+        HoldRequest request = new HoldRequest();
+        request.setAccountId(accountId);
+        request.setDestinationAccountId(destId);
+        request.setAmount(new BigDecimal(amount));
+        request.setExpiresInSeconds(expiresInSeconds);
+        return holdService.reserve(request);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.exception.IdempotencyKeyReusedException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ledger.service.LedgerFixtures.amount;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class IdempotencyServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Test
+    void aRetryReturnsTheFirstTransactionWithoutPostingAgain() {
+        Account account = fixtures.createAccount();
+        String key = UUID.randomUUID().toString();
+
+        Transaction first = deposit(key, account.getId(), "25");
+        Transaction retry = deposit(key, account.getId(), "25");
+
+        assertEquals(first.getId(), retry.getId());
+        assertEquals(0, new BigDecimal("25").compareTo(balanceService.getBalance(account.getId()).toBigDecimal()));
+        assertEquals(first.getId(), recordRepository.findById(key).orElseThrow().getTransactionId());
+        assertThrows(IdempotencyKeyReusedException.class, () -> deposit(key, account.getId(), "26"));
+    }
+
+    @Test
+    void aConcurrentDuplicateWaitsForTheRequestInFlight() throws Exception {
+        Account account = fixtures.createAccount();
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger postings = new AtomicInteger();
+
+        CompletableFuture<Transaction> first = CompletableFuture.supplyAsync(() -> {
+            AmountRequest request = amount(account.getId(), "10");
+            return idempotencyService.execute(key, "deposit", request, () -> {
+                postings.incrementAndGet();
+                started.countDown();
+                await(release);
+                return transactionService.executeDeposit(request);
+            });
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Transaction> duplicate = CompletableFuture.supplyAsync(() -> {
+            AmountRequest request = amount(account.getId(), "10");
+            return idempotencyService.execute(key, "deposit", request, () -> {
+                postings.incrementAndGet();
+                return transactionService.executeDeposit(request);
+            });
+        });
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS).getId(), duplicate.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(1, postings.get());
+        assertEquals(0, new BigDecimal("10").compareTo(balanceService.getBalance(account.getId()).toBigDecimal()));
+    }
+
+    private Transaction deposit(String key, Long accountId, String amount) {
+        AmountRequest request = amount(accountId, amount);
+        return idempotencyService.execute(key, "deposit", request, () -> transactionService.executeDeposit(request));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
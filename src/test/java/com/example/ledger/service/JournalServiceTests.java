@@ -0,0 +1,128 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.JournalRequest;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.example.ledger.model.ReconciliationRun;
+import com.example.ledger.model.ReconciliationRun.RunMode;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.Transaction.TransactionType;
+import com.example.ledger.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class JournalServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aPaymentWithAFeeAndAConversionArePostedAsSingleTransactions() {
+        fixtures.awaitSettled();
+        reconciliationService.reconcile(RunMode.INCREMENTAL);
+        Account payer = fixtures.createAccount("USD");
+        Account merchant = fixtures.createAccount("USD");
+        Account fees = fixtures.createAccount("USD");
+        Account desk = fixtures.createAccount("USD");
+        Account deskEur = fixtures.createAccount("EUR");
+        Account customerEur = fixtures.createAccount("EUR");
+        fixtures.deposit(payer.getId(), "100");
+        fixtures.deposit(deskEur.getId(), "1000");
+
+        Transaction payment = journalService.post(journal("Order 42",
+                leg(payer, EntryType.DEBIT, "100"), leg(merchant, EntryType.CREDIT, "97"), leg(fees, EntryType.CREDIT, "3")));
+        Transaction conversion = journalService.post(journal("FX",
+                leg(merchant, EntryType.DEBIT, "50"), leg(desk, EntryType.CREDIT, "50"),
+                leg(deskEur, EntryType.DEBIT, "45.5"), leg(customerEur, EntryType.CREDIT, "45.5")));
+
+        assertEquals(TransactionType.JOURNAL, payment.getType());
+        assertEquals(0, new BigDecimal("100").compareTo(payment.getAmount()));
+        assertEquals("USD", conversion.getCurrency());
+        assertEquals(0, new BigDecimal("50").compareTo(conversion.getAmount()));
+        assertEquals(3, entryCount(payment));
+        assertEquals(4, entryCount(conversion));
+        assertBalance("0", payer);
+        assertBalance("47", merchant);
+        assertBalance("3", fees);
+        assertBalance("50", desk);
+        assertBalance("954.5", deskEur);
+        assertBalance("45.5", customerEur);
+
+        fixtures.awaitSettled();
+        ReconciliationRun run = reconciliationService.reconcile(RunMode.INCREMENTAL);
+        // Two deposits and two journals
+        assertEquals(4, run.getTransactions());
+        assertEquals(0, run.getMismatches());
+    }
+
+    @Test
+    void unbalancedOrUnfundedJournalsPostNothing() {
+        Account payer = fixtures.createAccount("USD");
+        Account payee = fixtures.createAccount("USD");
+        Account payeeEur = fixtures.createAccount("EUR");
+        fixtures.deposit(payer.getId(), "10");
+        long transactions = transactionRepository.count();
+
+        assertThrows(IllegalArgumentException.class, () -> journalService.post(journal(null,
+                leg(payer, EntryType.DEBIT, "5"), leg(payee, EntryType.CREDIT, "4"))));
+        assertThrows(IllegalArgumentException.class, () -> journalService.post(journal(null,
+                leg(payer, EntryType.DEBIT, "5"), leg(payeeEur, EntryType.CREDIT, "5"))));
+        assertThrows(InsufficientBalanceException.class, () -> journalService.post(journal(null,
+                leg(payer, EntryType.DEBIT, "6"), leg(payee, EntryType.CREDIT, "6"),
+                leg(payer, EntryType.DEBIT, "6"), leg(payee, EntryType.CREDIT, "6"))));
+
+        assertEquals(transactions, transactionRepository.count());
+        assertBalance("10", payer);
+        assertBalance("0", payee);
+    }
+
+    private int entryCount(Transaction transaction) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entries WHERE transaction_id = ?",
+                Integer.class, transaction.getId());
+    }
+
+    private void assertBalance(String expected, Account account) {
+        assertEquals(0, new BigDecimal(expected).compareTo(balanceService.getBalance(account.getId()).toBigDecimal()));
+    }
+
+    private static JournalRequest journal(String description, JournalRequest.Leg... legs) {
+        JournalRequest request = new JournalRequest();
+        request.setDescription(description);
+        request.setLegs(new ArrayList<>(List.of(legs)));
+        return request;
+    }
+
+    private static JournalRequest.Leg leg(Account account, EntryType type, String amount) {
+        JournalRequest.Leg leg = new JournalRequest.Leg();
+        leg.setAccountId(account.getId());
+        leg.setType(type);
+        leg.setAmount(new BigDecimal(amount));
+        return leg;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.LedgerEntryPage;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.ArchiveSegment;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.ReconciliationRun;
+import com.example.ledger.model.ReconciliationRun.RunMode;
+import com.example.ledger.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LedgerArchiveServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private LedgerArchiveService archiveService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archivedHistoryStaysReadableAndBalancesAreUnchanged() {
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+        Transaction deposit = fixtures.deposit(source.getId(), "100");
+        Transaction transfer = fixtures.transfer(source.getId(), dest.getId(), "40");
+        // Move both transactions into a closed period
+        backdate(deposit, LocalDateTime.of(2020, 3, 2, 10, 0));
+        backdate(transfer, LocalDateTime.of(2020, 3, 5, 12, 30));
+        fixtures.transfer(source.getId(), dest.getId(), "15");
+
+        List<ArchiveSegment> archived = archiveService.archiveDue();
+
+        // Other tests may have left older history behind (e.g. bulk imports); this test's period is March 2020
+        ArchiveSegment march = archived.stream()
+                .filter(segment -> segment.getPeriodStart().equals(LocalDateTime.of(2020, 3, 1, 0, 0)))
+                .findFirst().orElseThrow();
+        assertEquals(3, march.getEntryCount());
+        assertEquals(1, count("SELECT COUNT(*) FROM ledger_entries WHERE account_id = ?", source.getId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM opening_balances WHERE account_id = ?", source.getId()));
+
+        // Balances include the archived entries through the opening balances
+        assertBalance(source.getId(), "45");
+        assertBalance(dest.getId(), "55");
+
+        // History is the archived entries followed by the hot ones, across pages
+        LedgerEntryPage first = accountService.getLedgerEntryPage(source.getId(), null, 2);
+        LedgerEntryPage second = accountService.getLedgerEntryPage(source.getId(), first.getNextCursor(), 2);
+        assertEquals(List.of(deposit.getId(), transfer.getId()), transactionIds(first.getEntries()));
+        assertEquals(1, second.getEntries().size());
+        assertTrue(second.getEntries().get(0).getCreatedAt().isAfter(LocalDateTime.of(2021, 1, 1, 0, 0)));
+
+        List<LedgerEntry> streamed = new ArrayList<>();
+        accountService.streamLedgerEntries(source.getId(), streamed::add);
+        assertEquals(3, streamed.size());
+        assertEquals(0, new BigDecimal("100").compareTo(streamed.get(0).getAmount()));
+        assertEquals(LocalDateTime.of(2020, 3, 2, 10, 0), streamed.get(0).getCreatedAt());
+
+        // Archived transactions are not reported as missing their entries
+        fixtures.awaitSettled();
+        ReconciliationRun run = reconciliationService.reconcile(RunMode.FULL);
+        assertTrue(reconciliationService.getMismatches(run.getId(), 1000).stream()
+                .noneMatch(mismatch -> mismatch.getTransactionId().equals(deposit.getId())
+                        || mismatch.getTransactionId().equals(transfer.getId())));
+    }
+
+    private void assertBalance(Long accountId, String expected) {
+        var check = balanceService.verify(accountId);
+        assertTrue(check.isConsistent());
+        assertEquals(0, new BigDecimal(expected).compareTo(check.getRecomputedBalance()));
+    }
+
+    private void backdate(Transaction transaction, LocalDateTime createdAt) {
+        jdbcTemplate.update("UPDATE transactions SET created_at = ? WHERE id = ?", createdAt, transaction.getId());
+        jdbcTemplate.update("UPDATE ledger_entries SET created_at = ? WHERE transaction_id = ?", createdAt, transaction.getId());
+    }
+
+    private Integer count(String sql, Long accountId) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, accountId);
+    }
+
+    private static List<Long> transactionIds(List<LedgerEntry> entries) {
+        return entries.stream().map(LedgerEntry::getTransactionId).toList();
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.dto.JournalRequest;
+import com.example.ledger.dto.JournalRequest.Leg;
+import com.example.ledger.dto.TransferRequest;
+import com.example.ledger.exception.IdempotencyKeyReusedException;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.IdempotencyKey;
+import com.example.ledger.model.LedgerEntry;
+import com.example.ledger.model.LedgerEntry.EntryType;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.repository.HoldRepository;
+import com.example.ledger.repository.LedgerEntryRepository;
+import com.example.ledger.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.example.ledger.service.LedgerFixtures.amount;
+import static com.example.ledger.service.LedgerFixtures.transferRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "ledger.engine.enabled=true",
+        "ledger.engine.partitions=2",
+        "ledger.engine.segment-size-mb=1",
+        "ledger.engine.directory=target/ledger-engine/${random.uuid}"
+})
+class LedgerEngineTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private LedgerEngine engine;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private AvailableBalanceIndex holdIndex;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Test
+    void theEngineProducesTheSameLedgerAsTheJpaPath() throws Exception {
+        Account jpaSource = fixtures.createAccount();
+        Account jpaDest = fixtures.createAccount();
+        Account engineSource = fixtures.createAccount();
+        // An odd and an even id, so that the transfer crosses partitions
+        Account engineDest = fixtures.createAccount();
+        while ((engineDest.getId() - engineSource.getId()) % 2 == 0) {
+            engineDest = fixtures.createAccount();
+        }
+
+        run(jpaSource, jpaDest, request -> transactionService.executeDeposit(request), transactionService::executeTransfer,
+                transactionService::executeWithdrawal);
+        run(engineSource, engineDest, engine::deposit, engine::transfer, engine::withdraw);
+
+        List<String> expected = describe(jpaSource, jpaDest);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!expected.equals(describe(engineSource, engineDest)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, describe(engineSource, engineDest));
+        assertEquals(0, new BigDecimal("70").compareTo(balanceService.getBalance(engineSource.getId()).toBigDecimal()));
+        assertEquals(0, new BigDecimal("20").compareTo(balanceService.getBalance(engineDest.getId()).toBigDecimal()));
+        assertEquals(0, new BigDecimal("70").compareTo(balanceService.verify(engineSource.getId()).getRecomputedBalance()));
+    }
+
+    @Test
+    void balancesAreRebuiltAfterARestart() throws Exception {
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+        Transaction deposit = engine.deposit(amount(source.getId(), "40"));
+        awaitPersisted(List.of(deposit));
+
+        engine.stop();
+        engine.start();
+
+        Transaction transfer = engine.transfer(transferRequest(source.getId(), dest.getId(), "40"));
+        assertThrows(InsufficientBalanceException.class, () -> engine.withdraw(amount(source.getId(), "0.0001")));
+        awaitPersisted(List.of(transfer));
+        assertEquals(0, balanceService.getBalance(source.getId()).signum());
+        // Written by the persister after the journal: posted_at, not created_at, places it in a reconciliation run
+        assertFalse(transactionRepository.findById(transfer.getId()).orElseThrow().getPostedAt()
+                .isBefore(transfer.getCreatedAt()));
+    }
+
+    @Test
+    void fundsReservedByHoldsCannotBeSpent() {
+        Account account = fixtures.createAccount();
+        Account merchant = fixtures.createAccount();
+        // Placed before the engine was enabled; HoldService refuses new holds while it is
+        Hold hold = new Hold();
+        hold.setAccountId(account.getId());
+        hold.setDestinationAccountId(merchant.getId());
+        hold.setAmount(new BigDecimal("80"));
+        hold.setCurrency(account.getCurrency());
+        hold.setExpiresAt(LocalDateTime.now().plusDays(1));
+        hold = holdRepository.save(hold);
+        // As if loaded at startup
+        holdIndex.load();
+        engine.deposit(amount(account.getId(), "100"));
+
+        assertThrows(InsufficientBalanceException.class, () -> engine.withdraw(amount(account.getId(), "30")));
+        engine.withdraw(amount(account.getId(), "20"));
+
+        holdService.release(hold.getId());
+        engine.withdraw(amount(account.getId(), "50"));
+    }
+
+    @Test
+    void aRetryGetsThePostingOfItsIdempotencyKeyBeforeItIsPersisted() {
+        Account account = fixtures.createAccount();
+        IdempotencyKey key = new IdempotencyKey("engine-" + account.getId(), "fingerprint");
+        AmountRequest first = amount(account.getId(), "10");
+        first.setIdempotencyKey(key);
+        AmountRequest retry = amount(account.getId(), "10");
+        retry.setIdempotencyKey(key);
+
+        Transaction posted = engine.deposit(first);
+        assertEquals(posted.getId(), engine.deposit(retry).getId());
+
+        AmountRequest reused = amount(account.getId(), "11");
+        reused.setIdempotencyKey(new IdempotencyKey(key.value(), "other"));
+        assertThrows(IdempotencyKeyReusedException.class, () -> engine.deposit(reused));
+    }
+
+    @Test
+    void writesThatBypassTheEngineAreRefused() {
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+        JournalRequest journal = new JournalRequest();
+        journal.setLegs(List.of(leg(source, EntryType.DEBIT), leg(dest, EntryType.CREDIT)));
+
+        ResponseStatusException refused = assertThrows(ResponseStatusException.class, () -> journalService.post(journal));
+        assertEquals(HttpStatus.CONFLICT, refused.getStatusCode());
+    }
+
+    private static Leg leg(Account account, EntryType type) {
+        Leg leg = new Leg();
+        leg.setAccountId(account.getId());
+        leg.setType(type);
+        leg.setAmount(BigDecimal.ONE);
+        return leg;
+    }
+
+    private void run(Account source, Account dest, Poster<AmountRequest> deposit,
+                                  Poster<TransferRequest> transfer, Poster<AmountRequest> withdrawal) {
+        deposit.post(amount(source.getId(), "100"));
+        transfer.post(transferRequest(source.getId(), dest.getId(), "30"));
+        withdrawal.post(amount(dest.getId(), "10"));
+        assertThrows(InsufficientBalanceException.class, () -> transfer.post(transferRequest(source.getId(), dest.getId(), "500")));
+    }
+
+    // Transactions (without ids and timestamps) and ledger entries of the two accounts, in posting order
+    private List<String> describe(Account source, Account dest) {
+        List<String> lines = new ArrayList<>();
+        Consumer<Transaction> transaction = t -> lines.add(t.getType() + " " + t.getStatus() + " "
+                + role(t.getSourceAccountId(), source, dest) + "->" + role(t.getDestinationAccountId(), source, dest)
+                + " " + t.getAmount().stripTrailingZeros().toPlainString());
+        transactionRepository.findBySourceAccountIdOrDestinationAccountId(source.getId(), source.getId()).stream()
+                .sorted(Comparator.comparing(Transaction::getId)).forEach(transaction);
+        for (Account account : List.of(source, dest)) {
+            List<LedgerEntry> entries = ledgerEntryRepository.findAllByAccountIdOrderByCreatedAtAsc(account.getId());
+            entries.sort(Comparator.comparing(LedgerEntry::getId));
+            for (LedgerEntry entry : entries) {
+                lines.add(role(entry.getAccountId(), source, dest) + " " + entry.getType() + " "
+                        + entry.getAmount().stripTrailingZeros().toPlainString());
+            }
+        }
+        return lines;
+    }
+
+    private static String role(Long accountId, Account source, Account dest) {
+        return accountId == null ? "-" : accountId.equals(source.getId()) ? "source" : accountId.equals(dest.getId()) ? "dest" : "other";
+    }
+
+    private void awaitPersisted(List<Transaction> transactions) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (transactions.stream().allMatch(t -> transactionRepository.existsById(t.getId()))) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Engine postings were not persisted");
+    }
+
+    private interface Poster<R> {
+        Transaction post(R request);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.LedgerEvent;
+import com.example.ledger.dto.LedgerEventPage;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Transaction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.ledger.service.LedgerFixtures.amount;
+import static com.example.ledger.service.LedgerFixtures.transferRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LedgerEventPublisherTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private LedgerEventPublisher publisher;
+
+    @Autowired
+    private LedgerEventFeed feed;
+
+    @Autowired
+    private LedgerEventSink sink;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void completedPostingsArePublishedWithTheirLegsAndCanBeReplayed() throws Exception {
+        Account first = fixtures.createAccount();
+        Account second = fixtures.createAccount();
+        long start = sink.endOffset();
+
+        Transaction deposit = transactionService.executeDeposit(amount(first.getId(), "50"));
+        Transaction transfer = transactionService.executeTransfer(transferRequest(first.getId(), second.getId(), "20"));
+        assertThrows(InsufficientBalanceException.class,
+                () -> transactionService.executeTransfer(transferRequest(first.getId(), second.getId(), "1000")));
+        publisher.publishPending();
+
+        Map<Long, LedgerEvent> events = new HashMap<>();
+        for (LedgerEvent event : feed.read(start, 1000).getEvents()) {
+            events.put(objectMapper.readTree(event.event()).path("transaction").path("id").asLong(), event);
+        }
+        JsonNode depositEvent = objectMapper.readTree(events.get(deposit.getId()).event());
+        assertEquals(1, depositEvent.path("entries").size());
+        assertEquals("CREDIT", depositEvent.path("entries").get(0).path("type").asText());
+        JsonNode transferEvent = objectMapper.readTree(events.get(transfer.getId()).event());
+        assertEquals("COMPLETED", transferEvent.path("transaction").path("status").asText());
+        assertEquals(2, transferEvent.path("entries").size());
+        // Only completed postings are published
+        assertEquals(2, events.values().stream()
+                .filter(event -> event.event().contains("\"sourceAccountId\":" + first.getId())
+                        || event.event().contains("\"destinationAccountId\":" + first.getId()))
+                .count());
+
+        long transferOffset = events.get(transfer.getId()).offset();
+        List<LedgerEvent> replayed = feed.read(transferOffset, 1).getEvents();
+        assertEquals(events.get(transfer.getId()).event(), replayed.get(0).event());
+    }
+
+    @Test
+    void aLongPollCompletesWhenTheNextEventIsPublished() throws Exception {
+        Account account = fixtures.createAccount();
+        publisher.publishPending();
+        long end = sink.endOffset();
+
+        DeferredResult<LedgerEventPage> poll = feed.poll(end, 10, 10_000);
+        assertFalse(poll.hasResult());
+        transactionService.executeDeposit(amount(account.getId(), "5"));
+        publisher.publishPending();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!poll.hasResult() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(poll.hasResult());
+        LedgerEventPage page = (LedgerEventPage) poll.getResult();
+        assertEquals(end, page.getEvents().get(0).offset());
+        assertEquals(end + page.getEvents().size(), page.getNextOffset());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.dto.CreateAccountRequest;
+import com.example.ledger.dto.TransferRequest;
+import com.example.ledger.model.Account;
+import com.example.ledger.model.Account.AccountType;
+import com.example.ledger.model.Transaction;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Accounts and postings through the services, shared by the @SpringBootTest classes (picked up by component scan)
+@Component
+public class LedgerFixtures {
+
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final BalanceService balanceService;
+
+    public LedgerFixtures(AccountService accountService, TransactionService transactionService,
+                          BalanceService balanceService) {
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.balanceService = balanceService;
+    }
+
+    public Account createAccount() {
+        return createAccount("USD");
+    }
+
+    public Account createAccount(String currency) {
+        CreateAccountRequest request = new CreateAccountRequest();
+        request.setUserId(1L);
+        request.setType(AccountType.CHECKING);
+        request.setCurrency(currency);
+        return accountService.createAccount(request);
+    }
+
+    public Transaction deposit(Long accountId, String amount) {
+        return transactionService.executeDeposit(amount(accountId, amount));
+    }
+
+    public Transaction withdraw(Long accountId, String amount) {
+        return transactionService.executeWithdrawal(amount(accountId, amount));
+    }
+
+    public Transaction transfer(Long sourceId, Long destId, String amount) {
+        return transactionService.executeTransfer(transferRequest(sourceId, destId, amount));
+    }
+
+    // Waits until everything posted so far is settled, i.e. covered by the next reconciliation run
+    public void awaitSettled() {
+        LocalDateTime posted = LocalDateTime.now();
+        while (!balanceService.settledThrough().isAfter(posted)) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public static AmountRequest amount(Long accountId, String amount) {
+        AmountRequest request = new AmountRequest();
+        request.setAccountId(accountId);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+
+    public static TransferRequest transferRequest(Long sourceId, Long destId, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setSourceAccountId(sourceId);
+        request.setDestinationAccountId(destId);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
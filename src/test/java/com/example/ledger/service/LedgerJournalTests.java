@@ -0,0 +1,72 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Transaction.TransactionStatus;
+import com.example.ledger.model.Transaction.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LedgerJournalTests {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoveryReturnsTheRecordsAfterTheCheckpointAndDropsATornTail() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE);
+        journal.recover(0);
+        for (int i = 0; i < 40; i++) {
+            journal.append(record(journal.nextSeq(), "description " + i));
+        }
+        journal.force();
+        List<Path> segments = segments();
+        assertEquals(true, segments.size() > 1);
+
+        // Simulate a crash in the middle of an append: a length without its payload
+        Path last = segments.get(segments.size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.allocate(SEGMENT_SIZE);
+            channel.read(content, 0);
+            int end = 0;
+            while (content.getInt(end) != 0) {
+                end += 8 + content.getInt(end);
+            }
+            channel.write(ByteBuffer.allocate(8).putInt(0, 200).putInt(4, 12345), end);
+        }
+
+        LedgerJournal recovered = new LedgerJournal(directory, SEGMENT_SIZE);
+        List<JournalRecord> records = recovered.recover(25);
+        assertEquals(15, records.size());
+        assertEquals(26, records.get(0).seq());
+        assertEquals(record(40, "description 39"), records.get(14));
+        assertEquals(41, recovered.nextSeq());
+        recovered.append(record(41, null));
+
+        recovered.release(40);
+        assertEquals(1, segments().size());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static JournalRecord record(long seq, String description) {
+        return new JournalRecord(seq, 1000 + seq, TransactionType.TRANSFER, TransactionStatus.COMPLETED, 1L, 2L,
+                seq * 10_000, "USD", description, LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_789),
+                seq % 2 == 0 ? "key-" + seq : null, seq % 2 == 0 ? "fingerprint" : null);
+    }
+}
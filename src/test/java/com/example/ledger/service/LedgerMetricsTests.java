@@ -0,0 +1,58 @@
+package com.example.ledger.service;
+
+import com.example.ledger.dto.AmountRequest;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+
+import static com.example.ledger.service.LedgerFixtures.amount;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LedgerMetricsTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerMetrics metrics;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void recordsOperationsByOutcomeAndTheirCommitsAndRollbacks() {
+        Account account = fixtures.createAccount();
+        long completedBefore = operationCount("deposit", "completed");
+        long rejectedBefore = operationCount("withdrawal", "insufficient_funds");
+        double rollbacksBefore = registry.get("ledger.transactions.rollbacks").counter().count();
+        long commitsBefore = registry.get("ledger.transaction.commit").tag("read_only", "false").timer().count();
+
+        AmountRequest deposit = amount(account.getId(), "10");
+        metrics.recordOperation("deposit", () -> transactionService.executeDeposit(deposit));
+        AmountRequest withdrawal = amount(account.getId(), "25");
+        assertThrows(InsufficientBalanceException.class,
+                () -> metrics.recordOperation("withdrawal", () -> transactionService.executeWithdrawal(withdrawal)));
+
+        assertEquals(completedBefore + 1, operationCount("deposit", "completed"));
+        assertEquals(rejectedBefore + 1, operationCount("withdrawal", "insufficient_funds"));
+        assertEquals(rollbacksBefore + 1, registry.get("ledger.transactions.rollbacks").counter().count());
+        assertTrue(registry.get("ledger.transaction.commit").tag("read_only", "false").timer().count() > commitsBefore);
+        assertTrue(registry.get("ledger.lock.acquire").timer().count() > 0);
+        assertTrue(registry.get("ledger.entries.persist").timer().count() > 0);
+    }
+
+    private long operationCount(String operation, String outcome) {
+        var timer = registry.find("ledger.operation").tags("operation", operation, "outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
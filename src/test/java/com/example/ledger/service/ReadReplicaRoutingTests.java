@@ -0,0 +1,71 @@
+package com.example.ledger.service;
+
+import com.example.ledger.config.ReadRouting;
+import com.example.ledger.model.Account;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The "replica" is a second in-memory database, synchronized by hand to simulate replication lag
+@SpringBootTest(properties = {
+        "ledger.replica.enabled=true",
+        "ledger.replica.url=jdbc:h2:mem:replica-${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "ledger.replica.username=sa",
+        "ledger.balance-cache.enabled=false"})
+class ReadReplicaRoutingTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountMetadataCache metadataCache;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @Test
+    void readOnlyTransactionsReadTheReplicaUnlessReadYourWritesIsRequested() {
+        Account account = fixtures.createAccount();
+        fixtures.deposit(account.getId(), "100");
+        replicate();
+        fixtures.deposit(account.getId(), "50");
+        Account unreplicated = fixtures.createAccount();
+        // As if created through another instance, whose writes this instance's metadata cache never sees
+        metadataCache.invalidate(unreplicated.getId());
+
+        assertBalance("100", accountService.getAccountWithBalance(account.getId()));
+        assertThrows(NoSuchElementException.class, () -> accountService.getAccountWithBalance(unreplicated.getId()));
+
+        assertBalance("150", ReadRouting.callOnPrimary(() -> accountService.getAccountWithBalance(account.getId())));
+        assertEquals(unreplicated.getId(),
+                ReadRouting.callOnPrimary(() -> accountService.getAccountWithBalance(unreplicated.getId())).getId());
+    }
+
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primary).queryForList("SCRIPT DROP", String.class);
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        script.forEach(replicaJdbc::execute);
+    }
+
+    private static void assertBalance(String expected, Account account) {
+        assertEquals(0, new BigDecimal(expected).compareTo(account.getBalance()));
+    }
+}
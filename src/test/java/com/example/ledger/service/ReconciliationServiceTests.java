@@ -0,0 +1,169 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Account;
+import com.example.ledger.model.ReconciliationMismatch.MismatchKind;
+import com.example.ledger.model.ReconciliationRange;
+import com.example.ledger.model.ReconciliationRun;
+import com.example.ledger.model.ReconciliationRun.RunMode;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.repository.ReconciliationRangeRepository;
+import com.example.ledger.repository.ReconciliationRunRepository;
+import com.example.ledger.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReconciliationServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationRangeRepository rangeRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void incrementalRunsCheckOnlyNewTransactions() {
+        fixtures.awaitSettled();
+        ReconciliationRun previous = reconciliationService.reconcile(RunMode.INCREMENTAL);
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+        fixtures.deposit(source.getId(), "100");
+        fixtures.transfer(source.getId(), dest.getId(), "40");
+        fixtures.withdraw(dest.getId(), "10");
+
+        fixtures.awaitSettled();
+        ReconciliationRun run = reconciliationService.reconcile(RunMode.INCREMENTAL);
+
+        assertEquals(previous.getPostedUntil(), run.getPostedFrom());
+        assertEquals(3, run.getTransactions());
+        assertEquals(4, run.getEntries());
+        assertEquals(0, new BigDecimal("100").compareTo(run.getDeposits()));
+        assertEquals(0, new BigDecimal("10").compareTo(run.getWithdrawals()));
+        assertTrue(run.isBalanced());
+    }
+
+    @Test
+    void corruptedEntriesAreReported() {
+        fixtures.awaitSettled();
+        reconciliationService.reconcile(RunMode.INCREMENTAL);
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+        fixtures.deposit(source.getId(), "100");
+        Transaction transfer = fixtures.transfer(source.getId(), dest.getId(), "40");
+        jdbcTemplate.update("UPDATE ledger_entries SET amount = amount + 1 WHERE transaction_id = ? AND type = 'CREDIT'",
+                transfer.getId());
+        try {
+            fixtures.awaitSettled();
+            ReconciliationRun run = reconciliationService.reconcile(RunMode.INCREMENTAL);
+
+            assertFalse(run.isBalanced());
+            assertEquals(1, run.getMismatches());
+            var mismatch = reconciliationService.getMismatches(run.getId(), 10).get(0);
+            assertEquals(MismatchKind.UNBALANCED_TRANSACTION, mismatch.getKind());
+            assertEquals(transfer.getId(), mismatch.getTransactionId());
+        } finally {
+            jdbcTemplate.update("UPDATE ledger_entries SET amount = amount - 1 WHERE transaction_id = ? AND type = 'CREDIT'",
+                    transfer.getId());
+        }
+    }
+
+    @Test
+    void aTransactionCommittedAfterARunIsCoveredByTheNextOne() throws Exception {
+        Account account = fixtures.createAccount();
+        fixtures.awaitSettled();
+        reconciliationService.reconcile(RunMode.INCREMENTAL);
+
+        // The deposit is posted, then a run starts before it commits
+        CountDownLatch posted = new CountDownLatch(1);
+        CountDownLatch runDone = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Transaction> deposit = pool.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            Transaction transaction = fixtures.deposit(account.getId(), "25");
+            posted.countDown();
+            await(runDone);
+            return transaction;
+        }));
+        await(posted);
+        ReconciliationRun during = reconciliationService.reconcile(RunMode.INCREMENTAL);
+        runDone.countDown();
+        LocalDateTime postedAt = transactionRepository.findById(deposit.get().getId()).orElseThrow().getPostedAt();
+        pool.shutdown();
+
+        assertFalse(during.getPostedUntil().isAfter(postedAt));
+        fixtures.awaitSettled();
+        ReconciliationRun next = reconciliationService.reconcile(RunMode.INCREMENTAL);
+        assertEquals(during.getPostedUntil(), next.getPostedFrom());
+        assertEquals(1, next.getTransactions());
+        assertEquals(0, new BigDecimal("25").compareTo(next.getDeposits()));
+    }
+
+    @Test
+    void anInterruptedRunIsResumedWithoutRescanningCompletedRanges() {
+        Account account = fixtures.createAccount();
+        fixtures.deposit(account.getId(), "100");
+        ReconciliationRun interrupted = new ReconciliationRun();
+        interrupted.setMode(RunMode.FULL);
+        interrupted.setFromTransactionId(0L);
+        interrupted.setToTransactionId(transactionRepository.findMaxId());
+        interrupted.setPostedUntil(LocalDateTime.now());
+        interrupted = runRepository.save(interrupted);
+        // The first slice (0, 50] completed before the interruption
+        ReconciliationRange done = new ReconciliationRange(interrupted.getId(), 0L, 50L);
+        done.setTransactions(7);
+        done.setDebits(BigDecimal.ZERO);
+        done.setCredits(BigDecimal.ZERO);
+        done.setDeposits(BigDecimal.ZERO);
+        done.setWithdrawals(BigDecimal.ZERO);
+        rangeRepository.save(done);
+
+        ReconciliationRun resumed = reconciliationService.reconcile(RunMode.INCREMENTAL);
+
+        assertEquals(interrupted.getId(), resumed.getId());
+        // Slices are aligned to ledger.reconciliation.range-size (50 in tests)
+        long slices = (resumed.getToTransactionId() + 49) / 50;
+        assertEquals(slices, rangeRepository.findByRunId(resumed.getId()).size());
+        ReconciliationRange first = rangeRepository.findByRunId(resumed.getId()).stream()
+                .filter(range -> range.getFromId() == 0L).findFirst().orElseThrow();
+        assertEquals(7, first.getTransactions());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exception.AccountNotActiveException;
+import com.example.ledger.model.Account;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class TransactionServiceTests {
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private AccountMetadataCache metadataCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void transfersSeeADestinationFrozenByAnotherInstance() {
+        Account source = fixtures.createAccount();
+        Account dest = fixtures.createAccount();
+        fixtures.deposit(source.getId(), "100");
+        metadataCache.find(dest.getId());
+
+        // As another instance would: the row changes, this instance's cached metadata does not
+        jdbcTemplate.update("UPDATE accounts SET status = 'FROZEN' WHERE id = ?", dest.getId());
+
+        assertThrows(AccountNotActiveException.class, () -> fixtures.transfer(source.getId(), dest.getId(), "10"));
+        assertEquals(0, new BigDecimal("100").compareTo(balanceService.getBalance(source.getId()).toBigDecimal()));
+    }
+
+    @Test
+    void oppositeDirectionTransfersDoNotDeadlock() throws Exception {
+        Account a = fixtures.createAccount();
+        Account b = fixtures.createAccount();
+        fixtures.deposit(a.getId(), "1000");
+        fixtures.deposit(b.getId(), "1000");
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> forward = pool.submit(() -> transferRepeatedly(a.getId(), b.getId(), 50));
+        Future<?> backward = pool.submit(() -> transferRepeatedly(b.getId(), a.getId(), 50));
+        forward.get();
+        backward.get();
+        pool.shutdown();
+
+        assertEquals(0, new BigDecimal("1000").compareTo(balanceService.getBalance(a.getId()).toBigDecimal()));
+        assertEquals(0, new BigDecimal("1000").compareTo(balanceService.getBalance(b.getId()).toBigDecimal()));
+    }
+
+    private void transferRepeatedly(Long sourceId, Long destId, int times) {
+        for (int i = 0; i < times; i++) {
+            fixtures.transfer(sourceId, destId, "1");
+        }
+    }
+}
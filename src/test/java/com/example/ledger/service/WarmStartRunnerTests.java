@@ -0,0 +1,70 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Account;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "ledger.warmup.enabled=true",
+        "ledger.warmup.iterations=5"
+})
+class WarmStartRunnerTests {
+
+    private static final List<String> TABLES = List.of("accounts", "transactions", "ledger_entries", "balance_checkpoints");
+
+    @Autowired
+    private LedgerFixtures fixtures;
+
+    @Autowired
+    private WarmStartRunner warmStartRunner;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void warmStartLeavesNoRowsBehind() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+
+        Account account = fixtures.createAccount();
+        fixtures.deposit(account.getId(), "25");
+        List<Long> counts = counts();
+
+        warmStartRunner.run(new DefaultApplicationArguments());
+
+        assertEquals(counts, counts());
+        assertEquals(0, new BigDecimal("25").compareTo(balanceService.getBalance(account.getId()).toBigDecimal()));
+    }
+
+    @Test
+    void aMissingColumnFailsStartup() {
+        jdbcTemplate.execute("ALTER TABLE archive_segments ALTER COLUMN file_name RENAME TO segment_file");
+        try {
+            assertThrows(IllegalStateException.class, () -> warmStartRunner.run(new DefaultApplicationArguments()));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE archive_segments ALTER COLUMN segment_file RENAME TO file_name");
+        }
+    }
+
+    private List<Long> counts() {
+        return TABLES.stream()
+                .map(table -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class))
+                .toList();
+    }
+}